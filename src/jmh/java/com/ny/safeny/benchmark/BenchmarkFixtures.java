@@ -0,0 +1,91 @@
+package com.ny.safeny.benchmark;
+
+import com.ny.safeny.model.Claim;
+import com.ny.safeny.model.User;
+import com.ny.safeny.repository.UserRepository;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Shared fixtures for benchmarks
+ * Builds domain objects and wires Spring beans without starting an application context
+ */
+final class BenchmarkFixtures {
+
+    static final String SECRET = "NYSEmergencyReliefSystemSecretKey2025VeryLongSecretKeyForHS512Algorithm";
+    static final long EXPIRATION = 86400000L;
+
+    private static final String[] DISASTER_TYPES = {"FLOOD", "HURRICANE", "FIRE", "WINTER_STORM", "TORNADO"};
+
+    private BenchmarkFixtures() {}
+
+    static User user(long id, String username) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setPassword("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z3k8Rwi2VKJp2X2y7Y5vQp1K");
+        user.setFullName("Benchmark User " + id);
+        user.setEmail(username + "@example.com");
+        user.setPhone("518-555-0100");
+        user.setRole(User.Role.ROLE_USER);
+        user.setEnabled(true);
+        user.setCreatedAt(LocalDateTime.now());
+        user.setUpdatedAt(LocalDateTime.now());
+        return user;
+    }
+
+    static List<Claim> claims(int size) {
+        User owner = user(1L, "citizen");
+        LocalDateTime now = LocalDateTime.now();
+        List<Claim> claims = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Claim claim = new Claim();
+            claim.setId((long) i + 1);
+            claim.setUser(owner);
+            claim.setDisasterType(DISASTER_TYPES[i % DISASTER_TYPES.length]);
+            claim.setDescription("Water damage to first floor and basement after storm surge, claim " + i);
+            claim.setIncidentDate(now.minusDays(i % 30));
+            claim.setLocation("Albany, NY");
+            claim.setRequestAmount(BigDecimal.valueOf(1000L + i * 25L, 2));
+            claim.setStatus(Claim.ClaimStatus.values()[i % Claim.ClaimStatus.values().length]);
+            claim.setCreatedAt(now.minusHours(i));
+            claim.setUpdatedAt(now);
+            claims.add(claim);
+        }
+        return claims;
+    }
+
+    /**
+     * UserRepository stand-in answering findByUsername from a single in-memory user
+     */
+    static UserRepository userRepository(User user) {
+        return (UserRepository) Proxy.newProxyInstance(
+                UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findByUsername")) {
+                        return user.getUsername().equals(args[0]) ? Optional.of(user) : Optional.empty();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /**
+     * Set a private field that Spring would normally inject
+     */
+    static void inject(Object target, String fieldName, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(fieldName);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot inject " + fieldName, e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.ny.safeny.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.ny.safeny.model.Claim;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of claim lists as returned by /claims/my-claims and /claims/all
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClaimSerializationBenchmark {
+
+    @Param({"1", "20", "500", "5000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<Claim> claims;
+
+    @Setup
+    public void setUp() {
+        // Same modules and date handling as the Boot-configured mapper
+        objectMapper = new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        claims = BenchmarkFixtures.claims(size);
+    }
+
+    @Benchmark
+    public byte[] serializeClaims() throws Exception {
+        return objectMapper.writeValueAsBytes(claims);
+    }
+}
@@ -0,0 +1,89 @@
+package com.ny.safeny.benchmark;
+
+import com.ny.safeny.exception.GlobalExceptionHandler;
+import com.ny.safeny.exception.NotFoundException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Throughput of a "Claim not found" answer, thrown {@code depth} frames below the handler:
+ * the old controller catch block that printed a generic exception's stack trace, the same
+ * exception without printing, and a stackless NotFoundException mapped by GlobalExceptionHandler
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorPathBenchmark {
+
+    // A request through the servlet container, Spring Security and a transactional proxy is well over 100 frames deep
+    @Param({"20", "150"})
+    private int depth;
+
+    private GlobalExceptionHandler handler;
+    private PrintStream discard;
+
+    @Setup
+    public void setUp() {
+        handler = new GlobalExceptionHandler();
+        // Logs the first occurrence only, so the benchmark measures the mapping, not the appender
+        BenchmarkFixtures.inject(handler, "logEvery", Long.MAX_VALUE);
+        discard = new PrintStream(OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public ResponseEntity<?> printedStackTrace() {
+        try {
+            throwAt(depth, () -> new RuntimeException("Claim not found"));
+            return null;
+        } catch (Exception e) {
+            e.printStackTrace(discard);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<?> capturedStackTrace() {
+        try {
+            throwAt(depth, () -> new RuntimeException("Claim not found"));
+            return null;
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<?> stacklessDomainException() {
+        try {
+            throwAt(depth, () -> new NotFoundException("Claim not found"));
+            return null;
+        } catch (NotFoundException e) {
+            return handler.handleNotFound(e);
+        }
+    }
+
+    private static void throwAt(int depth, Supplier<RuntimeException> exception) {
+        if (depth == 0) {
+            throw exception.get();
+        }
+        throwAt(depth - 1, exception);
+    }
+}
@@ -0,0 +1,76 @@
+package com.ny.safeny.benchmark;
+
+import com.ny.safeny.escalation.TimingWheel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of resetting one claim's escalation timer on a status change, with {@code openClaims}
+ * timers already scheduled up to a week ahead at one-second ticks: ClaimEscalationScheduler's
+ * timing wheel against a priority queue of deadlines, whose remove is a linear search
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EscalationTimerBenchmark {
+
+    private static final long WEEK_TICKS = 7 * 24 * 3600;
+
+    @Param({"10000", "100000"})
+    private int openClaims;
+
+    private TimingWheel<Long> wheel;
+    private TimingWheel.Timer<Long>[] wheelTimers;
+    private PriorityQueue<long[]> queue;
+    private long[][] queueEntries;
+    private SplittableRandom random;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        random = new SplittableRandom(42);
+        wheel = new TimingWheel<>(0);
+        wheelTimers = new TimingWheel.Timer[openClaims];
+        queue = new PriorityQueue<>(openClaims, (a, b) -> Long.compare(a[0], b[0]));
+        queueEntries = new long[openClaims][];
+        for (int claim = 0; claim < openClaims; claim++) {
+            long deadline = 1 + random.nextLong(WEEK_TICKS);
+            wheelTimers[claim] = wheel.schedule(deadline, (long) claim);
+            queueEntries[claim] = new long[] {deadline, claim};
+            queue.add(queueEntries[claim]);
+        }
+    }
+
+    @Benchmark
+    public TimingWheel.Timer<Long> timingWheelReset() {
+        int claim = random.nextInt(openClaims);
+        wheel.cancel(wheelTimers[claim]);
+        wheelTimers[claim] = wheel.schedule(1 + random.nextLong(WEEK_TICKS), (long) claim);
+        return wheelTimers[claim];
+    }
+
+    @Benchmark
+    public long[] priorityQueueReset() {
+        int claim = random.nextInt(openClaims);
+        queue.remove(queueEntries[claim]);
+        queueEntries[claim] = new long[] {1 + random.nextLong(WEEK_TICKS), claim};
+        queue.add(queueEntries[claim]);
+        return queueEntries[claim];
+    }
+}
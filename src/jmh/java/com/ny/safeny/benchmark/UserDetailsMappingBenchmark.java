@@ -0,0 +1,49 @@
+package com.ny.safeny.benchmark;
+
+import com.ny.safeny.service.CustomUserDetailsService;
+import com.ny.safeny.sharding.ShardRouter;
+import com.ny.safeny.sharding.UserDirectory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity-to-UserDetails mapping done by the JWT filter on every request,
+ * with the repository lookup replaced by an in-memory stand-in
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserDetailsMappingBenchmark {
+
+    private CustomUserDetailsService userDetailsService;
+
+    @Setup
+    public void setUp() {
+        userDetailsService = new CustomUserDetailsService();
+        BenchmarkFixtures.inject(userDetailsService, "userRepository",
+                BenchmarkFixtures.userRepository(BenchmarkFixtures.user(1L, "citizen")));
+        // Single database: routing is a no-op, as in the default deployment
+        UserDirectory userDirectory = new UserDirectory();
+        BenchmarkFixtures.inject(userDirectory, "shardRouter", new ShardRouter());
+        BenchmarkFixtures.inject(userDetailsService, "userDirectory", userDirectory);
+    }
+
+    @Benchmark
+    public UserDetails loadUserByUsername() {
+        return userDetailsService.loadUserByUsername("citizen");
+    }
+}
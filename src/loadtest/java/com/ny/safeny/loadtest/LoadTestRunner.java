@@ -0,0 +1,115 @@
+package com.ny.safeny.loadtest;
+
+import com.ny.safeny.SafeNyApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Embedded Load Test Runner
+ * Boots the application on the in-memory H2 profile and drives open-loop disaster-surge
+ * scenarios against it, then prints latency percentiles and throughput per endpoint.
+ *
+ * Usage:
+ *   --scenarios=login-storm:50,claim-burst:100   scenario:requests-per-second pairs
+ *   --duration=60                                seconds per run
+ *   --arrival=poisson|uniform                    inter-arrival distribution
+ *   --users=50 --claims-per-user=2               seeded data
+ *   --max-in-flight=2000 --io-threads=16         client limits
+ *   --rate-limit=false                           keep the server-side rate limiter on or off
+ *   --logging=on|off|verbose                     server logging as configured, silenced, or DEBUG on every request
+ */
+public class LoadTestRunner {
+
+    static final String PASSWORD = "Relief@2025";
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        long duration = Long.parseLong(options.getOrDefault("duration", "60"));
+        boolean poisson = !"uniform".equals(options.getOrDefault("arrival", "poisson"));
+        int users = Integer.parseInt(options.getOrDefault("users", "50"));
+        int claimsPerUser = Integer.parseInt(options.getOrDefault("claims-per-user", "2"));
+        int maxInFlight = Integer.parseInt(options.getOrDefault("max-in-flight", "2000"));
+        int ioThreads = Integer.parseInt(options.getOrDefault("io-threads", "16"));
+        String scenarios = options.getOrDefault("scenarios", "login-storm:50,claim-burst:100,my-claims:200,admin-review:20");
+
+        SpringApplication application = new SpringApplication(SafeNyApplication.class);
+        application.setAdditionalProfiles("h2");
+        String rateLimit = options.getOrDefault("rate-limit", "false");
+        List<String> properties = new ArrayList<>(List.of("--server.port=0", "--safeny.rate-limit.enabled=" + rateLimit));
+        switch (options.getOrDefault("logging", "on")) {
+            case "off" -> properties.add("--logging.level.root=OFF");
+            case "verbose" -> properties.add("--safeny.logging.sample-rate=1");
+            case "on" -> { }
+            default -> throw new IllegalArgumentException("--logging must be on, off or verbose");
+        }
+        try (ConfigurableApplicationContext context = application.run(properties.toArray(new String[0]))) {
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            String contextPath = context.getEnvironment().getProperty("server.servlet.context-path", "");
+            ReliefApiClient client = new ReliefApiClient("http://localhost:" + port + contextPath, ioThreads);
+
+            System.out.printf("Seeding %d users with %d claims each...%n", users, claimsPerUser);
+            ScenarioContext scenarioContext = new ScenarioContext(client);
+            scenarioContext.seed(users, claimsPerUser);
+
+            Map<String, LatencyHistogram> results = OpenLoopDriver.newResults();
+            List<OpenLoopDriver> drivers = new ArrayList<>();
+            List<Thread> threads = new ArrayList<>();
+            for (String entry : scenarios.split(",")) {
+                String[] parts = entry.trim().split(":");
+                Scenario scenario = Scenario.fromKey(parts[0]);
+                double rate = Double.parseDouble(parts[1]);
+                OpenLoopDriver driver = new OpenLoopDriver(scenario, scenarioContext, rate, poisson,
+                        duration, maxInFlight, results);
+                drivers.add(driver);
+                Thread thread = new Thread(driver, "loadtest-" + scenario.key());
+                threads.add(thread);
+                System.out.printf("Scenario %-20s %8.1f req/s (%s arrivals)%n",
+                        scenario.key(), rate, poisson ? "poisson" : "uniform");
+            }
+
+            long started = System.nanoTime();
+            threads.forEach(Thread::start);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+
+            long dropped = drivers.stream().mapToLong(OpenLoopDriver::dropped).sum();
+            printReport(results, elapsedSeconds, dropped);
+        }
+        System.exit(0);
+    }
+
+    private static void printReport(Map<String, LatencyHistogram> results, double elapsedSeconds, long dropped) {
+        System.out.println();
+        System.out.printf("%-28s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(results).entrySet()) {
+            LatencyHistogram h = entry.getValue();
+            System.out.printf("%-28s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey(), h.count(), h.errors(), h.count() / elapsedSeconds,
+                    h.percentile(50) / 1000.0, h.percentile(90) / 1000.0, h.percentile(99) / 1000.0,
+                    h.percentile(99.9) / 1000.0, h.max() / 1000.0);
+        }
+        if (dropped > 0) {
+            System.out.printf("%nClient dropped %d arrivals at the in-flight cap; raise --max-in-flight%n", dropped);
+        }
+    }
+
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                int separator = arg.indexOf('=');
+                options.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+        }
+        return options;
+    }
+}
@@ -0,0 +1,98 @@
+package com.ny.safeny.loadtest;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop arrival driver
+ * Requests are issued on a fixed schedule regardless of how fast responses come back, and
+ * latency is measured from the intended send time, so a stalled server shows up as queueing
+ * delay instead of silently lowering the offered load (coordinated omission).
+ */
+class OpenLoopDriver implements Runnable {
+
+    private final Scenario scenario;
+    private final ScenarioContext context;
+    private final double ratePerSecond;
+    private final boolean poisson;
+    private final long durationNanos;
+    private final int maxInFlight;
+    private final Map<String, LatencyHistogram> results;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+
+    OpenLoopDriver(Scenario scenario, ScenarioContext context, double ratePerSecond, boolean poisson,
+                   long durationSeconds, int maxInFlight, Map<String, LatencyHistogram> results) {
+        this.scenario = scenario;
+        this.context = context;
+        this.ratePerSecond = ratePerSecond;
+        this.poisson = poisson;
+        this.durationNanos = TimeUnit.SECONDS.toNanos(durationSeconds);
+        this.maxInFlight = maxInFlight;
+        this.results = results;
+    }
+
+    @Override
+    public void run() {
+        long start = System.nanoTime();
+        long intended = start;
+        double meanIntervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        long sequence = 0;
+
+        while (intended - start < durationNanos) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            fire(sequence++, intended);
+            intended += nextInterval(meanIntervalNanos);
+        }
+
+        // Let outstanding requests finish so their latency is recorded
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+
+    long dropped() {
+        return dropped.get();
+    }
+
+    private void fire(long sequence, long intendedStart) {
+        Scenario.Request request = scenario.next(context, sequence);
+        LatencyHistogram histogram = results.computeIfAbsent(request.endpoint(), key -> new LatencyHistogram());
+
+        // Past the in-flight cap the client, not the server, is the bottleneck; count and move on
+        if (inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            dropped.incrementAndGet();
+            return;
+        }
+
+        context.client().sendAsync(request.httpRequest()).whenComplete((response, error) -> {
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStart);
+            boolean success = error == null && response.statusCode() < 400;
+            histogram.record(micros, success);
+            inFlight.decrementAndGet();
+        });
+    }
+
+    private long nextInterval(double meanIntervalNanos) {
+        if (!poisson) {
+            return (long) meanIntervalNanos;
+        }
+        double u = ThreadLocalRandom.current().nextDouble();
+        return (long) (-Math.log(1.0 - u) * meanIntervalNanos);
+    }
+
+    static Map<String, LatencyHistogram> newResults() {
+        return new ConcurrentHashMap<>();
+    }
+}
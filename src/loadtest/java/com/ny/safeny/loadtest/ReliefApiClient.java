@@ -0,0 +1,102 @@
+package com.ny.safeny.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+/**
+ * Thin HTTP client for the relief API used by the load test scenarios
+ */
+class ReliefApiClient {
+
+    private final String baseUrl;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    ReliefApiClient(String baseUrl, int ioThreads) {
+        this.baseUrl = baseUrl;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(ioThreads))
+                .build();
+    }
+
+    HttpRequest get(String path, String token) {
+        return builder(path, token).GET().build();
+    }
+
+    HttpRequest post(String path, Object body, String token) {
+        return builder(path, token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(toJson(body)))
+                .build();
+    }
+
+    CompletableFuture<HttpResponse<String>> sendAsync(HttpRequest request) {
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Blocking call used while seeding scenario data
+     */
+    JsonNode send(HttpRequest request) {
+        try {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() >= 300) {
+                throw new IllegalStateException(request.method() + " " + request.uri()
+                        + " returned " + response.statusCode() + ": " + response.body());
+            }
+            return objectMapper.readTree(response.body());
+        } catch (IOException e) {
+            throw new IllegalStateException("Request failed: " + request.uri(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted: " + request.uri(), e);
+        }
+    }
+
+    /**
+     * Register a citizen account and return its JWT
+     */
+    String register(String username) {
+        JsonNode response = send(post("/auth/register", Map.of(
+                "username", username,
+                "password", LoadTestRunner.PASSWORD,
+                "fullName", "Load Test " + username,
+                "email", username + "@loadtest.ny.gov",
+                "phone", "518-555-0100"), null));
+        return response.get("token").asText();
+    }
+
+    String login(String username, String password) {
+        JsonNode response = send(post("/auth/login", Map.of("username", username, "password", password), null));
+        return response.get("token").asText();
+    }
+
+    private HttpRequest.Builder builder(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private String toJson(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot serialize request body", e);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.ny.safeny.loadtest;
+
+import com.ny.safeny.SafeNyApplication;
+import com.ny.safeny.model.Claim.ClaimStatus;
+import com.ny.safeny.repository.ClaimRepository;
+import com.ny.safeny.service.ClaimService;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.LongFunction;
+
+/**
+ * Scale Test Runner
+ * Grows the database through a list of claim counts with SyntheticDataGenerator and, at each
+ * size, times every ClaimRepository query and ClaimService read path. The report has one row per
+ * operation and one column per size, plus the growth exponent between the last two sizes
+ * (log of the latency ratio over log of the size ratio: about 0 when an index keeps the
+ * operation flat, about 1 when it scans), so a complexity regression shows up as a number.
+ *
+ * Usage:
+ *   --sizes=10000,100000,1000000   claim counts, loaded incrementally
+ *   --claims-per-user=4            average; the spread is skewed (see SyntheticDataGenerator)
+ *   --skew=2 --years=3 --seed=42   data shape
+ *   --load-threads=4               parallel batch writers
+ *   --iterations=50 --warmup=10    timed and untimed calls per operation and size
+ *   --profiles=h2                  Spring profiles, empty for none; any --spring.* or --safeny.* option is passed on
+ *   --out=target/scale-test.csv    one row per size and operation
+ *
+ * 10M claims need PostgreSQL (or a very large heap for H2): pass an empty --profiles= and
+ * --spring.datasource.url=jdbc:postgresql://...?reWriteBatchedInserts=true with a fresh database.
+ */
+public class ScaleTestRunner {
+
+    private record Operation(String name, LongFunction<Object> call) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = LoadTestRunner.parseOptions(args);
+        long[] sizes = parseSizes(options.getOrDefault("sizes", "10000,100000,1000000"));
+        double claimsPerUser = Double.parseDouble(options.getOrDefault("claims-per-user", "4"));
+        double skew = Double.parseDouble(options.getOrDefault("skew", "2"));
+        int years = Integer.parseInt(options.getOrDefault("years", "3"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        int loadThreads = Integer.parseInt(options.getOrDefault("load-threads", "4"));
+        int iterations = Integer.parseInt(options.getOrDefault("iterations", "50"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        Path out = Path.of(options.getOrDefault("out", "target/scale-test.csv"));
+
+        SpringApplication application = new SpringApplication(SafeNyApplication.class);
+        application.setAdditionalProfiles(Arrays.stream(options.getOrDefault("profiles", "h2").split(","))
+                .map(String::trim).filter(profile -> !profile.isEmpty()).toArray(String[]::new));
+        List<String> properties = new ArrayList<>(List.of("--server.port=0",
+                // Background jobs that read the whole claims table would land inside the timings
+                "--safeny.analytics.enabled=false",
+                "--safeny.archive.enabled=false",
+                "--safeny.fund.reconcile-initial-delay-ms=86400000",
+                "--safeny.registration.refresh-interval-ms=86400000",
+                "--safeny.escalation.enabled=false",
+                "--logging.level.com.ny.safeny=WARN",
+                "--safeny.logging.sample-rate=0"));
+        options.forEach((key, value) -> {
+            if (key.startsWith("spring.") || key.startsWith("safeny.")) {
+                properties.add("--" + key + "=" + value);
+            }
+        });
+
+        try (ConfigurableApplicationContext context = application.run(properties.toArray(new String[0]))) {
+            if ("true".equals(context.getEnvironment().getProperty("safeny.sharding.enabled"))) {
+                throw new IllegalStateException("The scale test loads a single database; disable sharding");
+            }
+            JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+            ClaimRepository claimRepository = context.getBean(ClaimRepository.class);
+            ClaimService claimService = context.getBean(ClaimService.class);
+
+            Long existing = jdbc.queryForObject("SELECT COUNT(*) FROM users WHERE username LIKE ?", Long.class,
+                    SyntheticDataGenerator.USERNAME_PREFIX + "%");
+            if (existing != null && existing > 0) {
+                throw new IllegalStateException("The database already has synthetic users; start from a fresh one");
+            }
+            Long adminId = jdbc.queryForObject("SELECT id FROM users WHERE username = 'admin'", Long.class);
+            String passwordHash = context.getBean(PasswordEncoder.class).encode(LoadTestRunner.PASSWORD);
+            SyntheticDataGenerator generator = new SyntheticDataGenerator(jdbc, seed, loadThreads, skew, years,
+                    passwordHash, adminId);
+
+            Map<String, Map<Long, LatencyHistogram>> results = new LinkedHashMap<>();
+            for (long size : sizes) {
+                long started = System.nanoTime();
+                generator.growTo(size, claimsPerUser);
+                double loadSeconds = (System.nanoTime() - started) / 1e9;
+                System.out.printf("%nLoaded %,d claims and %,d users in %.1f s%n",
+                        size, generator.userCount(), loadSeconds);
+
+                for (Operation operation : operations(generator, claimRepository, claimService, seed)) {
+                    results.computeIfAbsent(operation.name(), name -> new LinkedHashMap<>())
+                            .put(size, time(operation, warmup, iterations));
+                }
+            }
+            printReport(results, sizes);
+            writeCsv(results, out);
+            System.out.printf("%nResults written to %s%n", out);
+        }
+        System.exit(0);
+    }
+
+    /**
+     * The operations to time. Each call gets its iteration number, used to vary ids so the
+     * timings are not all one cached row.
+     */
+    private static List<Operation> operations(SyntheticDataGenerator generator, ClaimRepository claimRepository,
+                                              ClaimService claimService, long seed) {
+        long heaviest = generator.heaviestUser();
+        long median = generator.medianUser();
+        long users = generator.userCount();
+        // The hundred users from the median on, so one user's rows are not served from cache every time
+        LongFunction<Long> typicalUser = i -> (median + i % 100) % users;
+        long firstClaim = generator.firstClaimId();
+        long claimSpan = generator.lastClaimId() - firstClaim + 1;
+        SplittableRandom random = new SplittableRandom(seed);
+        long[] claimIds = new long[1024];
+        for (int i = 0; i < claimIds.length; i++) {
+            claimIds[i] = firstClaim + random.nextLong(claimSpan);
+        }
+        LongFunction<Long> claimId = i -> claimIds[(int) (i % claimIds.length)];
+        // Deep enough to show OFFSET cost, shallow enough to exist at the smallest size
+        int deepPage = 100;
+
+        List<Operation> operations = new ArrayList<>();
+        operations.add(new Operation("repo.findById",
+                i -> claimRepository.findById(claimId.apply(i))));
+        operations.add(new Operation("repo.findByUserId[median user]",
+                i -> claimRepository.findByUserIdOrderByCreatedAtDesc(generator.userId(typicalUser.apply(i)))));
+        operations.add(new Operation("repo.findByUserId[busiest user]",
+                i -> claimRepository.findByUserIdOrderByCreatedAtDesc(generator.userId(heaviest))));
+        operations.add(new Operation("repo.newest[page 0 of 50]",
+                i -> claimRepository.findByOrderByCreatedAtDescIdDesc(PageRequest.of(0, 50))));
+        operations.add(new Operation("repo.newest[page " + deepPage + " of 50]",
+                i -> claimRepository.findByOrderByCreatedAtDescIdDesc(PageRequest.of(deepPage, 50))));
+        operations.add(new Operation("repo.pendingOldest[page 0 of 50]",
+                i -> claimRepository.findByStatusOrderByCreatedAtAscIdAsc(ClaimStatus.PENDING, PageRequest.of(0, 50))));
+        operations.add(new Operation("repo.recentlyUpdated[page 0 of 20]",
+                i -> claimRepository.findByOrderByUpdatedAtDescIdDesc(PageRequest.of(0, 20))));
+        operations.add(new Operation("repo.countByStatus[PENDING]",
+                i -> claimRepository.countByStatus(ClaimStatus.PENDING)));
+        operations.add(new Operation("repo.count",
+                i -> claimRepository.count()));
+        operations.add(new Operation("service.getClaimById",
+                i -> claimService.getClaimById(claimId.apply(i), "admin")));
+        operations.add(new Operation("service.getClaimsByUsername[median user]",
+                i -> claimService.getClaimsByUsername(generator.username(typicalUser.apply(i)))));
+        operations.add(new Operation("service.getClaimsByUsername[busiest user]",
+                i -> claimService.getClaimsByUsername(generator.username(heaviest))));
+        operations.add(new Operation("service.getAllClaims[page 0 of 50]",
+                i -> claimService.getAllClaims(0, 50)));
+        operations.add(new Operation("service.getPendingClaims[page 0 of 50]",
+                i -> claimService.getPendingClaims(0, 50)));
+        operations.add(new Operation("service.getRecentActivity[20]",
+                i -> claimService.getRecentActivity(20)));
+        operations.add(new Operation("service.getStatistics",
+                i -> claimService.getStatistics()));
+        return operations;
+    }
+
+    private static LatencyHistogram time(Operation operation, int warmup, int iterations) {
+        for (int i = 0; i < warmup; i++) {
+            operation.call().apply(i);
+        }
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            operation.call().apply(warmup + i);
+            histogram.record((System.nanoTime() - start) / 1000, true);
+        }
+        return histogram;
+    }
+
+    private static void printReport(Map<String, Map<Long, LatencyHistogram>> results, long[] sizes) {
+        System.out.println();
+        System.out.printf("%-48s", "p50 ms by claim count");
+        for (long size : sizes) {
+            System.out.printf(" %12s", String.format("%,d", size));
+        }
+        System.out.printf(" %9s%n", "growth");
+        for (Map.Entry<String, Map<Long, LatencyHistogram>> entry : results.entrySet()) {
+            System.out.printf("%-48s", entry.getKey());
+            for (long size : sizes) {
+                System.out.printf(" %12.2f", entry.getValue().get(size).percentile(50) / 1000.0);
+            }
+            System.out.printf(" %9s%n", growth(entry.getValue(), sizes));
+        }
+        System.out.println("growth: latency exponent between the last two sizes (~0 flat, ~1 linear in claim count)");
+    }
+
+    private static String growth(Map<Long, LatencyHistogram> bySize, long[] sizes) {
+        if (sizes.length < 2) {
+            return "-";
+        }
+        long smaller = sizes[sizes.length - 2];
+        long larger = sizes[sizes.length - 1];
+        // Clamp at 1us so a sub-microsecond bucket does not divide by zero
+        double before = Math.max(1, bySize.get(smaller).percentile(50));
+        double after = Math.max(1, bySize.get(larger).percentile(50));
+        return String.format("%.2f", Math.log(after / before) / Math.log((double) larger / smaller));
+    }
+
+    private static void writeCsv(Map<String, Map<Long, LatencyHistogram>> results, Path out) throws IOException {
+        if (out.getParent() != null) {
+            Files.createDirectories(out.getParent());
+        }
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(out))) {
+            writer.println("operation,claims,count,p50_ms,p90_ms,p99_ms,max_ms");
+            results.forEach((operation, bySize) -> bySize.forEach((size, h) -> writer.printf(
+                    "\"%s\",%d,%d,%.3f,%.3f,%.3f,%.3f%n", operation, size, h.count(),
+                    h.percentile(50) / 1000.0, h.percentile(90) / 1000.0, h.percentile(99) / 1000.0,
+                    h.max() / 1000.0)));
+        }
+    }
+
+    private static long[] parseSizes(String sizes) {
+        String[] parts = sizes.split(",");
+        long[] parsed = new long[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            parsed[i] = Long.parseLong(parts[i].trim().replace("_", ""));
+            if (i > 0 && parsed[i] <= parsed[i - 1]) {
+                throw new IllegalArgumentException("--sizes must increase");
+            }
+        }
+        return parsed;
+    }
+}
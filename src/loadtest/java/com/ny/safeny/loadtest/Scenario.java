@@ -0,0 +1,87 @@
+package com.ny.safeny.loadtest;
+
+import java.net.http.HttpRequest;
+import java.util.Map;
+
+/**
+ * Disaster-surge traffic scenarios
+ * Each arrival produces one request; the driver decides when arrivals happen
+ */
+enum Scenario {
+
+    REGISTRATION_SURGE("registration-surge") {
+        @Override
+        Request next(ScenarioContext context, long sequence) {
+            String username = "surge" + context.runId() + "_" + sequence;
+            return new Request("POST /auth/register", context.client().post("/auth/register", Map.of(
+                    "username", username,
+                    "password", LoadTestRunner.PASSWORD,
+                    "fullName", "Surge " + sequence,
+                    "email", username + "@loadtest.ny.gov",
+                    "phone", "518-555-0100"), null));
+        }
+    },
+
+    LOGIN_STORM("login-storm") {
+        @Override
+        Request next(ScenarioContext context, long sequence) {
+            String username = context.citizen(sequence);
+            return new Request("POST /auth/login", context.client().post("/auth/login",
+                    Map.of("username", username, "password", LoadTestRunner.PASSWORD), null));
+        }
+    },
+
+    CLAIM_BURST("claim-burst") {
+        @Override
+        Request next(ScenarioContext context, long sequence) {
+            return new Request("POST /claims", context.client().post("/claims",
+                    ScenarioContext.claimBody(sequence), context.citizenToken(sequence)));
+        }
+    },
+
+    MY_CLAIMS("my-claims") {
+        @Override
+        Request next(ScenarioContext context, long sequence) {
+            return new Request("GET /claims/my-claims",
+                    context.client().get("/claims/my-claims", context.citizenToken(sequence)));
+        }
+    },
+
+    ADMIN_REVIEW("admin-review") {
+        @Override
+        Request next(ScenarioContext context, long sequence) {
+            // Review loop: list pending, check statistics, then decide on a claim
+            String token = context.adminToken();
+            return switch ((int) (sequence % 3)) {
+                case 0 -> new Request("GET /claims/pending", context.client().get("/claims/pending", token));
+                case 1 -> new Request("GET /claims/statistics", context.client().get("/claims/statistics", token));
+                default -> new Request("POST /claims/{id}/approve", context.client().post(
+                        "/claims/" + context.claimId(sequence) + "/approve",
+                        Map.of("reviewComments", "Approved during load test"), token));
+            };
+        }
+    };
+
+    private final String key;
+
+    Scenario(String key) {
+        this.key = key;
+    }
+
+    String key() {
+        return key;
+    }
+
+    abstract Request next(ScenarioContext context, long sequence);
+
+    static Scenario fromKey(String key) {
+        for (Scenario scenario : values()) {
+            if (scenario.key.equals(key)) {
+                return scenario;
+            }
+        }
+        throw new IllegalArgumentException("Unknown scenario: " + key);
+    }
+
+    record Request(String endpoint, HttpRequest httpRequest) {}
+}
@@ -0,0 +1,71 @@
+package com.ny.safeny.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Seeded accounts, tokens and claims shared by all scenarios of one run
+ */
+class ScenarioContext {
+
+    private static final String[] DISASTER_TYPES = {"FLOOD", "HURRICANE", "FIRE", "WINTER_STORM", "TORNADO"};
+
+    private final ReliefApiClient client;
+    private final long runId = System.currentTimeMillis() % 100000;
+    private final List<String> citizens = new ArrayList<>();
+    private final List<String> citizenTokens = new ArrayList<>();
+    private final List<Long> claimIds = new ArrayList<>();
+    private String adminToken;
+
+    ScenarioContext(ReliefApiClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Register citizens, submit their first claims and log in the admin
+     */
+    void seed(int users, int claimsPerUser) {
+        for (int i = 0; i < users; i++) {
+            String username = "citizen" + runId + "_" + i;
+            String token = client.register(username);
+            citizens.add(username);
+            citizenTokens.add(token);
+            for (int c = 0; c < claimsPerUser; c++) {
+                JsonNode claim = client.send(client.post("/claims", claimBody((long) i * claimsPerUser + c), token));
+                claimIds.add(claim.get("id").asLong());
+            }
+        }
+        adminToken = client.login("admin", "Admin@2025");
+    }
+
+    static Map<String, Object> claimBody(long sequence) {
+        return Map.of(
+                "disasterType", DISASTER_TYPES[(int) (sequence % DISASTER_TYPES.length)],
+                "description", "Storm damage to roof and ground floor, load test claim " + sequence,
+                "incidentDate", LocalDateTime.now().minusDays(sequence % 14).withNano(0).toString(),
+                "location", "Albany, NY",
+                "requestAmount", 500 + (sequence % 200) * 100);
+    }
+
+    ReliefApiClient client() { return client; }
+
+    long runId() { return runId; }
+
+    String adminToken() { return adminToken; }
+
+    String citizen(long sequence) {
+        return citizens.get((int) (sequence % citizens.size()));
+    }
+
+    String citizenToken(long sequence) {
+        return citizenTokens.get((int) (sequence % citizenTokens.size()));
+    }
+
+    long claimId(long sequence) {
+        return claimIds.get((int) (sequence % claimIds.size()));
+    }
+}
@@ -0,0 +1,340 @@
+package com.ny.safeny.loadtest;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Synthetic Data Generator
+ * Bulk-loads users and claims with production-like shape straight through JDBC batch inserts,
+ * bypassing JPA, in parallel chunks. Each chunk draws from its own random stream derived from
+ * the seed and the chunk's position, so for a seed and list of sizes the data is the same
+ * whatever the thread count.
+ *
+ * Shape:
+ *   claims per user   skewed: a claim picks user index floor(users * u^skew), so with the
+ *                     default skew of 2 the first 1% of users file a tenth of all claims and
+ *                     the busiest account has thousands at 1M claims
+ *   created_at        70% in bursts after disaster events spread over the time range, 30% steady
+ *   disaster type     weighted towards floods, matched to each event
+ *   status            mostly undecided for claims under 30 days old, decided or paid after that
+ *   request amount    log-normal around $5,000, clamped to the $100 to $50,000 the API allows
+ *
+ * Ids are assigned here (one above the current maximum) and each table's identity is moved
+ * past them afterwards, so the application keeps inserting normally.
+ */
+class SyntheticDataGenerator {
+
+    static final String USERNAME_PREFIX = "synthetic_";
+
+    private static final int CHUNK = 10_000;
+    private static final long DAY_MS = 86_400_000L;
+
+    private static final String[] DISASTER_TYPES = {"FLOOD", "HURRICANE", "WINTER_STORM", "FIRE", "TORNADO"};
+    private static final int[] DISASTER_WEIGHTS = {35, 20, 20, 15, 10};
+
+    private static final String[] LOCATIONS = {"Albany, NY", "Buffalo, NY", "Rochester, NY", "Syracuse, NY",
+            "Binghamton, NY", "Utica, NY", "Long Beach, NY", "Freeport, NY", "Staten Island, NY", "Queens, NY",
+            "Brooklyn, NY", "Yonkers, NY", "Poughkeepsie, NY", "Kingston, NY", "Plattsburgh, NY", "Ithaca, NY"};
+
+    private static final String[] DAMAGE = {"Water damage to first floor and basement",
+            "Roof torn off and attic exposed to rain", "Fallen tree crushed garage and vehicle",
+            "Smoke and fire damage to kitchen and living room", "Burst pipes flooded lower level",
+            "Foundation cracked and porch collapsed", "Power loss spoiled food and medication",
+            "Windows blown out, furniture and electronics destroyed"};
+
+    private static final String[] NEEDS = {"temporary housing", "emergency repairs", "replacement of essentials",
+            "medical supplies", "clean-up and mold remediation", "lost wages while displaced"};
+
+    private static final String USER_INSERT = "INSERT INTO users "
+            + "(id, username, password, full_name, email, phone, role, enabled, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String CLAIM_INSERT = "INSERT INTO claims "
+            + "(id, user_id, disaster_type, description, incident_date, location, request_amount, status, "
+            + "reviewer_id, review_comments, approved_amount, created_at, updated_at, reviewed_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbc;
+    private final long seed;
+    private final int threads;
+    private final double skew;
+    private final String passwordHash;
+    private final long reviewerId;
+    private final long now = System.currentTimeMillis();
+    private final long rangeMs;
+    private final long[] eventTimes;
+    private final int[] eventTypes;
+
+    // Ids of the synthetic users in load order, and how many users and claims are loaded so far
+    private long[] userIds = new long[0];
+    private long userCount;
+    private long claimCount;
+    private long firstClaimId = -1;
+    private long lastClaimId = -1;
+
+    SyntheticDataGenerator(JdbcTemplate jdbc, long seed, int threads, double skew, int years,
+                           String passwordHash, long reviewerId) {
+        this.jdbc = jdbc;
+        this.seed = seed;
+        this.threads = threads;
+        this.skew = skew;
+        this.passwordHash = passwordHash;
+        this.reviewerId = reviewerId;
+        this.rangeMs = years * 365L * DAY_MS;
+
+        // Roughly one declared disaster every three weeks
+        SplittableRandom events = new SplittableRandom(seed);
+        int eventCount = Math.max(1, years * 18);
+        eventTimes = new long[eventCount];
+        eventTypes = new int[eventCount];
+        for (int i = 0; i < eventCount; i++) {
+            eventTimes[i] = now - (long) (events.nextDouble() * rangeMs);
+            eventTypes[i] = weighted(events, DISASTER_WEIGHTS);
+        }
+    }
+
+    /**
+     * Add users and claims until there are {@code claims} synthetic claims and one user per
+     * {@code claimsPerUser} of them
+     */
+    void growTo(long claims, double claimsPerUser) throws Exception {
+        long users = Math.max(1, (long) Math.ceil(claims / claimsPerUser));
+        if (users > userCount) {
+            insertUsers(users - userCount);
+        }
+        if (claims > claimCount) {
+            insertClaims(claims - claimCount);
+        }
+        // Planner statistics are stale after a bulk load; both H2 and PostgreSQL accept ANALYZE
+        jdbc.execute("ANALYZE");
+    }
+
+    long userCount() {
+        return userCount;
+    }
+
+    long userId(long index) {
+        return userIds[(int) index];
+    }
+
+    String username(long index) {
+        return USERNAME_PREFIX + index;
+    }
+
+    /**
+     * Index of the user with the most claims, and of one with about the median number
+     * (claims per user fall with the index)
+     */
+    long heaviestUser() {
+        return 0;
+    }
+
+    long medianUser() {
+        return userCount / 2;
+    }
+
+    long firstClaimId() {
+        return firstClaimId;
+    }
+
+    long lastClaimId() {
+        return lastClaimId;
+    }
+
+    private void insertUsers(long count) throws Exception {
+        long firstIndex = userCount;
+        long firstId = nextId("users");
+        userIds = Arrays.copyOf(userIds, Math.toIntExact(firstIndex + count));
+        for (int i = 0; i < count; i++) {
+            userIds[(int) (firstIndex + i)] = firstId + i;
+        }
+
+        inChunks(count, (offset, size) -> jdbc.batchUpdate(USER_INSERT, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                long index = firstIndex + offset + i;
+                SplittableRandom random = new SplittableRandom(seed ^ (index * 0x9E3779B97F4A7C15L));
+                Timestamp created = new Timestamp(now - (long) (random.nextDouble() * rangeMs));
+                ps.setLong(1, firstId + offset + i);
+                ps.setString(2, USERNAME_PREFIX + index);
+                ps.setString(3, passwordHash);
+                ps.setString(4, "Synthetic Claimant " + index);
+                ps.setString(5, USERNAME_PREFIX + index + "@example.com");
+                ps.setString(6, "518-555-" + String.valueOf(10_000 + index % 10_000).substring(1));
+                ps.setString(7, "ROLE_USER");
+                ps.setBoolean(8, true);
+                ps.setTimestamp(9, created);
+                ps.setTimestamp(10, created);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return size;
+            }
+        }));
+        userCount += count;
+        restartIdentity("users");
+    }
+
+    private void insertClaims(long count) throws Exception {
+        long firstSequence = claimCount;
+        long firstId = nextId("claims");
+        long users = userCount;
+        long[] ids = userIds;
+
+        inChunks(count, (offset, size) -> {
+            // One stream per chunk of the global claim sequence, so results do not depend on threads
+            long sequence = firstSequence + offset;
+            SplittableRandom random = new SplittableRandom(seed ^ (sequence + 1) * 0xBF58476D1CE4E5B9L);
+            jdbc.batchUpdate(CLAIM_INSERT, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    setClaim(ps, random, firstId + offset + i, ids[(int) (users * Math.pow(random.nextDouble(), skew))]);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return size;
+                }
+            });
+        });
+        claimCount += count;
+        if (firstClaimId < 0) {
+            firstClaimId = firstId;
+        }
+        lastClaimId = firstId + count - 1;
+        restartIdentity("claims");
+    }
+
+    private void setClaim(PreparedStatement ps, SplittableRandom random, long id, long userId) throws SQLException {
+        long created;
+        int type;
+        if (random.nextInt(10) < 7) {
+            // Claims after a disaster arrive in a burst that tails off over about two weeks
+            int event = random.nextInt(eventTimes.length);
+            created = Math.min(now, eventTimes[event] + (long) (-Math.log(1 - random.nextDouble()) * 5 * DAY_MS));
+            type = eventTypes[event];
+        } else {
+            created = now - (long) (random.nextDouble() * rangeMs);
+            type = weighted(random, DISASTER_WEIGHTS);
+        }
+        long incident = created - (long) (-Math.log(1 - random.nextDouble()) * 3 * DAY_MS);
+
+        // Log-normal amounts: median $5,000, clamped to the range the API accepts
+        double amount = Math.exp(Math.log(5000) + random.nextGaussian() * 0.9);
+        BigDecimal requested = BigDecimal.valueOf(Math.round(Math.min(50_000, Math.max(100, amount)) * 100), 2);
+
+        String status = status(random, now - created);
+        boolean decided = !status.equals("PENDING");
+        long reviewed = Math.min(now, created + (long) (random.nextDouble() * 20 * DAY_MS));
+
+        ps.setLong(1, id);
+        ps.setLong(2, userId);
+        ps.setString(3, DISASTER_TYPES[type]);
+        ps.setString(4, DAMAGE[random.nextInt(DAMAGE.length)] + "; requesting help with "
+                + NEEDS[random.nextInt(NEEDS.length)] + ".");
+        ps.setTimestamp(5, new Timestamp(incident));
+        ps.setString(6, LOCATIONS[random.nextInt(LOCATIONS.length)]);
+        ps.setBigDecimal(7, requested);
+        ps.setString(8, status);
+        if (decided) {
+            ps.setLong(9, reviewerId);
+        } else {
+            ps.setNull(9, Types.BIGINT);
+        }
+        if (status.equals("REJECTED")) {
+            ps.setString(10, "Damage not covered by this declaration");
+        } else {
+            ps.setNull(10, Types.VARCHAR);
+        }
+        if (status.equals("APPROVED") || status.equals("PAID")) {
+            ps.setBigDecimal(11, requested.multiply(BigDecimal.valueOf(60 + random.nextInt(41)))
+                    .movePointLeft(2).setScale(2, RoundingMode.HALF_UP));
+        } else {
+            ps.setNull(11, Types.DECIMAL);
+        }
+        ps.setTimestamp(12, new Timestamp(created));
+        ps.setTimestamp(13, new Timestamp(decided ? reviewed : created));
+        if (decided && !status.equals("UNDER_REVIEW")) {
+            ps.setTimestamp(14, new Timestamp(reviewed));
+        } else {
+            ps.setNull(14, Types.TIMESTAMP);
+        }
+    }
+
+    private static String status(SplittableRandom random, long ageMs) {
+        int roll = random.nextInt(100);
+        if (ageMs < 30 * DAY_MS) {
+            return roll < 50 ? "PENDING" : roll < 75 ? "UNDER_REVIEW" : roll < 90 ? "APPROVED" : "REJECTED";
+        }
+        return roll < 3 ? "PENDING" : roll < 5 ? "UNDER_REVIEW" : roll < 45 ? "APPROVED"
+                : roll < 65 ? "REJECTED" : "PAID";
+    }
+
+    private static int weighted(SplittableRandom random, int[] weights) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int roll = random.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            roll -= weights[i];
+            if (roll < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    private interface ChunkWriter {
+        void write(long offset, int size) throws Exception;
+    }
+
+    /**
+     * Split {@code count} rows into chunks aligned to the global sequence and write them on the pool
+     */
+    private void inChunks(long count, ChunkWriter writer) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> parts = new ArrayList<>();
+            for (long offset = 0; offset < count; offset += CHUNK) {
+                long chunkOffset = offset;
+                int size = (int) Math.min(CHUNK, count - offset);
+                parts.add(pool.submit(() -> {
+                    writer.write(chunkOffset, size);
+                    return null;
+                }));
+            }
+            for (Future<?> part : parts) {
+                part.get();
+            }
+        } finally {
+            pool.shutdownNow();
+            pool.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private long nextId(String table) {
+        Long max = jdbc.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+        return (max != null ? max : 0) + 1;
+    }
+
+    private void restartIdentity(String table) {
+        jdbc.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + nextId(table));
+    }
+}
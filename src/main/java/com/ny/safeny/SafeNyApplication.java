@@ -1,37 +1,51 @@
 package com.ny.safeny;
 
+import com.ny.safeny.datasource.ShardRouting;
 import com.ny.safeny.model.User;
 import com.ny.safeny.repository.UserRepository;
+import com.ny.safeny.sharding.UserDirectory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.Optional;
+
 /**
  * NYS Emergency Relief Fund System
  * Main Application Entry Point
  */
 @SpringBootApplication
+@Slf4j
 public class SafeNyApplication {
     
     public static void main(String[] args) {
         SpringApplication.run(SafeNyApplication.class, args);
-        System.out.println("""
-                
-                ╔════════════════════════════════════════════════════════════╗
-                ║   NYS Emergency Relief Fund System Started Successfully    ║
-                ║   Port: 8080                                             ║
-                ║   Swagger UI: http://localhost:8080/api/swagger-ui.html  ║
-                ╚════════════════════════════════════════════════════════════╝
-                """);
+        log.info("NYS Emergency Relief Fund System started, Swagger UI: http://localhost:8080/api/swagger-ui.html");
     }
 
     @Bean
-    public CommandLineRunner initAdmin(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public CommandLineRunner initAdmin(UserRepository userRepository, UserDirectory userDirectory,
+                                       PasswordEncoder passwordEncoder,
+                                       @Value("${safeny.startup.reset-admin-password:true}") boolean resetAdminPassword) {
         return args -> {
             // 1. find the 'admin' user(Create an empty object if not found)
-            User admin = userRepository.findByUsername("admin").orElse(new User());
+            Optional<User> existing;
+            try (ShardRouting.Scope ignored = userDirectory.forUser("admin")) {
+                existing = userRepository.findByUsername("admin");
+            }
+            if (existing.isPresent() && !resetAdminPassword) {
+                // skip the BCrypt re-hash and the write when the account is already there
+                log.info("Admin account present: admin");
+                return;
+            }
+            User admin = existing.orElse(new User());
 
             // 2. force update information (ensure the password is reset)
             admin.setUsername("admin");
@@ -43,9 +57,15 @@ public class SafeNyApplication {
             admin.setEnabled(true);
 
             // 3. save (updates if the account exists, inserts if it does not)
-            userRepository.save(admin);
+            if (existing.isPresent()) {
+                try (ShardRouting.Scope ignored = userDirectory.forUser("admin")) {
+                    userRepository.save(admin);
+                }
+            } else {
+                userDirectory.insert(admin);
+            }
             
-            System.out.println(" Admin account ensured: admin / Admin@2025");
+            log.info("Admin account ensured: admin");
         };
     }
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.ny.safeny.analytics;
+
+import com.ny.safeny.model.Claim.ClaimStatus;
+
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Filter and group-by over the claim snapshot. Null or empty filters match everything;
+ * amount bounds apply to the requested amount and are inclusive.
+ */
+public record AnalyticsQuery(Set<ClaimStatus> statuses,
+                             Set<String> disasterTypes,
+                             Set<String> locations,
+                             Long minAmountCents,
+                             Long maxAmountCents,
+                             Instant createdFrom,
+                             Instant createdTo,
+                             GroupBy groupBy) {
+
+    public enum GroupBy {
+        NONE, STATUS, DISASTER_TYPE, LOCATION
+    }
+}
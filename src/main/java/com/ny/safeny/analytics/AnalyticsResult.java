@@ -0,0 +1,27 @@
+package com.ny.safeny.analytics;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregates per group, largest group first
+ */
+public record AnalyticsResult(List<Group> groups,
+                              long matched,
+                              int scanned,
+                              long tookMicros,
+                              Instant snapshotAt) {
+
+    /**
+     * @param approvalRate (approved + paid) / (approved + paid + rejected), 0 when nothing was decided
+     */
+    public record Group(String key,
+                        long count,
+                        BigDecimal requestedTotal,
+                        BigDecimal approvedTotal,
+                        Map<String, Long> byStatus,
+                        double approvalRate) {
+    }
+}
@@ -0,0 +1,369 @@
+package com.ny.safeny.analytics;
+
+import com.ny.safeny.analytics.AnalyticsQuery.GroupBy;
+import com.ny.safeny.analytics.ClaimColumns.Snapshot;
+import com.ny.safeny.model.Claim.ClaimStatus;
+import com.ny.safeny.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+/**
+ * Claim Analytics Service
+ * Answers ad-hoc filter/group-by questions from an in-memory columnar copy of the claims instead
+ * of running custom SQL against the OLTP tables.
+ *
+ * The snapshot is rebuilt in full on a schedule (live and archived claims) and refreshed in between
+ * from claims whose updated_at moved; deleted claims drop out at the next rebuild. When sharded,
+ * every shard is read in turn with its own watermark; claim ids are unique across shards. Queries are
+ * parallel scans over primitive arrays on the common fork-join pool.
+ */
+@Service
+@Slf4j
+public class ClaimAnalyticsService {
+
+    private static final String COLUMNS = "id, request_amount, approved_amount, created_at, updated_at, "
+            + "status, disaster_type, location";
+
+    private static final ClaimStatus[] STATUSES = ClaimStatus.values();
+
+    // Per group: count, requested cents, approved cents, then one count per status
+    private static final int STRIDE = 3 + STATUSES.length;
+
+    private static final int LEAF_ROWS = 1 << 16;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${safeny.analytics.enabled:true}")
+    private boolean enabled;
+
+    @Value("${safeny.analytics.fetch-size:10000}")
+    private int fetchSize;
+
+    @Value("${safeny.analytics.refresh-overlap-ms:300000}")
+    private long refreshOverlapMs;
+
+    private volatile Snapshot snapshot = Snapshot.empty();
+
+    // Owned by the refresh methods, which are synchronized
+    private ClaimColumns columns;
+    private long[] watermarks;
+
+    /**
+     * 1. Rebuild the snapshot from all live and archived claims (nightly, and on first refresh)
+     */
+    @Scheduled(cron = "${safeny.analytics.rebuild-cron:0 15 3 * * *}")
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        ClaimColumns rebuilt = new ClaimColumns(snapshot.size() + snapshot.size() / 4);
+        long[] maxUpdated = new long[shardRouter.shardCount()];
+        shardRouter.forEachShard(shard -> streamingRead(jdbc -> {
+            jdbc.query("SELECT " + COLUMNS + " FROM claim_history", rs -> {
+                load(rebuilt, rs);
+            });
+            jdbc.query("SELECT " + COLUMNS + " FROM claims", rs -> {
+                maxUpdated[shard] = Math.max(maxUpdated[shard], load(rebuilt, rs));
+            });
+        }));
+
+        columns = rebuilt;
+        watermarks = maxUpdated;
+        snapshot = rebuilt.snapshot(System.currentTimeMillis());
+        log.info("Claim analytics snapshot rebuilt: {} claims in {} ms",
+                rebuilt.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * 2. Apply claims changed since the last refresh
+     */
+    @Scheduled(initialDelayString = "${safeny.analytics.initial-delay-ms:5000}",
+            fixedDelayString = "${safeny.analytics.refresh-interval-ms:60000}")
+    public synchronized void refresh() {
+        if (!enabled) {
+            return;
+        }
+        if (columns == null) {
+            rebuild();
+            return;
+        }
+        long[] maxUpdated = watermarks.clone();
+        int[] changed = {0};
+        // Look back past the watermark so rows committed late by long transactions are still picked
+        // up; re-applying a row is harmless
+        shardRouter.forEachShard(shard -> streamingRead(jdbc -> jdbc.query(
+                "SELECT " + COLUMNS + " FROM claims WHERE updated_at >= ?", rs -> {
+                    maxUpdated[shard] = Math.max(maxUpdated[shard], load(columns, rs));
+                    changed[0]++;
+                }, new Timestamp(watermarks[shard] - refreshOverlapMs))));
+
+        watermarks = maxUpdated;
+        snapshot = columns.snapshot(System.currentTimeMillis());
+        log.debug("Claim analytics snapshot refreshed with {} changed claims", changed[0]);
+    }
+
+    /**
+     * 3. Run a query against the current snapshot
+     */
+    public AnalyticsResult query(AnalyticsQuery query) {
+        long start = System.nanoTime();
+        Snapshot current = snapshot;
+
+        Scan scan = new Scan(current, query, 0, current.size());
+        long[] totals = current.size() > 0 ? ForkJoinPool.commonPool().invoke(scan) : new long[scan.groups * STRIDE];
+
+        String[] keys = switch (scan.groupBy) {
+            case NONE -> new String[]{"ALL"};
+            case STATUS -> statusNames();
+            case DISASTER_TYPE -> current.disasterTypes();
+            case LOCATION -> current.locations();
+        };
+
+        List<AnalyticsResult.Group> groups = new ArrayList<>();
+        long matched = 0;
+        for (int g = 0; g < scan.groups; g++) {
+            int base = g * STRIDE;
+            long count = totals[base];
+            if (count == 0) {
+                continue;
+            }
+            matched += count;
+            Map<String, Long> byStatus = new LinkedHashMap<>();
+            for (int s = 0; s < STATUSES.length; s++) {
+                byStatus.put(STATUSES[s].name(), totals[base + 3 + s]);
+            }
+            long approved = byStatus.get(ClaimStatus.APPROVED.name()) + byStatus.get(ClaimStatus.PAID.name());
+            long decided = approved + byStatus.get(ClaimStatus.REJECTED.name());
+            groups.add(new AnalyticsResult.Group(keys[g], count,
+                    BigDecimal.valueOf(totals[base + 1], 2),
+                    BigDecimal.valueOf(totals[base + 2], 2),
+                    byStatus,
+                    decided > 0 ? (double) approved / decided : 0));
+        }
+        groups.sort((a, b) -> Long.compare(b.count(), a.count()));
+
+        return new AnalyticsResult(groups, matched, current.size(), (System.nanoTime() - start) / 1_000,
+                Instant.ofEpochMilli(current.refreshedAt()));
+    }
+
+    /**
+     * Fork-join scan over a row range; leaves aggregate into a private array, parents add them up
+     */
+    private static final class Scan extends RecursiveTask<long[]> {
+
+        private final Snapshot snapshot;
+        private final int from;
+        private final int to;
+
+        // Resolved once at the root and shared by all subtasks
+        final GroupBy groupBy;
+        final int groups;
+        private final boolean[] statusAllowed;
+        private final boolean[] disasterTypeAllowed;
+        private final boolean[] locationAllowed;
+        private final long minCents;
+        private final long maxCents;
+        private final long createdFrom;
+        private final long createdTo;
+
+        Scan(Snapshot snapshot, AnalyticsQuery query, int from, int to) {
+            this.snapshot = snapshot;
+            this.from = from;
+            this.to = to;
+            this.groupBy = query.groupBy() != null ? query.groupBy() : GroupBy.NONE;
+            this.groups = switch (groupBy) {
+                case NONE -> 1;
+                case STATUS -> STATUSES.length;
+                case DISASTER_TYPE -> snapshot.disasterTypes().length;
+                case LOCATION -> snapshot.locations().length;
+            };
+            this.statusAllowed = statusMask(query.statuses());
+            this.disasterTypeAllowed = dictionaryMask(snapshot.disasterTypes(), query.disasterTypes());
+            this.locationAllowed = dictionaryMask(snapshot.locations(), query.locations());
+            this.minCents = query.minAmountCents() != null ? query.minAmountCents() : Long.MIN_VALUE;
+            this.maxCents = query.maxAmountCents() != null ? query.maxAmountCents() : Long.MAX_VALUE;
+            this.createdFrom = query.createdFrom() != null ? query.createdFrom().toEpochMilli() : Long.MIN_VALUE;
+            this.createdTo = query.createdTo() != null ? query.createdTo().toEpochMilli() : Long.MAX_VALUE;
+        }
+
+        private Scan(Scan parent, int from, int to) {
+            this.snapshot = parent.snapshot;
+            this.from = from;
+            this.to = to;
+            this.groupBy = parent.groupBy;
+            this.groups = parent.groups;
+            this.statusAllowed = parent.statusAllowed;
+            this.disasterTypeAllowed = parent.disasterTypeAllowed;
+            this.locationAllowed = parent.locationAllowed;
+            this.minCents = parent.minCents;
+            this.maxCents = parent.maxCents;
+            this.createdFrom = parent.createdFrom;
+            this.createdTo = parent.createdTo;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= LEAF_ROWS) {
+                return scan();
+            }
+            int middle = (from + to) >>> 1;
+            Scan left = new Scan(this, from, middle);
+            Scan right = new Scan(this, middle, to);
+            left.fork();
+            long[] totals = right.compute();
+            long[] other = left.join();
+            for (int i = 0; i < totals.length; i++) {
+                totals[i] += other[i];
+            }
+            return totals;
+        }
+
+        private long[] scan() {
+            long[] totals = new long[groups * STRIDE];
+            long[] requested = snapshot.requestedCents();
+            long[] approved = snapshot.approvedCents();
+            long[] created = snapshot.createdAt();
+            byte[] status = snapshot.status();
+            int[] disasterType = snapshot.disasterType();
+            int[] location = snapshot.location();
+
+            for (int i = from; i < to; i++) {
+                long amount = requested[i];
+                if (amount < minCents || amount > maxCents) {
+                    continue;
+                }
+                long createdAt = created[i];
+                if (createdAt < createdFrom || createdAt > createdTo) {
+                    continue;
+                }
+                int s = status[i];
+                if (statusAllowed != null && !statusAllowed[s]) {
+                    continue;
+                }
+                // Codes added by a refresh after this snapshot was taken fall outside its dictionaries
+                int d = disasterType[i];
+                if (disasterTypeAllowed != null ? d >= disasterTypeAllowed.length || !disasterTypeAllowed[d]
+                        : groupBy == GroupBy.DISASTER_TYPE && d >= groups) {
+                    continue;
+                }
+                int l = location[i];
+                if (locationAllowed != null ? l >= locationAllowed.length || !locationAllowed[l]
+                        : groupBy == GroupBy.LOCATION && l >= groups) {
+                    continue;
+                }
+
+                int group = switch (groupBy) {
+                    case NONE -> 0;
+                    case STATUS -> s;
+                    case DISASTER_TYPE -> d;
+                    case LOCATION -> l;
+                };
+                int base = group * STRIDE;
+                totals[base]++;
+                totals[base + 1] += amount;
+                long approvedAmount = approved[i];
+                if (approvedAmount != ClaimColumns.NO_AMOUNT) {
+                    totals[base + 2] += approvedAmount;
+                }
+                totals[base + 3 + s]++;
+            }
+            return totals;
+        }
+
+        private static boolean[] statusMask(Set<ClaimStatus> statuses) {
+            if (statuses == null || statuses.isEmpty()) {
+                return null;
+            }
+            boolean[] mask = new boolean[STATUSES.length];
+            statuses.forEach(status -> mask[status.ordinal()] = true);
+            return mask;
+        }
+
+        private static boolean[] dictionaryMask(String[] dictionary, Set<String> values) {
+            if (values == null || values.isEmpty()) {
+                return null;
+            }
+            boolean[] mask = new boolean[dictionary.length];
+            for (int code = 0; code < dictionary.length; code++) {
+                for (String value : values) {
+                    if (dictionary[code].equalsIgnoreCase(value)) {
+                        mask[code] = true;
+                        break;
+                    }
+                }
+            }
+            return mask;
+        }
+    }
+
+    /**
+     * @return the row's updated_at in epoch millis
+     */
+    private static long load(ClaimColumns target, ResultSet rs) throws SQLException {
+        BigDecimal approved = rs.getBigDecimal("approved_amount");
+        Timestamp created = rs.getTimestamp("created_at");
+        Timestamp updated = rs.getTimestamp("updated_at");
+        target.upsert(rs.getLong("id"),
+                toCents(rs.getBigDecimal("request_amount")),
+                approved != null ? toCents(approved) : ClaimColumns.NO_AMOUNT,
+                created != null ? created.getTime() : 0,
+                ClaimStatus.valueOf(rs.getString("status")).ordinal(),
+                rs.getString("disaster_type"),
+                rs.getString("location"));
+        return updated != null ? updated.getTime() : 0;
+    }
+
+    /**
+     * Read inside a read-only transaction on the current shard, with a fetch size so PostgreSQL
+     * streams rows instead of materializing the whole table in the driver
+     */
+    private void streamingRead(Consumer<JdbcTemplate> work) {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.setFetchSize(fetchSize);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        transaction.executeWithoutResult(status -> work.accept(jdbc));
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount == null ? 0 : amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static String[] statusNames() {
+        String[] names = new String[STATUSES.length];
+        for (int i = 0; i < STATUSES.length; i++) {
+            names[i] = STATUSES[i].name();
+        }
+        return names;
+    }
+}
@@ -0,0 +1,123 @@
+package com.ny.safeny.analytics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writer side of the columnar claim store: one primitive array per column, dictionary-encoded
+ * strings and an id to row index. Not thread-safe; a single refresh thread owns it and hands
+ * readers immutable {@link Snapshot}s.
+ */
+final class ClaimColumns {
+
+    static final long NO_AMOUNT = -1;
+    static final String UNKNOWN = "(none)";
+
+    private long[] requestedCents;
+    private long[] approvedCents;
+    private long[] createdAt;
+    private byte[] status;
+    private int[] disasterType;
+    private int[] location;
+    private int size;
+    // True while the arrays are referenced by the last snapshot; updating a row then copies them first
+    private boolean published;
+
+    private final LongIntMap rowsById;
+    private final Dictionary disasterTypes = new Dictionary();
+    private final Dictionary locations = new Dictionary();
+
+    /**
+     * Consistent read view. Arrays are shared with the writer only for appends past size; a refresh
+     * that changes an existing row writes to fresh copies, so a scan never sees half an update.
+     */
+    record Snapshot(long[] requestedCents, long[] approvedCents, long[] createdAt, byte[] status,
+                    int[] disasterType, int[] location, int size,
+                    String[] disasterTypes, String[] locations, long refreshedAt) {
+
+        static Snapshot empty() {
+            return new ClaimColumns(0).snapshot(0);
+        }
+    }
+
+    ClaimColumns(int expected) {
+        int capacity = Math.max(1024, expected);
+        requestedCents = new long[capacity];
+        approvedCents = new long[capacity];
+        createdAt = new long[capacity];
+        status = new byte[capacity];
+        disasterType = new int[capacity];
+        location = new int[capacity];
+        rowsById = new LongIntMap(capacity);
+    }
+
+    void upsert(long id, long requested, long approved, long created, int statusOrdinal,
+                String disasterTypeName, String locationName) {
+        int row = rowsById.get(id);
+        if (LongIntMap.isMissing(row)) {
+            ensureCapacity(size + 1);
+            row = size++;
+            rowsById.put(id, row);
+        } else if (published) {
+            copyArrays(status.length);
+        }
+        requestedCents[row] = requested;
+        approvedCents[row] = approved;
+        createdAt[row] = created;
+        status[row] = (byte) statusOrdinal;
+        disasterType[row] = disasterTypes.encode(disasterTypeName);
+        location[row] = locations.encode(locationName);
+    }
+
+    int size() {
+        return size;
+    }
+
+    Snapshot snapshot(long refreshedAt) {
+        published = true;
+        return new Snapshot(requestedCents, approvedCents, createdAt, status, disasterType, location, size,
+                disasterTypes.values(), locations.values(), refreshedAt);
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= status.length) {
+            return;
+        }
+        // Readers keep scanning the old arrays; the next snapshot points at the new ones
+        copyArrays(Math.max(required, status.length + (status.length >> 1)));
+    }
+
+    private void copyArrays(int capacity) {
+        requestedCents = Arrays.copyOf(requestedCents, capacity);
+        approvedCents = Arrays.copyOf(approvedCents, capacity);
+        createdAt = Arrays.copyOf(createdAt, capacity);
+        status = Arrays.copyOf(status, capacity);
+        disasterType = Arrays.copyOf(disasterType, capacity);
+        location = Arrays.copyOf(location, capacity);
+        published = false;
+    }
+
+    private static final class Dictionary {
+
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int encode(String value) {
+            String key = value != null && !value.isBlank() ? value : UNKNOWN;
+            Integer code = codes.get(key);
+            if (code == null) {
+                code = values.size();
+                codes.put(key, code);
+                values.add(key);
+            }
+            return code;
+        }
+
+        String[] values() {
+            return values.toArray(new String[0]);
+        }
+    }
+}
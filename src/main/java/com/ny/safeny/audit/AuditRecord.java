@@ -0,0 +1,142 @@
+package com.ny.safeny.audit;
+
+import com.ny.safeny.model.Claim.ClaimStatus;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.zip.CRC32;
+
+/**
+ * One claim state transition in the audit log
+ *
+ * Binary layout (big-endian):
+ * <pre>
+ *   int    payload length (excludes this field and the CRC)
+ *   long   claim id
+ *   long   timestamp, epoch millis
+ *   byte   from status ordinal, -1 when the claim was just created
+ *   byte   to status ordinal
+ *   long   amount in cents, Long.MIN_VALUE when not applicable
+ *   short  actor length, then UTF-8 actor bytes
+ *   short  comment length, then UTF-8 comment bytes
+ *   int    CRC32 of the payload
+ * </pre>
+ */
+public record AuditRecord(long claimId,
+                          long timestamp,
+                          ClaimStatus fromStatus,
+                          ClaimStatus toStatus,
+                          BigDecimal amount,
+                          String actor,
+                          String comment) {
+
+    static final int MAX_TEXT_BYTES = 2048;
+    private static final long NO_AMOUNT = Long.MIN_VALUE;
+    private static final int FIXED_PAYLOAD = 8 + 8 + 1 + 1 + 8 + 2 + 2;
+
+    public Instant getTime() {
+        return Instant.ofEpochMilli(timestamp);
+    }
+
+    /**
+     * Total encoded size including the length prefix and CRC
+     */
+    int encodedSize() {
+        return 4 + FIXED_PAYLOAD + text(actor).length + text(comment).length + 4;
+    }
+
+    void encode(ByteBuffer buffer) {
+        byte[] actorBytes = text(actor);
+        byte[] commentBytes = text(comment);
+        int payloadLength = FIXED_PAYLOAD + actorBytes.length + commentBytes.length;
+
+        int start = buffer.position();
+        buffer.putInt(payloadLength);
+        buffer.putLong(claimId);
+        buffer.putLong(timestamp);
+        buffer.put(fromStatus != null ? (byte) fromStatus.ordinal() : (byte) -1);
+        buffer.put((byte) toStatus.ordinal());
+        buffer.putLong(amount != null ? amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact() : NO_AMOUNT);
+        buffer.putShort((short) actorBytes.length);
+        buffer.put(actorBytes);
+        buffer.putShort((short) commentBytes.length);
+        buffer.put(commentBytes);
+
+        CRC32 crc = new CRC32();
+        ByteBuffer payload = buffer.duplicate();
+        payload.position(start + 4).limit(start + 4 + payloadLength);
+        crc.update(payload);
+        buffer.putInt((int) crc.getValue());
+    }
+
+    /**
+     * Decode the record at the buffer's position
+     * @return the record, or null when the bytes are empty, truncated or fail the CRC check
+     */
+    static AuditRecord decode(ByteBuffer buffer) {
+        if (buffer.remaining() < 4) {
+            return null;
+        }
+        int start = buffer.position();
+        int payloadLength = buffer.getInt(start);
+        if (payloadLength < FIXED_PAYLOAD || payloadLength > FIXED_PAYLOAD + 2 * MAX_TEXT_BYTES
+                || buffer.remaining() < 4 + payloadLength + 4) {
+            return null;
+        }
+
+        CRC32 crc = new CRC32();
+        ByteBuffer payload = buffer.duplicate();
+        payload.position(start + 4).limit(start + 4 + payloadLength);
+        crc.update(payload);
+        if ((int) crc.getValue() != buffer.getInt(start + 4 + payloadLength)) {
+            return null;
+        }
+
+        buffer.position(start + 4);
+        long claimId = buffer.getLong();
+        long timestamp = buffer.getLong();
+        byte from = buffer.get();
+        byte to = buffer.get();
+        long cents = buffer.getLong();
+        String actor = readText(buffer);
+        String comment = readText(buffer);
+        buffer.getInt();
+
+        ClaimStatus[] statuses = ClaimStatus.values();
+        return new AuditRecord(claimId, timestamp,
+                from >= 0 ? statuses[from] : null,
+                statuses[to],
+                cents != NO_AMOUNT ? BigDecimal.valueOf(cents, 2) : null,
+                actor, comment);
+    }
+
+    private static String readText(ByteBuffer buffer) {
+        int length = buffer.getShort();
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] text(String value) {
+        if (value == null) {
+            return new byte[0];
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= MAX_TEXT_BYTES) {
+            return bytes;
+        }
+        // Truncate on a character boundary
+        String truncated = value;
+        while (bytes.length > MAX_TEXT_BYTES) {
+            truncated = truncated.substring(0, truncated.length() * MAX_TEXT_BYTES / bytes.length - 1);
+            bytes = truncated.getBytes(StandardCharsets.UTF_8);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,431 @@
+package com.ny.safeny.audit;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Claim Audit Log
+ * Append-only, memory-mapped segment log of claim state transitions kept on local disk,
+ * so history is preserved without adding writes to the database hot path.
+ *
+ * Appends copy into the active mapped segment; the OS writes pages back and a scheduled
+ * task forces them to disk. A full segment is forced and a new one started.
+ *
+ * Only the active segment's records are indexed on the heap, so the index is bounded by the
+ * segment size rather than by the number of claims. Sealing a segment writes its index next to
+ * it as a file of (claim id, offset) pairs sorted by claim id, which history reads memory-map
+ * and binary-search, skipping segments whose claim id range cannot match. Startup loads those
+ * files and scans only the active segment, plus any sealed segment whose index file is missing
+ * or damaged, which is then written again.
+ */
+@Component
+@Slf4j
+public class ClaimAuditLog {
+
+    private static final String SEGMENT_PREFIX = "audit-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String INDEX_SUFFIX = ".idx";
+
+    /** Index file header: magic, entry count; then per entry a claim id and an offset */
+    private static final int INDEX_MAGIC = 0x41494458;
+    private static final int INDEX_HEADER = 8;
+    private static final int INDEX_ENTRY = 12;
+
+    @Value("${safeny.audit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${safeny.audit.directory:./data/audit}")
+    private String directory;
+
+    @Value("${safeny.audit.segment-size-mb:64}")
+    private int segmentSizeMb;
+
+    private Path root;
+    private int segmentSize;
+
+    private final Object appendLock = new Object();
+    private final Map<Integer, FileChannel> readChannels = new ConcurrentHashMap<>();
+
+    /**
+     * What a history read sees: the sealed segments' indexes and the active segment's offsets per
+     * claim. Replaced as a whole when a segment is sealed, so a read never sees a record twice or misses it.
+     */
+    private record View(List<SealedSegment> sealed, int activeSegment, Map<Long, int[]> active) {
+    }
+
+    private volatile View view;
+
+    // Guarded by appendLock
+    private FileChannel activeChannel;
+    private volatile MappedByteBuffer activeBuffer;
+
+    @PostConstruct
+    void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        root = Paths.get(directory);
+        Files.createDirectories(root);
+        segmentSize = segmentSizeMb * 1024 * 1024;
+
+        List<Integer> segments = listSegments();
+        int last = segments.isEmpty() ? 1 : segments.get(segments.size() - 1);
+        List<SealedSegment> sealed = new ArrayList<>();
+        int rebuilt = 0;
+        for (int segment : segments) {
+            if (segment == last) {
+                continue;
+            }
+            SealedSegment index = loadIndex(segment);
+            if (index == null) {
+                index = writeIndex(segment, scanSegment(segment));
+                rebuilt++;
+            }
+            sealed.add(index);
+        }
+
+        Map<Long, int[]> active = new ConcurrentHashMap<>(segments.isEmpty() ? Map.of() : scanSegment(last));
+        view = new View(List.copyOf(sealed), last, active);
+        openActive(last);
+        log.info("Audit log opened at {} ({} segments, {} indexes rebuilt, {} claims in the active segment)",
+                root.toAbsolutePath(), Math.max(1, segments.size()), rebuilt, active.size());
+    }
+
+    /**
+     * Append one transition
+     */
+    public void append(AuditRecord record) {
+        if (!enabled) {
+            return;
+        }
+        int size = record.encodedSize();
+        synchronized (appendLock) {
+            if (activeBuffer.remaining() < size) {
+                roll();
+            }
+            int offset = activeBuffer.position();
+            record.encode(activeBuffer);
+            view.active().merge(record.claimId(), new int[]{offset}, ClaimAuditLog::concat);
+        }
+    }
+
+    /**
+     * Stream a claim's transitions in the order they were recorded
+     */
+    public void readHistory(long claimId, Consumer<AuditRecord> consumer) {
+        View current = view;
+        if (current == null) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(4 + AuditRecord.MAX_TEXT_BYTES * 2 + 64);
+        for (SealedSegment segment : current.sealed()) {
+            read(segment.segment(), segment.offsets(claimId), buffer, consumer);
+        }
+        read(current.activeSegment(), current.active().get(claimId), buffer, consumer);
+    }
+
+    public boolean hasHistory(long claimId) {
+        View current = view;
+        if (current == null) {
+            return false;
+        }
+        if (current.active().containsKey(claimId)) {
+            return true;
+        }
+        for (SealedSegment segment : current.sealed()) {
+            if (segment.offsets(claimId) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void read(int segment, int[] offsets, ByteBuffer buffer, Consumer<AuditRecord> consumer) {
+        if (offsets == null) {
+            return;
+        }
+        for (int offset : offsets) {
+            try {
+                buffer.clear();
+                FileChannel channel = readChannel(segment);
+                channel.read(buffer, offset);
+                buffer.flip();
+                AuditRecord record = AuditRecord.decode(buffer);
+                if (record != null) {
+                    consumer.accept(record);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read audit segment " + segment, e);
+            }
+        }
+    }
+
+    /**
+     * Flush dirty pages of the active segment to disk
+     */
+    @Scheduled(fixedDelayString = "${safeny.audit.fsync-interval-ms:1000}")
+    public void sync() {
+        MappedByteBuffer buffer = activeBuffer;
+        if (buffer != null) {
+            buffer.force();
+        }
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        synchronized (appendLock) {
+            if (activeBuffer != null) {
+                activeBuffer.force();
+                activeChannel.close();
+            }
+        }
+        for (FileChannel channel : readChannels.values()) {
+            channel.close();
+        }
+    }
+
+    private void roll() {
+        activeBuffer.force();
+        View current = view;
+        int next = current.activeSegment() + 1;
+        try {
+            SealedSegment index = writeIndex(current.activeSegment(), current.active());
+            activeChannel.close();
+            openActive(next);
+            List<SealedSegment> sealed = new ArrayList<>(current.sealed());
+            sealed.add(index);
+            view = new View(List.copyOf(sealed), next, new ConcurrentHashMap<>());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot roll audit segment", e);
+        }
+        log.info("Audit log rolled to segment {}", next);
+    }
+
+    private void openActive(int segment) throws IOException {
+        Path path = segmentPath(segment);
+        boolean exists = Files.exists(path);
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+
+        int end = exists ? validEnd(buffer) : 0;
+        if (end < segmentSize && buffer.get(end) != 0) {
+            // Torn tail from a crash: clear it so stale bytes can never be read back as records
+            byte[] zeros = new byte[64 * 1024];
+            buffer.position(end);
+            while (buffer.hasRemaining()) {
+                buffer.put(zeros, 0, Math.min(zeros.length, buffer.remaining()));
+            }
+            buffer.force();
+            log.warn("Audit segment {} had a torn tail at offset {}; cleared", segment, end);
+        }
+        buffer.position(end);
+
+        activeChannel = channel;
+        activeBuffer = buffer;
+    }
+
+    /**
+     * Offsets of all valid records of a segment, per claim
+     */
+    private Map<Long, int[]> scanSegment(int segment) throws IOException {
+        Map<Long, int[]> offsets = new HashMap<>();
+        try (FileChannel channel = FileChannel.open(segmentPath(segment), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            AuditRecord record;
+            while (true) {
+                int offset = buffer.position();
+                record = AuditRecord.decode(buffer);
+                if (record == null) {
+                    break;
+                }
+                offsets.merge(record.claimId(), new int[]{offset}, ClaimAuditLog::concat);
+            }
+        }
+        return offsets;
+    }
+
+    /**
+     * Write a sealed segment's index file, through a temporary file so a crash never leaves half of one
+     */
+    private SealedSegment writeIndex(int segment, Map<Long, int[]> offsets) throws IOException {
+        int entries = 0;
+        for (int[] claimOffsets : offsets.values()) {
+            entries += claimOffsets.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(INDEX_HEADER + entries * INDEX_ENTRY);
+        buffer.putInt(INDEX_MAGIC).putInt(entries);
+        Long[] claimIds = offsets.keySet().toArray(new Long[0]);
+        Arrays.sort(claimIds);
+        for (Long claimId : claimIds) {
+            for (int offset : offsets.get(claimId)) {
+                buffer.putLong(claimId).putInt(offset);
+            }
+        }
+        buffer.flip();
+
+        Path path = indexPath(segment);
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return loadIndex(segment);
+    }
+
+    /**
+     * Map a sealed segment's index file
+     * @return null when the file is missing or its size does not match its header
+     */
+    private SealedSegment loadIndex(int segment) throws IOException {
+        Path path = indexPath(segment);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < INDEX_HEADER) {
+                return null;
+            }
+            MappedByteBuffer entries = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int count = entries.getInt(4);
+            if (entries.getInt(0) != INDEX_MAGIC || count < 0 || size != INDEX_HEADER + (long) count * INDEX_ENTRY) {
+                log.warn("Audit index of segment {} is damaged; rebuilding it", segment);
+                return null;
+            }
+            return new SealedSegment(segment, entries, count);
+        }
+    }
+
+    private static int validEnd(ByteBuffer buffer) {
+        ByteBuffer scan = buffer.duplicate();
+        scan.position(0);
+        while (AuditRecord.decode(scan) != null) {
+            // decode advances past each valid record
+        }
+        return scan.position();
+    }
+
+    private FileChannel readChannel(int segment) {
+        return readChannels.computeIfAbsent(segment, s -> {
+            try {
+                return FileChannel.open(segmentPath(s), StandardOpenOption.READ);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private List<Integer> listSegments() throws IOException {
+        List<Integer> segments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(root)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .forEach(name -> segments.add(Integer.parseInt(
+                            name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()))));
+        }
+        segments.sort(Integer::compare);
+        return segments;
+    }
+
+    private Path segmentPath(int segment) {
+        return root.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    private Path indexPath(int segment) {
+        return root.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, segment, INDEX_SUFFIX));
+    }
+
+    private static int[] concat(int[] existing, int[] added) {
+        int[] merged = Arrays.copyOf(existing, existing.length + added.length);
+        System.arraycopy(added, 0, merged, existing.length, added.length);
+        return merged;
+    }
+
+    /**
+     * A sealed segment's memory-mapped index: (claim id, offset) entries sorted by claim id, then offset
+     */
+    private static final class SealedSegment {
+
+        private final int segment;
+        private final MappedByteBuffer entries;
+        private final int count;
+        private final long minClaimId;
+        private final long maxClaimId;
+
+        SealedSegment(int segment, MappedByteBuffer entries, int count) {
+            this.segment = segment;
+            this.entries = entries;
+            this.count = count;
+            this.minClaimId = count > 0 ? claimId(0) : Long.MAX_VALUE;
+            this.maxClaimId = count > 0 ? claimId(count - 1) : Long.MIN_VALUE;
+        }
+
+        int segment() {
+            return segment;
+        }
+
+        /**
+         * The claim's record offsets in this segment, or null when it has none
+         */
+        int[] offsets(long claimId) {
+            if (claimId < minClaimId || claimId > maxClaimId) {
+                return null;
+            }
+            // First entry whose claim id is not below the one sought
+            int low = 0;
+            int high = count;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (claimId(middle) < claimId) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            int end = low;
+            while (end < count && claimId(end) == claimId) {
+                end++;
+            }
+            if (end == low) {
+                return null;
+            }
+            int[] offsets = new int[end - low];
+            for (int i = low; i < end; i++) {
+                offsets[i - low] = entries.getInt(INDEX_HEADER + i * INDEX_ENTRY + 8);
+            }
+            return offsets;
+        }
+
+        private long claimId(int entry) {
+            return entries.getLong(INDEX_HEADER + entry * INDEX_ENTRY);
+        }
+    }
+}
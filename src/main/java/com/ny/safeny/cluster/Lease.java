@@ -0,0 +1,42 @@
+package com.ny.safeny.cluster;
+
+/**
+ * A lease held by this instance. Pass it to {@link LeaseManager#fence(Lease)} inside any
+ * transaction whose writes must only happen while the lease is still ours.
+ */
+public final class Lease {
+
+    private final String name;
+    private final long fencingToken;
+    private volatile long validUntilNanos;
+    private volatile boolean lost;
+
+    Lease(String name, long fencingToken, long validUntilNanos) {
+        this.name = name;
+        this.fencingToken = fencingToken;
+        this.validUntilNanos = validUntilNanos;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getFencingToken() {
+        return fencingToken;
+    }
+
+    /**
+     * Cheap local check for long jobs to stop early; the database check is {@link LeaseManager#fence(Lease)}
+     */
+    public boolean isHeld() {
+        return !lost && System.nanoTime() < validUntilNanos;
+    }
+
+    void renewed(long validUntilNanos) {
+        this.validUntilNanos = validUntilNanos;
+    }
+
+    void lost() {
+        this.lost = true;
+    }
+}
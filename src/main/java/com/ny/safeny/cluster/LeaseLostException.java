@@ -0,0 +1,12 @@
+package com.ny.safeny.cluster;
+
+/**
+ * The lease a job was working under expired or was taken over by another instance.
+ * Thrown inside the job's transaction so its writes roll back.
+ */
+public class LeaseLostException extends RuntimeException {
+
+    public LeaseLostException(String lease, long fencingToken) {
+        super("Lease " + lease + " (token " + fencingToken + ") is no longer held");
+    }
+}
@@ -0,0 +1,307 @@
+package com.ny.safeny.cluster;
+
+import com.ny.safeny.datasource.ShardRouting;
+import com.ny.safeny.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.net.InetAddress;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Lease Manager
+ * Coordinates background jobs across instances through rows in job_leases.
+ *
+ * A lease is taken with one conditional UPDATE (free, expired, or already ours) that also bumps the
+ * fencing token, and kept alive by a heartbeat while the job runs. Jobs that write to the database
+ * call {@link #fence(Lease)} in the same transaction: it only succeeds while the row still carries
+ * their token, so an instance that stalled past its lease cannot commit over its successor.
+ *
+ * Exclusive jobs keep their lease for one TTL after finishing, which makes the last runner the
+ * sticky leader and stops other instances' slightly later timer from repeating the run. Sharded
+ * jobs split work into numbered shard leases that instances claim one at a time, so every added
+ * instance takes shards instead of repeating them.
+ *
+ * Lease rows live on the home shard. Work on another shard is fenced with
+ * {@link #commitFenced(Lease, int, Supplier)}, which keeps the home fencing transaction, and its
+ * row lock, open until the shard's transaction has committed.
+ *
+ * Expiry uses each instance's clock, so clocks must agree to well within the TTL; fencing covers
+ * the rest.
+ */
+@Component
+@Slf4j
+public class LeaseManager {
+
+    private static final String ACQUIRE = "UPDATE job_leases SET owner = ?, fencing_token = fencing_token + 1, "
+            + "acquired_at = ?, expires_at = ?, heartbeat_at = ? WHERE name = ? AND (expires_at < ? OR owner = ?)";
+
+    private static final String NOT_COMPLETED = " AND (completed_run IS NULL OR completed_run <> ?)";
+
+    private static final String INSERT = "INSERT INTO job_leases "
+            + "(name, owner, fencing_token, acquired_at, expires_at, heartbeat_at) VALUES (?, ?, 1, ?, ?, ?)";
+
+    private static final String RENEW = "UPDATE job_leases SET expires_at = ?, heartbeat_at = ? "
+            + "WHERE name = ? AND owner = ? AND fencing_token = ?";
+
+    private static final String RELEASE = "UPDATE job_leases SET expires_at = ?, completed_run = COALESCE(CAST(? AS VARCHAR(100)), completed_run) "
+            + "WHERE name = ? AND owner = ? AND fencing_token = ?";
+
+    private static final String FENCE = "UPDATE job_leases SET heartbeat_at = ? "
+            + "WHERE name = ? AND owner = ? AND fencing_token = ? AND expires_at >= ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${safeny.cluster.node-id:}")
+    private String configuredNodeId;
+
+    @Value("${safeny.cluster.lease-ttl-ms:30000}")
+    private long ttlMillis;
+
+    @Value("${safeny.cluster.heartbeat-interval-ms:10000}")
+    private long heartbeatMillis;
+
+    private String nodeId;
+    private final Set<Lease> held = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService heartbeat;
+
+    @FunctionalInterface
+    public interface ShardTask {
+        void run(int shard, int shardCount, Lease lease);
+    }
+
+    @PostConstruct
+    void init() {
+        nodeId = configuredNodeId.isBlank() ? defaultNodeId() : configuredNodeId;
+        heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "lease-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeat.scheduleWithFixedDelay(this::renewAll, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        log.info("Cluster node id {}", nodeId);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeat.shutdownNow();
+        // Hand leases over immediately instead of making the other instances wait out the TTL
+        for (Lease lease : held) {
+            try {
+                release(lease, Duration.ZERO);
+            } catch (Exception e) {
+                log.debug("Could not release lease {} on shutdown", lease.getName(), e);
+            }
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Take the named lease if it is free, expired, or already ours
+     */
+    public Optional<Lease> tryAcquire(String name) {
+        return tryAcquire(name, null);
+    }
+
+    /**
+     * Release a lease. It stays reserved for {@code hold}, during which only this instance can take it again.
+     */
+    public void release(Lease lease, Duration hold) {
+        release(lease, hold, null);
+    }
+
+    /**
+     * Fail the surrounding transaction unless the lease is still ours and unexpired.
+     * Takes a row lock on the lease, so a takeover waits for this transaction to finish.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void fence(Lease lease) {
+        if (lease == null) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int updated = jdbcTemplate.update(FENCE, now, lease.getName(), nodeId, lease.getFencingToken(), now);
+        if (updated == 0) {
+            lease.lost();
+            throw new LeaseLostException(lease.getName(), lease.getFencingToken());
+        }
+    }
+
+    /**
+     * Run the work in one transaction on the shard and commit it only while the lease is still ours.
+     * With sharding disabled this is a single transaction that fences and then runs the work.
+     */
+    public <T> T commitFenced(Lease lease, int shard, Supplier<T> work) {
+        if (!shardRouter.isSharded()) {
+            return new TransactionTemplate(transactionManager).execute(status -> {
+                fence(lease);
+                return work.get();
+            });
+        }
+        TransactionTemplate shardTransaction = new TransactionTemplate(transactionManager);
+        // A connection of its own on the shard, taken while the home transaction holds the lease row
+        shardTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try (ShardRouting.Scope home = shardRouter.onShard(ShardRouting.HOME)) {
+            return new TransactionTemplate(transactionManager).execute(status -> {
+                fence(lease);
+                try (ShardRouting.Scope onShard = shardRouter.onShard(shard)) {
+                    return shardTransaction.execute(inner -> work.get());
+                }
+            });
+        }
+    }
+
+    /**
+     * Run a job on at most one instance at a time
+     * @return false if another instance holds the job
+     */
+    public boolean runExclusive(String job, Consumer<Lease> task) {
+        Optional<Lease> lease = tryAcquire(job);
+        if (lease.isEmpty()) {
+            log.debug("Job {} is running on another instance", job);
+            return false;
+        }
+        try {
+            task.accept(lease.get());
+        } finally {
+            release(lease.get(), Duration.ofMillis(ttlMillis));
+        }
+        return true;
+    }
+
+    /**
+     * Run every shard of a job once per run key, spread over the instances that call this.
+     * Each instance claims shards one at a time, starting from its own offset, and skips shards held
+     * by others or already completed for this run key. A failed shard is left for another instance.
+     * @return number of shards completed by this instance
+     */
+    public int runSharded(String job, int shardCount, String runKey, ShardTask task) {
+        int start = Math.floorMod(nodeId.hashCode(), shardCount);
+        int completed = 0;
+        for (int i = 0; i < shardCount; i++) {
+            int shard = (start + i) % shardCount;
+            Optional<Lease> lease = tryAcquire(job + "#" + shard, runKey);
+            if (lease.isEmpty()) {
+                continue;
+            }
+            boolean done = false;
+            try {
+                task.run(shard, shardCount, lease.get());
+                done = true;
+                completed++;
+            } catch (RuntimeException e) {
+                log.error("Shard {} of {} failed; another instance can retry it", shard, job, e);
+            } finally {
+                release(lease.get(), Duration.ZERO, done ? runKey : null);
+            }
+        }
+        if (completed > 0) {
+            log.info("Completed {} of {} shards of {} ({})", completed, shardCount, job, runKey);
+        }
+        return completed;
+    }
+
+    private Optional<Lease> tryAcquire(String name, String runKey) {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp nowTs = Timestamp.valueOf(now);
+        Timestamp expires = Timestamp.valueOf(now.plusNanos(TimeUnit.MILLISECONDS.toNanos(ttlMillis)));
+        long validUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+
+        // The UPDATE holds the row lock until commit, so the token read back is the one we set
+        Long token = new TransactionTemplate(transactionManager).execute(status -> {
+            int updated = runKey == null
+                    ? jdbcTemplate.update(ACQUIRE, nodeId, nowTs, expires, nowTs, name, nowTs, nodeId)
+                    : jdbcTemplate.update(ACQUIRE + NOT_COMPLETED, nodeId, nowTs, expires, nowTs, name, nowTs, nodeId, runKey);
+            if (updated == 0) {
+                return null;
+            }
+            return jdbcTemplate.queryForObject("SELECT fencing_token FROM job_leases WHERE name = ?", Long.class, name);
+        });
+
+        if (token == null) {
+            try {
+                // First use of this lease name
+                jdbcTemplate.update(INSERT, name, nodeId, nowTs, expires, nowTs);
+                token = 1L;
+            } catch (DataIntegrityViolationException e) {
+                // Exists: held by another instance, or completed for this run key
+                return Optional.empty();
+            }
+        }
+
+        Lease lease = new Lease(name, token, validUntil);
+        held.add(lease);
+        return Optional.of(lease);
+    }
+
+    private void release(Lease lease, Duration hold, String completedRun) {
+        held.remove(lease);
+        Timestamp expires = Timestamp.valueOf(LocalDateTime.now().plus(hold));
+        jdbcTemplate.update(RELEASE, expires, completedRun, lease.getName(), nodeId, lease.getFencingToken());
+    }
+
+    private void renewAll() {
+        for (Lease lease : held) {
+            try {
+                LocalDateTime now = LocalDateTime.now();
+                long validUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+                int updated = jdbcTemplate.update(RENEW,
+                        Timestamp.valueOf(now.plusNanos(TimeUnit.MILLISECONDS.toNanos(ttlMillis))),
+                        Timestamp.valueOf(now), lease.getName(), nodeId, lease.getFencingToken());
+                if (updated == 0) {
+                    log.warn("Lease {} was taken over by another instance", lease.getName());
+                    lease.lost();
+                    held.remove(lease);
+                } else {
+                    lease.renewed(validUntil);
+                }
+            } catch (Exception e) {
+                // Keep trying until the lease runs out locally; fencing stops any late writes
+                log.warn("Could not renew lease {}: {}", lease.getName(), e.getMessage());
+            }
+        }
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        // Unique per application context, so several contexts in one JVM act as separate instances
+        return host + "-" + ProcessHandle.current().pid() + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
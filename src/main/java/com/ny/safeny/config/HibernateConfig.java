@@ -0,0 +1,22 @@
+package com.ny.safeny.config;
+
+import com.ny.safeny.monitoring.QueryCountInspector;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hibernate Configuration
+ */
+@Configuration
+public class HibernateConfig {
+
+    /**
+     * Register the per-request statement counter
+     */
+    @Bean
+    public HibernatePropertiesCustomizer queryCountCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new QueryCountInspector());
+    }
+}
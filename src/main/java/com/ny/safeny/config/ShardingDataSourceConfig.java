@@ -0,0 +1,112 @@
+package com.ny.safeny.config;
+
+import com.ny.safeny.datasource.ShardDataSources;
+import com.ny.safeny.datasource.ShardRoutingDataSource;
+import com.ny.safeny.sharding.ShardSchema;
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sharded Data Source Configuration
+ * Active only when sharding is enabled. spring.datasource is shard 0, the home shard, which also
+ * keeps the tables that are not sharded; safeny.sharding.urls adds shards 1..N. Each connection
+ * goes to the shard chosen on the current thread (see ShardRouter). Not combined with the
+ * read replica configuration.
+ */
+@Configuration
+@ConditionalOnProperty(name = "safeny.sharding.enabled", havingValue = "true")
+public class ShardingDataSourceConfig {
+
+    @Value("${safeny.sharding.urls:}")
+    private String[] urls;
+
+    @Value("${safeny.sharding.username:${spring.datasource.username:}}")
+    private String username;
+
+    @Value("${safeny.sharding.password:${spring.datasource.password:}}")
+    private String password;
+
+    @Value("${safeny.sharding.maximum-pool-size:10}")
+    private int poolSize;
+
+    @Value("${safeny.sharding.claim-id-stride:64}")
+    private int claimIdStride;
+
+    @Value("${spring.jpa.hibernate.ddl-auto:none}")
+    private String ddlAuto;
+
+    @Bean(destroyMethod = "close")
+    public ShardDataSources shardDataSources(DataSourceProperties properties) {
+        List<HikariDataSource> pools = new ArrayList<>();
+        HikariDataSource home = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        home.setPoolName("shard-0");
+        pools.add(home);
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource shard = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(url.trim())
+                    .username(username)
+                    .password(password)
+                    .build();
+            shard.setPoolName("shard-" + pools.size());
+            shard.setMaximumPoolSize(poolSize);
+            pools.add(shard);
+        }
+        if (pools.size() > claimIdStride) {
+            throw new IllegalStateException("At most " + claimIdStride + " shards fit the claim id stride");
+        }
+        return new ShardDataSources(pools);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardDataSources shardDataSources) {
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < shardDataSources.count(); shard++) {
+            targets.put(shard, shardDataSources.get(shard));
+        }
+
+        ShardRoutingDataSource routing = new ShardRoutingDataSource();
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(shardDataSources.get(0));
+        routing.afterPropertiesSet();
+
+        // Defer the routing decision until the first statement of the transaction
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Bean
+    public ShardSchema shardSchema(ShardDataSources shardDataSources) {
+        return new ShardSchema(shardDataSources, ddlAuto, claimIdStride);
+    }
+
+    /**
+     * Hand Hibernate's metadata to ShardSchema so the same schema can be applied to every shard
+     */
+    @Bean
+    public HibernatePropertiesCustomizer shardSchemaCustomizer(ShardSchema shardSchema) {
+        return properties -> properties.put("hibernate.integrator_provider",
+                (IntegratorProvider) () -> List.of(shardSchema));
+    }
+}
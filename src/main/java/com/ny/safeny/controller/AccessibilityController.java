@@ -0,0 +1,151 @@
+package com.ny.safeny.controller;
+
+import com.ny.safeny.monitoring.QueryBudget;
+import com.ny.safeny.service.AccessibilityService;
+import com.ny.safeny.service.AccessibilityService.PreparedPayload;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+
+/**
+ * Accessibility metadata for rendering forms. Public, so the registration form can use it too.
+ * Bodies are the byte arrays prepared at startup; a request only picks the representation and
+ * compares ETags. The only statement is the JWT user lookup when a token is sent.
+ */
+@RestController
+@RequestMapping("/accessibility")
+@CrossOrigin(origins = "http://localhost:4200")
+public class AccessibilityController {
+
+    @Autowired
+    private AccessibilityService accessibilityService;
+
+    @Value("${safeny.accessibility.max-age-seconds:86400}")
+    private long maxAgeSeconds;
+
+    private CacheControl cacheControl;
+
+    @PostConstruct
+    void init() {
+        cacheControl = CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePublic();
+    }
+
+    // 1. All Metadata in One Response
+    @GetMapping
+    @QueryBudget(1)
+    public ResponseEntity<byte[]> getAll(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return serve("all", acceptEncoding, ifNoneMatch);
+    }
+
+    // 2. Form ARIA Labels and Error Messages
+    @GetMapping("/forms")
+    @QueryBudget(1)
+    public ResponseEntity<byte[]> getFormMetadata(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return serve("forms", acceptEncoding, ifNoneMatch);
+    }
+
+    // 3. Color Contrast Ratios
+    @GetMapping("/contrast")
+    @QueryBudget(1)
+    public ResponseEntity<byte[]> getContrastRatios(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return serve("contrast", acceptEncoding, ifNoneMatch);
+    }
+
+    // 4. Keyboard Shortcuts
+    @GetMapping("/keyboard-shortcuts")
+    @QueryBudget(1)
+    public ResponseEntity<byte[]> getKeyboardShortcuts(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return serve("keyboardShortcuts", acceptEncoding, ifNoneMatch);
+    }
+
+    // 5. Recommended Font Sizes
+    @GetMapping("/font-sizes")
+    @QueryBudget(1)
+    public ResponseEntity<byte[]> getFontSizes(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return serve("fontSizes", acceptEncoding, ifNoneMatch);
+    }
+
+    private ResponseEntity<byte[]> serve(String name, String acceptEncoding, String ifNoneMatch) {
+        PreparedPayload payload = accessibilityService.getPayload(name);
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String etag = gzip ? payload.gzipEtag() : payload.etag();
+
+        if (ifNoneMatch != null && matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return response.body(payload.gzipped());
+        }
+        return response.body(payload.json());
+    }
+
+    /**
+     * True unless gzip is absent or explicitly refused with q=0
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String token = parts[0].trim();
+            if (token.equalsIgnoreCase("gzip") || token.equals("*")) {
+                for (int i = 1; i < parts.length; i++) {
+                    String param = parts[i].trim().replace(" ", "");
+                    if (param.matches("q=0(\\.0{0,3})?")) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * If-None-Match uses weak comparison, so a W/ prefix still matches
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,67 @@
+package com.ny.safeny.controller;
+
+import com.ny.safeny.analytics.AnalyticsQuery;
+import com.ny.safeny.analytics.AnalyticsQuery.GroupBy;
+import com.ny.safeny.analytics.AnalyticsResult;
+import com.ny.safeny.analytics.ClaimAnalyticsService;
+import com.ny.safeny.model.Claim.ClaimStatus;
+import com.ny.safeny.monitoring.QueryBudget;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+
+@RestController
+@RequestMapping("/analytics")
+@CrossOrigin(origins = "http://localhost:4200")
+public class AnalyticsController {
+
+    @Autowired
+    private ClaimAnalyticsService claimAnalyticsService;
+
+    // 1. Claim Analytics Query (Admin)
+    @GetMapping("/claims")
+    @PreAuthorize("hasRole('ADMIN')")
+    // Only the token's user lookup; the query runs over the in-memory snapshot
+    @QueryBudget(1)
+    public ResponseEntity<AnalyticsResult> queryClaims(
+            @RequestParam(required = false) List<ClaimStatus> status,
+            @RequestParam(required = false) List<String> disasterType,
+            @RequestParam(required = false) List<String> location,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(required = false) Integer sinceDays,
+            @RequestParam(defaultValue = "NONE") GroupBy groupBy) {
+        AnalyticsQuery query = new AnalyticsQuery(
+                status != null && !status.isEmpty() ? EnumSet.copyOf(status) : null,
+                disasterType != null ? new HashSet<>(disasterType) : null,
+                location != null ? new HashSet<>(location) : null,
+                toCents(minAmount),
+                toCents(maxAmount),
+                sinceDays != null ? Instant.now().minus(Duration.ofDays(sinceDays)) : null,
+                null,
+                groupBy);
+        return ResponseEntity.ok(claimAnalyticsService.query(query));
+    }
+
+    // 2. Rebuild Analytics Snapshot (Admin)
+    @PostMapping("/refresh")
+    @PreAuthorize("hasRole('ADMIN')")
+    @QueryBudget(1)
+    public ResponseEntity<Void> refresh() {
+        claimAnalyticsService.rebuild();
+        return ResponseEntity.noContent().build();
+    }
+
+    private static Long toCents(BigDecimal amount) {
+        return amount != null ? amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact() : null;
+    }
+}
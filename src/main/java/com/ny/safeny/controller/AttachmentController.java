@@ -0,0 +1,207 @@
+package com.ny.safeny.controller;
+
+import com.ny.safeny.model.AttachmentUpload;
+import com.ny.safeny.model.ClaimAttachment;
+import com.ny.safeny.monitoring.QueryBudget;
+import com.ny.safeny.service.AttachmentService;
+import com.ny.safeny.service.AttachmentService.TransferLimitException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/claims/{claimId}/attachments")
+@CrossOrigin(origins = "http://localhost:4200")
+public class AttachmentController {
+
+    /** Offset the chunk in the request body starts at */
+    static final String UPLOAD_OFFSET = "Upload-Offset";
+
+    @Autowired
+    private AttachmentService attachmentService;
+
+    // 1. Start Resumable Upload (User)
+    @PostMapping("/uploads")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    @QueryBudget(4)
+    public ResponseEntity<?> startUpload(@PathVariable Long claimId, @RequestBody Map<String, Object> body,
+            Authentication authentication) {
+        Object size = body.get("size");
+        if (size == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "size is required"));
+        }
+        try {
+            AttachmentUpload upload = attachmentService.startUpload(claimId, authentication.getName(),
+                    (String) body.get("fileName"), (String) body.get("contentType"), Long.parseLong(size.toString()));
+            return ResponseEntity.status(HttpStatus.CREATED).body(upload);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+    }
+
+    // 2. Upload Status, the offset to resume from (User)
+    @GetMapping("/uploads/{uploadId}")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    @QueryBudget(2)
+    public ResponseEntity<AttachmentUpload> getUpload(@PathVariable Long claimId, @PathVariable String uploadId,
+            Authentication authentication) {
+        try {
+            return ResponseEntity.ok(attachmentService.getUpload(claimId, uploadId, authentication.getName()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+    }
+
+    // 3. Upload Chunk: raw bytes in the body, starting at Upload-Offset (User)
+    @PutMapping("/uploads/{uploadId}")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    @QueryBudget(6)
+    public ResponseEntity<?> uploadChunk(@PathVariable Long claimId, @PathVariable String uploadId,
+            @RequestHeader(UPLOAD_OFFSET) long offset, HttpServletRequest request, Authentication authentication) {
+        String username = authentication.getName();
+        try {
+            ClaimAttachment attachment = attachmentService.appendChunk(claimId, uploadId, username, offset,
+                    request.getInputStream());
+            if (attachment != null) {
+                return ResponseEntity.status(HttpStatus.CREATED).body(attachment);
+            }
+            return ResponseEntity.ok(attachmentService.getUpload(claimId, uploadId, username));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (TransferLimitException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("error", e.getMessage()));
+        } catch (IOException | UncheckedIOException e) {
+            // The client resumes from the last recorded offset
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+    }
+
+    // 4. List Attachments of a Claim (User)
+    @GetMapping
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    @QueryBudget(4)
+    public ResponseEntity<List<ClaimAttachment>> getAttachments(@PathVariable Long claimId, Authentication authentication) {
+        try {
+            return ResponseEntity.ok(attachmentService.getAttachments(claimId, authentication.getName()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+    }
+
+    // 5. Download Attachment, with single Range support (User)
+    @GetMapping("/{attachmentId}")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    @QueryBudget(4)
+    public void download(@PathVariable Long claimId, @PathVariable Long attachmentId,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            Authentication authentication, HttpServletResponse response) throws IOException {
+        ClaimAttachment attachment;
+        try {
+            attachment = attachmentService.getAttachment(claimId, attachmentId, authentication.getName());
+        } catch (RuntimeException e) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+
+        // Content-addressed, so the hash is a strong validator
+        String etag = "\"" + attachment.getSha256() + "\"";
+        long size = attachment.getSizeBytes();
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=86400");
+        if (etag.equals(ifNoneMatch)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        long start = 0;
+        long length = size;
+        if (range != null && (ifRange == null || etag.equals(ifRange))) {
+            long[] bounds = parseRange(range, size);
+            if (bounds == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return;
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                length = bounds[1] - bounds[0] + 1;
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + bounds[0] + "-" + bounds[1] + "/" + size);
+            }
+        }
+
+        response.setContentType(attachment.getContentType());
+        response.setContentLengthLong(length);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(attachment.getFileName(), StandardCharsets.UTF_8).build().toString());
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        try {
+            attachmentService.transfer(attachment, start, length, Channels.newChannel(response.getOutputStream()));
+        } catch (TransferLimitException e) {
+            response.reset();
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        }
+    }
+
+    /**
+     * Parses a single "bytes=" range against the file size.
+     * @return {first, last} inclusive, an empty array to serve the whole file, or null if unsatisfiable
+     */
+    static long[] parseRange(String header, long size) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            // Multiple ranges are not worth a multipart response here; a full response is allowed
+            return new long[0];
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                // Suffix range: the final N bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return null;
+                }
+                return new long[]{Math.max(0, size - suffix), size - 1};
+            }
+            long from = Long.parseLong(first);
+            long to = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+            if (from >= size || from > to) {
+                return null;
+            }
+            return new long[]{from, to};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+}
@@ -3,67 +3,85 @@ package com.ny.safeny.controller;
 import com.ny.safeny.dto.AuthRequest;
 import com.ny.safeny.dto.AuthResponse;
 import com.ny.safeny.dto.RegisterRequest;
+import com.ny.safeny.monitoring.QueryBudget;
+import com.ny.safeny.ratelimit.RateLimitFilter;
+import com.ny.safeny.ratelimit.RateLimitService;
+import com.ny.safeny.registration.AccountAvailability;
 import com.ny.safeny.service.AuthService;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/auth")
 @CrossOrigin(origins = "http://localhost:4200")
+@Slf4j
 public class AuthController {
 
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private RateLimitService rateLimitService;
+
+    @Autowired
+    private AccountAvailability accountAvailability;
+
     @PostMapping("/login")
     public ResponseEntity<?> login(@Valid @RequestBody AuthRequest request) {
-        try {
-            System.out.println("=== Login Request ===");
-            System.out.println("Username: " + request.getUsername());
-            
-            AuthResponse response = authService.login(request);
-            
-            System.out.println("Login successful! Token: " + response.getToken().substring(0, 20) + "...");
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            System.err.println("Login error: " + e.getMessage());
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                .body("{\"error\":\"" + e.getMessage() + "\"}");
+        // Per-account limit is checked here, before any BCrypt work (per-IP limit runs in RateLimitFilter)
+        long wait = rateLimitService.checkLoginByUsername(request.getUsername());
+        if (wait > 0) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(RateLimitFilter.retryAfterSeconds(wait)))
+                .body(Map.of("error", "Too many login attempts"));
         }
+        
+        // Failed authentication is answered with 401 by GlobalExceptionHandler
+        log.debug("Login request for {}", request.getUsername());
+        
+        AuthResponse response = authService.login(request);
+        
+        log.debug("Login succeeded for {}", response.getUsername());
+        return ResponseEntity.ok(response);
     }
 
     @PostMapping("/register")
     public ResponseEntity<?> register(@Valid @RequestBody RegisterRequest request) {
-        try {
-            System.out.println("=== Registration Request ===");
-            System.out.println("Username: " + request.getUsername());
-            System.out.println("Full Name: " + request.getFullName());
-            System.out.println("Email: " + request.getEmail());
-            System.out.println("Phone: " + request.getPhone());
-            
-            AuthResponse response = authService.register(request);
-            
-            System.out.println("=== Registration Successful ===");
-            System.out.println("Username: " + response.getUsername());
-            System.out.println("Token: " + response.getToken().substring(0, 20) + "...");
-            System.out.println("Returning response to client...");
-            
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
-        } catch (RuntimeException e) {
-            System.err.println("Registration error (RuntimeException): " + e.getMessage());
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                .body("{\"error\":\"" + e.getMessage() + "\"}");
-        } catch (Exception e) {
-            System.err.println("Unexpected registration error: " + e.getMessage());
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body("{\"error\":\"" + e.getMessage() + "\"}");
+        log.debug("Registration request for {}", request.getUsername());
+        
+        AuthResponse response = authService.register(request);
+        
+        log.info("Registered {}", response.getUsername());
+        
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @GetMapping("/availability")
+    @QueryBudget(2)
+    public ResponseEntity<?> availability(@RequestParam(required = false) String username,
+                                          @RequestParam(required = false) String email) {
+        if ((username == null || username.isBlank()) && (email == null || email.isBlank())) {
+            return ResponseEntity.badRequest().body(Map.of("error", "username or email is required"));
+        }
+        // Per-IP limit runs in RateLimitFilter; most answers come from the Bloom filter without a query
+        Map<String, Boolean> available = new LinkedHashMap<>();
+        if (username != null && !username.isBlank()) {
+            available.put("username", accountAvailability.isUsernameAvailable(username));
+        }
+        if (email != null && !email.isBlank()) {
+            available.put("email", accountAvailability.isEmailAvailable(email));
         }
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.noStore())
+            .body(available);
     }
 }
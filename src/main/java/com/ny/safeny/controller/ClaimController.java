@@ -1,15 +1,25 @@
 package com.ny.safeny.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ny.safeny.audit.ClaimAuditLog;
+import com.ny.safeny.idempotency.IdempotencyStore;
 import com.ny.safeny.model.Claim;
+import com.ny.safeny.monitoring.QueryBudget;
 import com.ny.safeny.service.ClaimService;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
@@ -17,141 +27,126 @@ import java.util.Map;
 @RestController
 @RequestMapping("/claims")
 @CrossOrigin(origins = "http://localhost:4200", allowedHeaders = "*", methods = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE, RequestMethod.OPTIONS})
+@Slf4j
 public class ClaimController {
 
     @Autowired
     private ClaimService claimService;
 
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private ClaimAuditLog claimAuditLog;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     // 1. Submit Claim (User)
 @PostMapping
 @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-public ResponseEntity<Claim> createClaim(@Valid @RequestBody Claim claim, Authentication authentication) {
-    try {
-        System.out.println("=== Create Claim Request ===");
-        System.out.println("User: " + authentication.getName());
-        System.out.println("Disaster Type: " + claim.getDisasterType());
-        System.out.println("Incident Date: " + claim.getIncidentDate());
-        System.out.println("Location: " + claim.getLocation());
-        System.out.println("Description: " + claim.getDescription());
-        System.out.println("Request Amount: " + claim.getRequestAmount());
-        
+@QueryBudget(3)
+public ResponseEntity<Claim> createClaim(@Valid @RequestBody Claim claim,
+        @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+        Authentication authentication) {
+    return idempotencyStore.execute(authentication.getName(), "POST /claims", idempotencyKey, claim, () -> {
+        // Guarded: more than two arguments would allocate the varargs array even with DEBUG off
+        if (log.isDebugEnabled()) {
+            log.debug("Create claim request: user={} disasterType={} incidentDate={} location={} requestAmount={}",
+                    authentication.getName(), claim.getDisasterType(), claim.getIncidentDate(), claim.getLocation(),
+                    claim.getRequestAmount());
+        }
+    
         String username = authentication.getName();
         Claim createdClaim = claimService.createClaim(claim, username);
-        
-        System.out.println("=== Claim Created Successfully ===");
-        System.out.println("Claim ID: " + createdClaim.getId());
-        
+    
+        log.info("Claim {} created by {}", createdClaim.getId(), username);
+    
         return new ResponseEntity<>(createdClaim, HttpStatus.CREATED);
-    } catch (Exception e) {
-        System.err.println("Error creating claim: " + e.getMessage());
-        e.printStackTrace();
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-    }
+    });
 }
 
     // 2. Get My Claims (User)
     @GetMapping("/my-claims")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    @QueryBudget(4)
     public ResponseEntity<List<Claim>> getMyClaims(Authentication authentication) {
-        try {
-            String username = authentication.getName();
-            List<Claim> claims = claimService.getClaimsByUsername(username);
-            return ResponseEntity.ok(claims);
-        } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        String username = authentication.getName();
+        List<Claim> claims = claimService.getClaimsByUsername(username);
+        return ResponseEntity.ok(claims);
     }
 
-    // 3. Get All Claims (Admin)
+    // 3. Get All Claims, newest first; size 0 returns all (Admin)
     @GetMapping("/all")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<Claim>> getAllClaims() {
-        try {
-            List<Claim> claims = claimService.getAllClaims();
-            return ResponseEntity.ok(claims);
-        } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+    @QueryBudget(2)
+    public ResponseEntity<List<Claim>> getAllClaims(@RequestParam(defaultValue = "0") int page,
+                                                    @RequestParam(defaultValue = "0") int size) {
+        List<Claim> claims = claimService.getAllClaims(page, size);
+        return ResponseEntity.ok(claims);
     }
 
-    // 4. Get Pending Claims (Admin)
+    // 4. Get Pending Claims, oldest first; size 0 returns all (Admin)
     @GetMapping("/pending")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<Claim>> getPendingClaims() {
-        try {
-            List<Claim> pendingClaims = claimService.getPendingClaims();
-            return ResponseEntity.ok(pendingClaims);
-        } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+    @QueryBudget(2)
+    public ResponseEntity<List<Claim>> getPendingClaims(@RequestParam(defaultValue = "0") int page,
+                                                        @RequestParam(defaultValue = "0") int size) {
+        List<Claim> pendingClaims = claimService.getPendingClaims(page, size);
+        return ResponseEntity.ok(pendingClaims);
     }
 
     // 5. Get Claim by ID
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    @QueryBudget(3)
     public ResponseEntity<Claim> getClaimById(@PathVariable Long id, Authentication authentication) {
-        try {
-            String username = authentication.getName();
-            Claim claim = claimService.getClaimById(id, username);
-            return ResponseEntity.ok(claim);
-        } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
-        }
+        String username = authentication.getName();
+        Claim claim = claimService.getClaimById(id, username);
+        return ResponseEntity.ok(claim);
     }
 
     // 6. Update Claim (User - only PENDING claims)
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    @QueryBudget(4)
     public ResponseEntity<Claim> updateClaim(@PathVariable Long id, @Valid @RequestBody Claim claim, Authentication authentication) {
-        try {
-            String username = authentication.getName();
-            Claim updatedClaim = claimService.updateClaim(id, claim, username);
-            return ResponseEntity.ok(updatedClaim);
-        } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        String username = authentication.getName();
+        Claim updatedClaim = claimService.updateClaim(id, claim, username);
+        return ResponseEntity.ok(updatedClaim);
     }
 
     // 7. Delete Claim (User - only PENDING claims)
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    // User, claim and its owner, then the attachment rows and the claim itself
+    @QueryBudget(5)
     public ResponseEntity<Void> deleteClaim(@PathVariable Long id, Authentication authentication) {
-        try {
-            String username = authentication.getName();
-            claimService.deleteClaim(id, username);
-            return ResponseEntity.noContent().build();
-        } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        String username = authentication.getName();
+        claimService.deleteClaim(id, username);
+        return ResponseEntity.noContent().build();
     }
 
     // 8. Get Statistics (Admin)
     @GetMapping("/statistics")
     @PreAuthorize("hasRole('ADMIN')")
+    @QueryBudget(7)
     public ResponseEntity<Map<String, Long>> getStatistics() {
-        try {
-            Map<String, Long> stats = claimService.getStatistics();
-            return ResponseEntity.ok(stats);
-        } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        Map<String, Long> stats = claimService.getStatistics();
+        return ResponseEntity.ok(stats);
     }
 
     // 9. Approve Claim (Admin)
     @PostMapping("/{id}/approve")
     @PreAuthorize("hasRole('ADMIN')")
+    // User, claim and its owner, email and SMS outbox rows, then the claim update
+    @QueryBudget(6)
     public ResponseEntity<Claim> approveClaim(
             @PathVariable Long id,
             @RequestBody Map<String, Object> body,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
             Authentication authentication) {
-        try {
+        return idempotencyStore.execute(authentication.getName(), "POST /claims/" + id + "/approve", idempotencyKey, body, () -> {
             String adminUsername = authentication.getName();
             String reviewComments = (String) body.get("reviewComments");
             BigDecimal approvedAmount = body.get("approvedAmount") != null 
@@ -160,42 +155,64 @@ public ResponseEntity<Claim> createClaim(@Valid @RequestBody Claim claim, Authen
             
             Claim approvedClaim = claimService.approveClaim(id, adminUsername, reviewComments, approvedAmount);
             return ResponseEntity.ok(approvedClaim);
-        } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        });
     }
 
     // 10. Reject Claim (Admin)
     @PostMapping("/{id}/reject")
     @PreAuthorize("hasRole('ADMIN')")
+    @QueryBudget(6)
     public ResponseEntity<Claim> rejectClaim(
             @PathVariable Long id,
             @RequestBody Map<String, String> body,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
             Authentication authentication) {
-        try {
+        return idempotencyStore.execute(authentication.getName(), "POST /claims/" + id + "/reject", idempotencyKey, body, () -> {
             String adminUsername = authentication.getName();
             String reviewComments = body.get("reviewComments");
             
             Claim rejectedClaim = claimService.rejectClaim(id, adminUsername, reviewComments);
             return ResponseEntity.ok(rejectedClaim);
-        } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        });
     }
 
     // 11. Update Status (Admin - generic status update)
     @PutMapping("/{id}/status")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Claim> updateStatus(@PathVariable Long id, @RequestBody Map<String, String> body) {
-        try {
+    @QueryBudget(6)
+    public ResponseEntity<Claim> updateStatus(
+            @PathVariable Long id,
+            @RequestBody Map<String, String> body,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+            Authentication authentication) {
+        return idempotencyStore.execute(authentication.getName(), "PUT /claims/" + id + "/status", idempotencyKey, body, () -> {
             String status = body.get("status");
-            Claim updatedClaim = claimService.updateStatus(id, status);
+            Claim updatedClaim = claimService.updateStatus(id, status, authentication.getName());
             return ResponseEntity.ok(updatedClaim);
-        } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        });
+    }
+
+    // 12. Claim State History (owner or Admin)
+    @GetMapping("/{id}/history")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    @QueryBudget(3)
+    public ResponseEntity<StreamingResponseBody> getClaimHistory(@PathVariable Long id, Authentication authentication) {
+        // Same access rules as viewing the claim itself
+        claimService.getClaimById(id, authentication.getName());
+
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartArray();
+                claimAuditLog.readHistory(id, record -> {
+                    try {
+                        objectMapper.writeValue(generator, record);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.ny.safeny.controller;
+
+import com.ny.safeny.cluster.LeaseManager;
+import com.ny.safeny.monitoring.QueryBudget;
+import com.ny.safeny.repository.JobLeaseRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/cluster")
+@CrossOrigin(origins = "http://localhost:4200")
+public class ClusterController {
+
+    @Autowired
+    private LeaseManager leaseManager;
+
+    @Autowired
+    private JobLeaseRepository jobLeaseRepository;
+
+    // 1. Job Leases and Owners (Admin)
+    @GetMapping("/leases")
+    @PreAuthorize("hasRole('ADMIN')")
+    @QueryBudget(2)
+    public ResponseEntity<Map<String, Object>> getLeases() {
+        return ResponseEntity.ok(Map.of(
+                "node", leaseManager.getNodeId(),
+                "leases", jobLeaseRepository.findAllByOrderByNameAsc()));
+    }
+}
@@ -0,0 +1,36 @@
+package com.ny.safeny.controller;
+
+import com.ny.safeny.monitoring.QueryBudget;
+import com.ny.safeny.service.DashboardService;
+import com.ny.safeny.service.DashboardService.Dashboard;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/dashboard")
+@CrossOrigin(origins = "http://localhost:4200")
+public class DashboardController {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    // 1. Admin Dashboard Bootstrap
+    // Sub-queries run on the dashboard pool and count against this budget: statistics, two pages, funds
+    @GetMapping("/admin")
+    @PreAuthorize("hasRole('ADMIN')")
+    @QueryBudget(11)
+    public ResponseEntity<Dashboard> getAdminDashboard() {
+        return ResponseEntity.ok(dashboardService.adminDashboard());
+    }
+
+    // 2. Citizen Dashboard Bootstrap
+    @GetMapping("/citizen")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    @QueryBudget(4)
+    public ResponseEntity<Dashboard> getCitizenDashboard(Authentication authentication) {
+        return ResponseEntity.ok(dashboardService.citizenDashboard(authentication.getName()));
+    }
+}
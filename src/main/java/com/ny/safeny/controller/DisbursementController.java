@@ -0,0 +1,85 @@
+package com.ny.safeny.controller;
+
+import com.ny.safeny.model.PaymentRun;
+import com.ny.safeny.monitoring.QueryBudget;
+import com.ny.safeny.service.DisbursementService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/disbursements")
+@CrossOrigin(origins = "http://localhost:4200")
+public class DisbursementController {
+
+    @Autowired
+    private DisbursementService disbursementService;
+
+    // 1. Start Payment Run (Admin)
+    @PostMapping("/runs")
+    @PreAuthorize("hasRole('ADMIN')")
+    // User, the unfinished-run check, then the new run
+    @QueryBudget(3)
+    public ResponseEntity<?> startRun(Authentication authentication) {
+        try {
+            PaymentRun run = disbursementService.startRun(authentication.getName());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(run);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // 2. Resume Payment Run (Admin)
+    @PostMapping("/runs/{id}/resume")
+    @PreAuthorize("hasRole('ADMIN')")
+    @QueryBudget(2)
+    public ResponseEntity<?> resumeRun(@PathVariable Long id) {
+        try {
+            PaymentRun run = disbursementService.resumeRun(id);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(run);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // 3. Recent Payment Runs (Admin)
+    @GetMapping("/runs")
+    @PreAuthorize("hasRole('ADMIN')")
+    @QueryBudget(2)
+    public ResponseEntity<List<PaymentRun>> getRecentRuns() {
+        return ResponseEntity.ok(disbursementService.getRecentRuns());
+    }
+
+    // 4. Payment Run Status (Admin)
+    @GetMapping("/runs/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @QueryBudget(2)
+    public ResponseEntity<PaymentRun> getRun(@PathVariable Long id) {
+        return disbursementService.getRun(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+    }
+
+    // 5. Download Payment File (Admin)
+    @GetMapping("/runs/{id}/file")
+    @PreAuthorize("hasRole('ADMIN')")
+    @QueryBudget(2)
+    public ResponseEntity<Resource> getPaymentFile(@PathVariable Long id) {
+        return disbursementService.getPaymentFile(id)
+                .map(path -> ResponseEntity.ok()
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + path.getFileName() + "\"")
+                        .body((Resource) new FileSystemResource(path)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+    }
+}
@@ -0,0 +1,56 @@
+package com.ny.safeny.controller;
+
+import com.ny.safeny.ledger.FundLedger;
+import com.ny.safeny.ledger.FundLedger.FundBalance;
+import com.ny.safeny.monitoring.QueryBudget;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/funds")
+@CrossOrigin(origins = "http://localhost:4200")
+public class FundController {
+
+    @Autowired
+    private FundLedger fundLedger;
+
+    // 1. Fund Balances (Admin)
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    // Only the token's user lookup; balances come from the in-memory ledger
+    @QueryBudget(1)
+    public ResponseEntity<List<FundBalance>> getBalances() {
+        return ResponseEntity.ok(fundLedger.getBalances());
+    }
+
+    // 2. Set Fund Budget (Admin)
+    @PutMapping("/{disasterType}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @QueryBudget(3)
+    public ResponseEntity<?> setBudget(@PathVariable String disasterType, @RequestBody Map<String, Object> body) {
+        Object budget = body.get("budget");
+        if (budget == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "budget is required"));
+        }
+        long budgetCents = FundLedger.toCents(new BigDecimal(budget.toString()));
+        if (budgetCents < 0) {
+            return ResponseEntity.badRequest().body(Map.of("error", "budget must not be negative"));
+        }
+        return ResponseEntity.ok(fundLedger.setBudget(disasterType, budgetCents));
+    }
+
+    // 3. Reconcile Funds Against Claims (Admin)
+    @PostMapping("/reconcile")
+    @PreAuthorize("hasRole('ADMIN')")
+    @QueryBudget(1)
+    public ResponseEntity<List<FundBalance>> reconcile() {
+        fundLedger.reconcile();
+        return ResponseEntity.ok(fundLedger.getBalances());
+    }
+}
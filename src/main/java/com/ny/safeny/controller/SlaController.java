@@ -0,0 +1,46 @@
+package com.ny.safeny.controller;
+
+import com.ny.safeny.escalation.ClaimEscalationScheduler;
+import com.ny.safeny.model.ClaimEscalation;
+import com.ny.safeny.monitoring.QueryBudget;
+import com.ny.safeny.sla.SlaStage;
+import com.ny.safeny.sla.SlaTracker;
+import com.ny.safeny.sla.SlaTracker.SlaReport;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/sla")
+@CrossOrigin(origins = "http://localhost:4200")
+public class SlaController {
+
+    @Autowired
+    private SlaTracker slaTracker;
+
+    @Autowired
+    private ClaimEscalationScheduler escalationScheduler;
+
+    // 1. Time-in-State Percentiles (Admin)
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    // Only the token's user lookup; percentiles come from the in-memory sketches
+    @QueryBudget(1)
+    public ResponseEntity<SlaReport> getReport(
+            @RequestParam(defaultValue = "DECISION") SlaStage stage,
+            @RequestParam(defaultValue = "30") int days,
+            @RequestParam(required = false) String disasterType) {
+        return ResponseEntity.ok(slaTracker.report(stage, days, disasterType));
+    }
+
+    // 2. Recent Escalations of Stale Pending and Under-Review Claims (Admin)
+    @GetMapping("/escalations")
+    @PreAuthorize("hasRole('ADMIN')")
+    @QueryBudget(2)
+    public ResponseEntity<List<ClaimEscalation>> getEscalations(@RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(escalationScheduler.recentEscalations(limit));
+    }
+}
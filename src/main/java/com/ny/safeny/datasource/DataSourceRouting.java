@@ -0,0 +1,67 @@
+package com.ny.safeny.datasource;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Data Source Routing
+ * Decides whether the current thread's next physical connection comes from the primary
+ * or the replica pool. The replica is opt-in: a read-only transaction goes there only inside a
+ * {@link #replicaUnless(boolean)} scope, opened by reads that tolerate replication lag, and only
+ * while no caller has pinned the thread to the primary (read-your-writes). Everything else,
+ * including Spring Data's read-only finders, reads the primary.
+ */
+public final class DataSourceRouting {
+
+    public enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private static final ThreadLocal<Integer> PRIMARY_PINS = new ThreadLocal<>();
+    private static final ThreadLocal<Integer> REPLICA_READS = new ThreadLocal<>();
+
+    private static final Scope NO_OP = () -> {};
+
+    private DataSourceRouting() {}
+
+    public static Target currentTarget() {
+        if (PRIMARY_PINS.get() != null) {
+            return Target.PRIMARY;
+        }
+        return REPLICA_READS.get() != null && TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                ? Target.REPLICA : Target.PRIMARY;
+    }
+
+    /**
+     * Pin reads on this thread to the primary until the returned scope is closed
+     */
+    public static Scope primaryIf(boolean condition) {
+        return condition ? enter(PRIMARY_PINS) : NO_OP;
+    }
+
+    /**
+     * Let read-only transactions on this thread use the replica until the returned scope is
+     * closed, unless {@code primary} says the caller must see its own recent writes
+     */
+    public static Scope replicaUnless(boolean primary) {
+        return primary ? NO_OP : enter(REPLICA_READS);
+    }
+
+    private static Scope enter(ThreadLocal<Integer> depth) {
+        Integer current = depth.get();
+        depth.set(current == null ? 1 : current + 1);
+        return () -> {
+            Integer open = depth.get();
+            if (open == null || open <= 1) {
+                depth.remove();
+            } else {
+                depth.set(open - 1);
+            }
+        };
+    }
+
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,125 @@
+package com.ny.safeny.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * H2 Replica Sync
+ * Stands in for replication on the h2-replica profile, where the replica is a second in-memory
+ * database. Once Hibernate has created the primary's schema, the schema is scripted onto the
+ * replica; after that every table's rows are copied over in one replica transaction per interval,
+ * so replica reads lag the primary by up to the interval, as they would behind real replication.
+ */
+@Component
+@ConditionalOnProperty(name = "safeny.datasource.replica.h2-sync-interval-ms")
+@Slf4j
+public class H2ReplicaSync implements SmartInitializingSingleton {
+
+    private static final String TABLES = "SELECT table_name FROM information_schema.tables "
+            + "WHERE table_schema = 'PUBLIC' AND table_type = 'BASE TABLE'";
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Value("${safeny.datasource.replica.url}")
+    private String replicaUrl;
+
+    @Value("${safeny.datasource.replica.username:${spring.datasource.username:}}")
+    private String replicaUsername;
+
+    @Value("${safeny.datasource.replica.password:${spring.datasource.password:}}")
+    private String replicaPassword;
+
+    /**
+     * Runs once every singleton exists, after Hibernate created the schema and before any runner reads
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<String> schema = new JdbcTemplate(primaryDataSource).queryForList("SCRIPT NODATA", String.class);
+        try (Connection replica = replica(); Statement statement = replica.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            for (String ddl : schema) {
+                statement.execute(ddl);
+            }
+            // The primary already enforced the constraints; tables are copied in any order
+            statement.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not create the replica schema", e);
+        }
+        sync();
+        log.info("H2 replica at {} follows the primary", replicaUrl);
+    }
+
+    /**
+     * Replace the replica's rows with the primary's, in one transaction so readers never see a partial copy
+     */
+    @Scheduled(fixedDelayString = "${safeny.datasource.replica.h2-sync-interval-ms}",
+            initialDelayString = "${safeny.datasource.replica.h2-sync-interval-ms}")
+    public synchronized void sync() {
+        JdbcTemplate primary = new JdbcTemplate(primaryDataSource);
+        try (Connection replica = replica()) {
+            replica.setAutoCommit(false);
+            Set<String> replicated = new HashSet<>();
+            try (Statement statement = replica.createStatement(); ResultSet tables = statement.executeQuery(TABLES)) {
+                while (tables.next()) {
+                    replicated.add(tables.getString(1));
+                }
+            }
+            for (String table : primary.queryForList(TABLES, String.class)) {
+                // Tables created on the primary after startup reach the replica on the next restart
+                if (replicated.contains(table)) {
+                    copy(primary, replica, table);
+                }
+            }
+            replica.commit();
+        } catch (SQLException | RuntimeException e) {
+            log.warn("H2 replica sync failed, retrying next interval: {}", e.getMessage());
+        }
+    }
+
+    private void copy(JdbcTemplate primary, Connection replica, String table) throws SQLException {
+        String quoted = "\"" + table + "\"";
+        try (Statement statement = replica.createStatement()) {
+            statement.executeUpdate("DELETE FROM " + quoted);
+        }
+        primary.query("SELECT * FROM " + quoted, (ResultSetExtractor<Void>) rows -> {
+            int columns = rows.getMetaData().getColumnCount();
+            String insert = "INSERT INTO " + quoted + " VALUES (" + String.join(", ", Collections.nCopies(columns, "?")) + ")";
+            try (PreparedStatement statement = replica.prepareStatement(insert)) {
+                while (rows.next()) {
+                    for (int column = 1; column <= columns; column++) {
+                        statement.setObject(column, rows.getObject(column));
+                    }
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+            return null;
+        });
+    }
+
+    private Connection replica() throws SQLException {
+        return DriverManager.getConnection(replicaUrl, replicaUsername, replicaPassword);
+    }
+}
@@ -0,0 +1,16 @@
+package com.ny.safeny.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Routes each physical connection to the primary or replica pool.
+ * Must be wrapped in a LazyConnectionDataSourceProxy so the lookup happens at the first
+ * statement, after the transaction's read-only flag is known.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return DataSourceRouting.currentTarget();
+    }
+}
@@ -0,0 +1,53 @@
+package com.ny.safeny.datasource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replica Consistency Tracker
+ * Remembers users who changed claim data recently so their reads stay on the primary
+ * until the replica has had time to catch up.
+ */
+@Component
+public class ReplicaConsistencyTracker {
+
+    private static final int MAX_TRACKED_USERS = 100_000;
+
+    @Value("${safeny.datasource.replica.read-your-writes-ms:5000}")
+    private long windowMillis;
+
+    private final ConcurrentHashMap<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    /**
+     * Record that the user's data was just written on the primary
+     */
+    public void recordWrite(String username) {
+        if (username == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (lastWrites.size() >= MAX_TRACKED_USERS) {
+            long window = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+            lastWrites.values().removeIf(writtenAt -> now - writtenAt > window);
+        }
+        lastWrites.put(username, now);
+    }
+
+    /**
+     * Whether the user's reads must go to the primary
+     */
+    public boolean requiresPrimary(String username) {
+        Long writtenAt = username != null ? lastWrites.get(username) : null;
+        if (writtenAt == null) {
+            return false;
+        }
+        if (System.nanoTime() - writtenAt <= TimeUnit.MILLISECONDS.toNanos(windowMillis)) {
+            return true;
+        }
+        lastWrites.remove(username, writtenAt);
+        return false;
+    }
+}
@@ -0,0 +1,34 @@
+package com.ny.safeny.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.util.List;
+
+/**
+ * The physical shard pools, by shard number. Shard 0 is the home shard.
+ */
+public class ShardDataSources implements AutoCloseable {
+
+    private final List<HikariDataSource> pools;
+
+    public ShardDataSources(List<HikariDataSource> pools) {
+        this.pools = List.copyOf(pools);
+    }
+
+    public int count() {
+        return pools.size();
+    }
+
+    public HikariDataSource get(int shard) {
+        return pools.get(shard);
+    }
+
+    public List<HikariDataSource> all() {
+        return pools;
+    }
+
+    @Override
+    public void close() {
+        pools.forEach(HikariDataSource::close);
+    }
+}
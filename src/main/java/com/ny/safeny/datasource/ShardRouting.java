@@ -0,0 +1,50 @@
+package com.ny.safeny.datasource;
+
+/**
+ * Shard Routing
+ * Holds the shard the current thread's next physical connection comes from. Unset means the
+ * home shard (spring.datasource), which also holds the tables that are not sharded.
+ *
+ * Like {@link DataSourceRouting}, the shard is read when a transaction runs its first statement,
+ * so it must be set before then and not changed until the transaction ends.
+ */
+public final class ShardRouting {
+
+    public static final int HOME = 0;
+
+    private static final ThreadLocal<Integer> SHARD = new ThreadLocal<>();
+
+    private static final Scope NO_OP = () -> {};
+
+    private ShardRouting() {}
+
+    public static int currentShard() {
+        Integer shard = SHARD.get();
+        return shard != null ? shard : HOME;
+    }
+
+    /**
+     * Route this thread to the shard until the returned scope is closed
+     */
+    public static Scope on(int shard) {
+        Integer previous = SHARD.get();
+        SHARD.set(shard);
+        return () -> {
+            if (previous == null) {
+                SHARD.remove();
+            } else {
+                SHARD.set(previous);
+            }
+        };
+    }
+
+    public static Scope none() {
+        return NO_OP;
+    }
+
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
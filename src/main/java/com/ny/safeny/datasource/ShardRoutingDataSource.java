@@ -0,0 +1,16 @@
+package com.ny.safeny.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Routes each physical connection to the current thread's shard pool.
+ * Must be wrapped in a LazyConnectionDataSourceProxy so the lookup happens at the first
+ * statement, after the service has chosen the shard.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardRouting.currentShard();
+    }
+}
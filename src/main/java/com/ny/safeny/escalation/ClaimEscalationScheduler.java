@@ -0,0 +1,306 @@
+package com.ny.safeny.escalation;
+
+import com.ny.safeny.datasource.ShardRouting;
+import com.ny.safeny.escalation.TimingWheel.Timer;
+import com.ny.safeny.model.Claim.ClaimStatus;
+import com.ny.safeny.model.ClaimEscalation;
+import com.ny.safeny.repository.ClaimEscalationRepository;
+import com.ny.safeny.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Claim Escalation Scheduler
+ * Escalates claims that stay PENDING or UNDER_REVIEW past the configured thresholds, without
+ * scanning the claims table for them. Every open claim has one timer in a TimingWheel for its next
+ * threshold: ClaimService replaces it on each transition, and a background thread advances the
+ * wheel once per tick and escalates the claims whose timers expire.
+ *
+ * PENDING is timed from createdAt and UNDER_REVIEW from updatedAt, which only the transition into
+ * review sets, so the deadlines can be rebuilt from the claims table alone. At startup the open
+ * claims are loaded with the levels already recorded in claim_escalations; a claim that passed a
+ * threshold while no instance was running is escalated once, at its highest missed level.
+ * Transitions made by other instances arrive through a periodic read of recently updated claims,
+ * and every escalation re-reads the claim and is recorded under a unique key, so stale timers and
+ * several instances never escalate the same claim, state and level twice.
+ */
+@Component
+@Slf4j
+public class ClaimEscalationScheduler implements ApplicationRunner {
+
+    /** Re-read this far behind the last sync, for transactions that committed after it ran */
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+
+    private static final Duration RETRY_DELAY = Duration.ofMinutes(1);
+
+    // Claims with the number of levels already escalated in their current state
+    private static final String CLAIM_STATES = "SELECT c.id, c.status, c.created_at, c.updated_at, "
+            + "COALESCE(MAX(e.escalation_level), 0) AS escalated FROM claims c "
+            + "LEFT JOIN claim_escalations e ON e.claim_id = c.id AND e.status = c.status "
+            + "AND e.entered_at = CASE WHEN c.status = 'PENDING' THEN c.created_at ELSE c.updated_at END "
+            + "WHERE %s GROUP BY c.id, c.status, c.created_at, c.updated_at";
+
+    private static final String OPEN = String.format(CLAIM_STATES, "c.status IN ('PENDING', 'UNDER_REVIEW')");
+    private static final String UPDATED_SINCE = String.format(CLAIM_STATES, "c.updated_at > ?");
+    private static final String BY_ID = String.format(CLAIM_STATES, "c.id = ?");
+
+    private static final String INSERT = "INSERT INTO claim_escalations "
+            + "(claim_id, status, escalation_level, entered_at, threshold_hours, escalated_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ClaimEscalationRepository claimEscalationRepository;
+
+    @Value("${safeny.escalation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${safeny.escalation.pending-hours:48,96}")
+    private long[] pendingHours;
+
+    @Value("${safeny.escalation.under-review-hours:72,168}")
+    private long[] underReviewHours;
+
+    @Value("${safeny.escalation.tick-ms:1000}")
+    private long tickMillis;
+
+    /** A claim's state as the claims table has it */
+    private record ClaimState(long claimId, ClaimStatus status, LocalDateTime enteredAt, int escalated) {
+    }
+
+    /** Timer payload: escalate the claim to {@code level} if it is still in {@code status} */
+    private record Escalation(long claimId, ClaimStatus status, int level) {
+    }
+
+    // Guarded by this
+    private TimingWheel<Escalation> wheel;
+    private final Map<Long, Timer<Escalation>> timers = new HashMap<>();
+
+    private ScheduledExecutorService ticker;
+    private volatile LocalDateTime syncedFrom;
+
+    @PostConstruct
+    void init() {
+        // Transitions are tracked from the start; the timers fire once the wheel thread runs
+        wheel = new TimingWheel<>(System.currentTimeMillis() / tickMillis);
+    }
+
+    /**
+     * Load every open claim once the schema exists on all shards, then start the wheel
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        int[] loaded = {0};
+        shardRouter.forEachShard(shard -> jdbcTemplate.query(OPEN, rs -> {
+            track(state(rs));
+            loaded[0]++;
+        }));
+        syncedFrom = startedAt;
+
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "escalation-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleWithFixedDelay(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        log.info("Escalation timers for {} open claims", loaded[0]);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    /**
+     * Replace the claim's timer after a committed transition
+     */
+    public void track(Long claimId, ClaimStatus status, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        if (!enabled || claimId == null) {
+            return;
+        }
+        track(new ClaimState(claimId, status, status == ClaimStatus.PENDING ? createdAt : updatedAt, 0));
+    }
+
+    /**
+     * Drop the claim's timer after it was deleted
+     */
+    public synchronized void forget(Long claimId) {
+        Timer<Escalation> timer = timers.remove(claimId);
+        if (timer != null) {
+            wheel.cancel(timer);
+        }
+    }
+
+    /**
+     * Most recent escalations across shards, newest first
+     */
+    public List<ClaimEscalation> recentEscalations(int limit) {
+        int size = Math.max(1, Math.min(limit, 1000));
+        return ShardRouter.mergeSorted(
+                shardRouter.scatter(shard -> claimEscalationRepository.findByOrderByEscalatedAtDescIdDesc(PageRequest.of(0, size))),
+                Comparator.comparing(ClaimEscalation::getEscalatedAt).thenComparing(ClaimEscalation::getId).reversed(),
+                0, size);
+    }
+
+    /**
+     * Pick up transitions made by other instances
+     */
+    @Scheduled(fixedDelayString = "${safeny.escalation.sync-interval-ms:60000}")
+    public void sync() {
+        LocalDateTime from = syncedFrom;
+        if (from == null) {
+            return;
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        Timestamp since = Timestamp.valueOf(from.minus(SYNC_OVERLAP));
+        shardRouter.forEachShard(shard -> jdbcTemplate.query(UPDATED_SINCE, (RowCallbackHandler) rs -> track(state(rs)), since));
+        syncedFrom = startedAt;
+    }
+
+    private void tick() {
+        List<Timer<Escalation>> expired;
+        synchronized (this) {
+            expired = wheel.advanceTo(System.currentTimeMillis() / tickMillis);
+            for (Timer<Escalation> timer : expired) {
+                timers.remove(timer.payload().claimId(), timer);
+            }
+        }
+        // Statements run outside the lock, so transitions are never held up by the database
+        for (Timer<Escalation> timer : expired) {
+            Escalation escalation = timer.payload();
+            try {
+                escalate(escalation);
+            } catch (RuntimeException e) {
+                log.warn("Could not escalate claim {}, retrying in {}: {}",
+                        escalation.claimId(), RETRY_DELAY, e.getMessage());
+                retry(escalation);
+            }
+        }
+    }
+
+    private void escalate(Escalation escalation) {
+        try (ShardRouting.Scope ignored = shardRouter.forClaim(escalation.claimId())) {
+            List<ClaimState> rows = jdbcTemplate.query(BY_ID, (rs, row) -> state(rs), escalation.claimId());
+            if (rows.isEmpty()) {
+                // Deleted since the timer was set
+                forget(escalation.claimId());
+                return;
+            }
+            ClaimState state = rows.get(0);
+            long[] hours = thresholdHours(state.status());
+            LocalDateTime now = LocalDateTime.now();
+            // Moved on, re-entered the state later, or escalated elsewhere: reschedule from what the table says
+            if (state.status() != escalation.status() || state.escalated() >= escalation.level()
+                    || state.enteredAt().plusHours(hours[escalation.level() - 1]).isAfter(now)) {
+                track(state);
+                return;
+            }
+            try {
+                jdbcTemplate.update(INSERT, state.claimId(), state.status().name(), escalation.level(),
+                        Timestamp.valueOf(state.enteredAt()), hours[escalation.level() - 1], Timestamp.valueOf(now));
+                log.warn("Claim {} escalated: {} for over {} hours (level {})",
+                        state.claimId(), state.status(), hours[escalation.level() - 1], escalation.level());
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Claim {} level {} was escalated by another instance", state.claimId(), escalation.level());
+            }
+            track(new ClaimState(state.claimId(), state.status(), state.enteredAt(), escalation.level()));
+        }
+    }
+
+    /**
+     * Schedule the claim's next escalation, or drop its timer if it is closed or fully escalated.
+     * A claim already past several thresholds gets one timer, for the highest of them, due now.
+     */
+    private void track(ClaimState state) {
+        long[] hours = thresholdHours(state.status());
+        if (hours == null || state.enteredAt() == null) {
+            forget(state.claimId());
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        int passed = 0;
+        while (passed < hours.length && !state.enteredAt().plusHours(hours[passed]).isAfter(now)) {
+            passed++;
+        }
+        int level = Math.max(state.escalated() + 1, passed);
+        if (level > hours.length) {
+            forget(state.claimId());
+            return;
+        }
+        long deadline = toTick(state.enteredAt().plusHours(hours[level - 1]));
+        schedule(new Escalation(state.claimId(), state.status(), level), deadline);
+    }
+
+    private void retry(Escalation escalation) {
+        long deadline = (System.currentTimeMillis() + RETRY_DELAY.toMillis()) / tickMillis;
+        synchronized (this) {
+            // A transition meanwhile has already set a newer timer
+            if (!timers.containsKey(escalation.claimId())) {
+                timers.put(escalation.claimId(), wheel.schedule(deadline, escalation));
+            }
+        }
+    }
+
+    private synchronized void schedule(Escalation escalation, long deadlineTick) {
+        Timer<Escalation> previous = timers.put(escalation.claimId(), wheel.schedule(deadlineTick, escalation));
+        if (previous != null) {
+            wheel.cancel(previous);
+        }
+    }
+
+    private long[] thresholdHours(ClaimStatus status) {
+        if (status == ClaimStatus.PENDING) {
+            return pendingHours;
+        }
+        if (status == ClaimStatus.UNDER_REVIEW) {
+            return underReviewHours;
+        }
+        return null;
+    }
+
+    private long toTick(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() / tickMillis;
+    }
+
+    private static ClaimState state(ResultSet rs) throws SQLException {
+        ClaimStatus status = ClaimStatus.valueOf(rs.getString("status"));
+        Timestamp entered = rs.getTimestamp(status == ClaimStatus.PENDING ? "created_at" : "updated_at");
+        return new ClaimState(rs.getLong("id"), status, entered != null ? entered.toLocalDateTime() : null,
+                rs.getInt("escalated"));
+    }
+}
@@ -0,0 +1,163 @@
+package com.ny.safeny.escalation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical Timing Wheel
+ * Four wheels of 64 slots each: a slot of wheel n spans 64^n ticks, so the wheels together cover
+ * 2^24 ticks (194 days at one-second ticks). Scheduling and cancelling a timer link or unlink it
+ * from one slot's list. Each tick expires one slot of the first wheel, and when the tick crosses a
+ * slot boundary of a higher wheel, that slot's timers move down to the wheel that now fits them.
+ * A timer moves down at most three times, whatever the number of timers.
+ *
+ * Timers due earlier than the next tick fire on the next tick; timers beyond the range wait in the
+ * last wheel and are placed again each time they come round. Not thread-safe: callers synchronize.
+ */
+public final class TimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long RANGE = 1L << (SLOT_BITS * LEVELS);
+
+    /**
+     * A scheduled timer; keep it to cancel the timer
+     */
+    public static final class Timer<T> {
+
+        private final T payload;
+        private final long deadlineTick;
+        private Timer<T> prev;
+        private Timer<T> next;
+
+        private Timer(T payload, long deadlineTick) {
+            this.payload = payload;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public T payload() {
+            return payload;
+        }
+
+        public long deadlineTick() {
+            return deadlineTick;
+        }
+    }
+
+    // Each slot is a circular list around a sentinel
+    private final Timer<T>[][] slots;
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long startTick) {
+        this.currentTick = startTick;
+        this.slots = new Timer[LEVELS][SLOTS];
+        for (Timer<T>[] wheel : slots) {
+            for (int i = 0; i < SLOTS; i++) {
+                Timer<T> sentinel = new Timer<>(null, 0);
+                sentinel.prev = sentinel;
+                sentinel.next = sentinel;
+                wheel[i] = sentinel;
+            }
+        }
+    }
+
+    public long currentTick() {
+        return currentTick;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Timer<T> schedule(long deadlineTick, T payload) {
+        Timer<T> timer = new Timer<>(payload, deadlineTick);
+        place(timer, currentTick + 1);
+        size++;
+        return timer;
+    }
+
+    /**
+     * @return false if the timer already expired or was cancelled
+     */
+    public boolean cancel(Timer<T> timer) {
+        if (timer.next == null) {
+            return false;
+        }
+        unlink(timer);
+        size--;
+        return true;
+    }
+
+    /**
+     * Move the wheel to {@code tick}, one tick at a time, and return the timers that expired in order
+     */
+    public List<Timer<T>> advanceTo(long tick) {
+        List<Timer<T>> expired = new ArrayList<>();
+        while (currentTick < tick) {
+            if (size == 0) {
+                currentTick = tick;
+                break;
+            }
+            currentTick++;
+            // Higher wheels first, so timers cascading through several wheels reach the first one this tick
+            for (int level = LEVELS - 1; level > 0; level--) {
+                int shift = SLOT_BITS * level;
+                if ((currentTick & ((1L << shift) - 1)) == 0) {
+                    cascade(slots[level][(int) ((currentTick >>> shift) & SLOT_MASK)]);
+                }
+            }
+            Timer<T> sentinel = slots[0][(int) (currentTick & SLOT_MASK)];
+            while (sentinel.next != sentinel) {
+                Timer<T> timer = sentinel.next;
+                unlink(timer);
+                size--;
+                expired.add(timer);
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * @param earliest the first tick whose slot has not been expired yet
+     */
+    private void place(Timer<T> timer, long earliest) {
+        long deadline = Math.max(timer.deadlineTick, earliest);
+        long delta = Math.min(deadline - currentTick, RANGE - 1);
+        deadline = currentTick + delta;
+        int level = 0;
+        while (delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        link(slots[level][(int) ((deadline >>> (SLOT_BITS * level)) & SLOT_MASK)], timer);
+    }
+
+    private void cascade(Timer<T> sentinel) {
+        Timer<T> timer = sentinel.next;
+        sentinel.next = sentinel;
+        sentinel.prev = sentinel;
+        while (timer != sentinel) {
+            Timer<T> next = timer.next;
+            // Cascading runs before this tick's slot expires, so a timer due now still fires on time
+            place(timer, currentTick);
+            timer = next;
+        }
+    }
+
+    private static <T> void link(Timer<T> sentinel, Timer<T> timer) {
+        timer.prev = sentinel.prev;
+        timer.next = sentinel;
+        sentinel.prev.next = timer;
+        sentinel.prev = timer;
+    }
+
+    private static <T> void unlink(Timer<T> timer) {
+        timer.prev.next = timer.next;
+        timer.next.prev = timer.prev;
+        timer.prev = null;
+        timer.next = null;
+    }
+}
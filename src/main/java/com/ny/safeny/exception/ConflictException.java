@@ -0,0 +1,12 @@
+package com.ny.safeny.exception;
+
+/**
+ * The request conflicts with the current state, e.g. editing a reviewed claim or registering a
+ * taken username (409)
+ */
+public class ConflictException extends DomainException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
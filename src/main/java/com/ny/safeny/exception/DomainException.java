@@ -0,0 +1,14 @@
+package com.ny.safeny.exception;
+
+/**
+ * Base for expected outcomes of a request (not found, not allowed, wrong state), which
+ * GlobalExceptionHandler maps to a status code. They are control flow, not faults, so no stack
+ * trace is captured: filling one in walks the whole request stack, which dominates the cost of a
+ * 404 or 403 under load.
+ */
+public abstract class DomainException extends RuntimeException {
+
+    protected DomainException(String message) {
+        super(message, null, false, false);
+    }
+}
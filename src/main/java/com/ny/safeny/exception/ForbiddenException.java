@@ -0,0 +1,11 @@
+package com.ny.safeny.exception;
+
+/**
+ * The caller is authenticated but may not act on this claim (403)
+ */
+public class ForbiddenException extends DomainException {
+
+    public ForbiddenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.ny.safeny.exception;
+
+/**
+ * The claim or account the request names does not exist (404)
+ */
+public class NotFoundException extends DomainException {
+
+    public NotFoundException(String message) {
+        super(message);
+    }
+}
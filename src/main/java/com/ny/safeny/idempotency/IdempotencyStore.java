@@ -0,0 +1,186 @@
+package com.ny.safeny.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency Store
+ * Bounded, expiring record of in-flight and completed responses keyed by the client's
+ * Idempotency-Key. The first request runs the action; concurrent duplicates wait for its
+ * result and later retries replay the stored response without calling the service again.
+ * Each entry keeps a hash of the operation and request body; a key reused for a different
+ * request is answered with 422 instead of the first request's response.
+ */
+@Component
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    @Value("${safeny.idempotency.ttl-minutes:1440}")
+    private long ttlMinutes;
+
+    @Value("${safeny.idempotency.max-entries:50000}")
+    private int maxEntries;
+
+    @Value("${safeny.idempotency.wait-timeout-seconds:30}")
+    private long waitTimeoutSeconds;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    // Insertion order; with a fixed TTL the head is always the next entry to expire
+    private final ConcurrentLinkedQueue<Entry> expiryQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    /**
+     * Run the action at most once per (scope, operation, key)
+     * @param scope owner of the key, so one user cannot replay another user's response
+     * @param operation endpoint and target, e.g. "POST /claims/42/approve"
+     * @param key client-supplied Idempotency-Key, or null to run without deduplication
+     * @param request the request body; a retry must send the same body to get the stored response
+     */
+    public <T> ResponseEntity<T> execute(String scope, String operation, String key, Object request,
+                                         Supplier<ResponseEntity<T>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+
+        String storeKey = scope + '|' + operation + '|' + key;
+        byte[] fingerprint = fingerprint(operation, request);
+        long now = System.nanoTime();
+        Entry entry = new Entry(storeKey, fingerprint, now);
+
+        while (true) {
+            Entry existing = entries.putIfAbsent(storeKey, entry);
+            if (existing == null) {
+                expiryQueue.add(entry);
+                queued.incrementAndGet();
+                evict(now);
+                return runFirst(entry, action);
+            }
+            if (!existing.isExpired(now, ttlNanos())) {
+                if (!MessageDigest.isEqual(existing.fingerprint, fingerprint)) {
+                    return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).build();
+                }
+                return replay(existing);
+            }
+            entries.remove(storeKey, existing);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private <T> ResponseEntity<T> runFirst(Entry entry, Supplier<ResponseEntity<T>> action) {
+        try {
+            ResponseEntity<T> response = action.get();
+            if (!response.getStatusCode().is2xxSuccessful()) {
+                // Failures are not remembered; the client may retry with the same key
+                entries.remove(entry.key, entry);
+            }
+            entry.result.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            entries.remove(entry.key, entry);
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ResponseEntity<T> replay(Entry existing) {
+        try {
+            ResponseEntity<T> original = (ResponseEntity<T>) existing.result.get(waitTimeoutSeconds, TimeUnit.SECONDS);
+            return ResponseEntity.status(original.getStatusCode())
+                    .headers(original.getHeaders())
+                    .header(REPLAYED_HEADER, "true")
+                    .body(original.getBody());
+        } catch (TimeoutException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    private byte[] fingerprint(String operation, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return digest.digest();
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Could not hash the request for idempotency", e);
+        }
+    }
+
+    private void evict(long now) {
+        long ttl = ttlNanos();
+        int skipped = 0;
+        Entry head;
+        while ((head = expiryQueue.peek()) != null && skipped < queued.get()
+                && (head.isExpired(now, ttl) || queued.get() > maxEntries)) {
+            Entry oldest = expiryQueue.poll();
+            if (oldest == null) {
+                break;
+            }
+            if (!oldest.result.isDone()) {
+                // Dropping an in-flight entry would let a concurrent duplicate run the action again;
+                // the store may exceed max-entries by the requests still running
+                expiryQueue.add(oldest);
+                skipped++;
+                continue;
+            }
+            queued.decrementAndGet();
+            entries.remove(oldest.key, oldest);
+        }
+    }
+
+    private long ttlNanos() {
+        return TimeUnit.MINUTES.toNanos(ttlMinutes);
+    }
+
+    private static final class Entry {
+        private final String key;
+        private final byte[] fingerprint;
+        private final long createdAt;
+        private final CompletableFuture<ResponseEntity<?>> result = new CompletableFuture<>();
+
+        private Entry(String key, byte[] fingerprint, long createdAt) {
+            this.key = key;
+            this.fingerprint = fingerprint;
+            this.createdAt = createdAt;
+        }
+
+        private boolean isExpired(long now, long ttlNanos) {
+            return result.isDone() && now - createdAt > ttlNanos;
+        }
+    }
+}
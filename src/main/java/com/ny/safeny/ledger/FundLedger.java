@@ -0,0 +1,539 @@
+package com.ny.safeny.ledger;
+
+import com.ny.safeny.cluster.LeaseManager;
+import com.ny.safeny.datasource.ShardRouting;
+import com.ny.safeny.model.Claim;
+import com.ny.safeny.model.Claim.ClaimStatus;
+import com.ny.safeny.model.FundBudget;
+import com.ny.safeny.repository.FundBudgetRepository;
+import com.ny.safeny.sharding.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Fund Ledger
+ * Budget accounts per disaster type, so approvals reserve funds with a CAS on a long instead of
+ * serializing reviewers on a database row lock.
+ *
+ * Each instance reserves only inside its own slice of the budget. A slice is taken from
+ * fund_budgets.allocated_cents with one conditional UPDATE that never lets the allocated total
+ * pass the budget, so the instances together cannot overspend however many there are. Slices
+ * are sized as a fraction of the budget, so the database is visited once per many approvals.
+ *
+ * A reservation is pending until the approving transaction completes. On commit it is spent, and
+ * on rollback it goes back to the slice. Funds released by a claim leaving APPROVED go straight
+ * back to the shared pool. Each instance records what its slice still holds in fund_slices and
+ * renews that row every checkpoint. The reconciliation sets the allocated total to the committed
+ * amount from the claims tables plus the live slices, which hands back the slices of instances
+ * that stopped renewing.
+ */
+@Component
+@Slf4j
+public class FundLedger {
+
+    private static final String COMMITTED_BY_FUND =
+            "SELECT disaster_type, SUM(COALESCE(approved_amount, request_amount)) FROM claims "
+                    + "WHERE status IN ('APPROVED', 'PAID') GROUP BY disaster_type "
+                    + "UNION ALL "
+                    + "SELECT disaster_type, SUM(COALESCE(approved_amount, request_amount)) FROM claim_history "
+                    + "WHERE status = 'PAID' GROUP BY disaster_type";
+
+    private static final String COMMITTED_FOR_FUND =
+            "SELECT SUM(COALESCE(approved_amount, request_amount)) FROM claims "
+                    + "WHERE status IN ('APPROVED', 'PAID') AND disaster_type = ? "
+                    + "UNION ALL "
+                    + "SELECT SUM(COALESCE(approved_amount, request_amount)) FROM claim_history "
+                    + "WHERE status = 'PAID' AND disaster_type = ?";
+
+    // Never allocates past the budget, whatever the other instances hold
+    private static final String GRANT = "UPDATE fund_budgets SET allocated_cents = allocated_cents + ? "
+            + "WHERE disaster_type = ? AND allocated_cents + ? <= budget_cents";
+
+    private static final String GIVE_BACK = "UPDATE fund_budgets SET allocated_cents = allocated_cents - ? "
+            + "WHERE disaster_type = ?";
+
+    private static final String UPDATE_SLICE = "UPDATE fund_slices SET cents = ?, expires_at = ?, updated_at = ? WHERE id = ?";
+
+    private static final String INSERT_SLICE = "INSERT INTO fund_slices "
+            + "(id, disaster_type, node_id, cents, expires_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String LIVE_SLICES = "SELECT disaster_type, SUM(cents) FROM fund_slices "
+            + "WHERE expires_at >= ? GROUP BY disaster_type";
+
+    private static final String CORRECT = "UPDATE fund_budgets SET allocated_cents = ?, committed_cents = ?, "
+            + "checkpointed_at = ? WHERE disaster_type = ? AND allocated_cents = ?";
+
+    @Autowired
+    private FundBudgetRepository fundBudgetRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private LeaseManager leaseManager;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${safeny.fund.slice-fraction:0.05}")
+    private double sliceFraction;
+
+    @Value("${safeny.fund.slice-ttl-ms:120000}")
+    private long sliceTtlMillis;
+
+    private final Map<String, Account> accounts = new ConcurrentHashMap<>();
+
+    private TransactionTemplate ownTransaction;
+    private Counter rejected;
+    private Counter drift;
+
+    /**
+     * One fund. headroom is the unreserved part of this instance's slice and is the only value the
+     * admission CAS touches.
+     */
+    static final class Account {
+
+        final String fund;
+        volatile long budgetCents;
+        final AtomicLong headroom = new AtomicLong();
+        final AtomicLong pending = new AtomicLong();
+        /** Cluster-wide committed total as of the last read of fund_budgets, plus approvals here since */
+        final AtomicLong committed = new AtomicLong();
+        /** Budget no instance holds, as of the last read of fund_budgets */
+        volatile long unallocatedCents;
+        /** The slice may only be used until then (System.nanoTime), well before its row expires */
+        volatile long sliceValidUntil;
+
+        Account(String fund, long budgetCents, long committedCents, long allocatedCents) {
+            this.fund = fund;
+            this.budgetCents = budgetCents;
+            this.committed.set(committedCents);
+            this.unallocatedCents = budgetCents - allocatedCents;
+            this.sliceValidUntil = System.nanoTime();
+        }
+
+        boolean tryReserve(long cents) {
+            if (System.nanoTime() - sliceValidUntil >= 0) {
+                return false;
+            }
+            while (true) {
+                long current = headroom.get();
+                if (current < cents) {
+                    return false;
+                }
+                if (headroom.compareAndSet(current, current - cents)) {
+                    pending.addAndGet(cents);
+                    return true;
+                }
+            }
+        }
+
+        void complete(long cents, boolean spent) {
+            pending.addAndGet(-cents);
+            if (spent) {
+                committed.addAndGet(cents);
+            } else {
+                headroom.addAndGet(cents);
+            }
+        }
+
+        /** What the slice row must cover: the headroom and reservations not yet settled */
+        long held() {
+            return headroom.get() + pending.get();
+        }
+
+        long available() {
+            return headroom.get() + Math.max(0, unallocatedCents);
+        }
+    }
+
+    public record FundBalance(String disasterType, long budgetCents, long committedCents,
+                              long pendingCents, long availableCents) {
+    }
+
+    @PostConstruct
+    void init() {
+        rejected = Counter.builder("safeny.fund.reservation.rejected")
+                .description("Approvals refused because the fund was exhausted")
+                .register(meterRegistry);
+        drift = Counter.builder("safeny.fund.reconcile.corrections")
+                .description("Fund allocations corrected by reconciliation against the claims tables")
+                .register(meterRegistry);
+        ownTransaction = new TransactionTemplate(transactionManager);
+        ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        // Funds checkpointed before slices existed start with their committed total allocated
+        jdbcTemplate.update("UPDATE fund_budgets SET allocated_cents = committed_cents WHERE allocated_cents < committed_cents");
+        for (FundBudget budget : fundBudgetRepository.findAll()) {
+            register(new Account(budget.getDisasterType(), budget.getBudgetCents(),
+                    budget.getCommittedCents(), budget.getAllocatedCents()));
+        }
+        log.info("Fund ledger loaded {} funds", accounts.size());
+    }
+
+    /**
+     * Hand this instance's slices back so the other instances can use them at once
+     */
+    @PreDestroy
+    void shutdown() {
+        for (Account account : accounts.values()) {
+            long unused = account.headroom.getAndSet(0);
+            try {
+                onHome(() -> ownTransaction.executeWithoutResult(status -> {
+                    if (unused > 0) {
+                        jdbcTemplate.update(GIVE_BACK, unused, account.fund);
+                    }
+                    jdbcTemplate.update("DELETE FROM fund_slices WHERE id = ?", sliceId(account));
+                }));
+            } catch (Exception e) {
+                log.debug("Could not return the slice of fund {}; reconciliation will", account.fund, e);
+            }
+        }
+    }
+
+    /**
+     * Funds committed by a claim in its current state
+     */
+    public static long commitmentCents(Claim claim) {
+        ClaimStatus status = claim.getStatus();
+        if (status != ClaimStatus.APPROVED && status != ClaimStatus.PAID) {
+            return 0;
+        }
+        BigDecimal amount = claim.getApprovedAmount() != null ? claim.getApprovedAmount() : claim.getRequestAmount();
+        return toCents(amount);
+    }
+
+    /**
+     * Apply the change in a claim's commitment within the current transaction.
+     * Increases are reserved now and returned to the slice if the transaction rolls back; decreases
+     * go back to the shared pool only after commit. Funds without a budget are not limited.
+     * @throws InsufficientFundsException when the increase fits neither the slice nor the pool
+     */
+    public void adjust(String fund, long beforeCents, long afterCents) {
+        long delta = afterCents - beforeCents;
+        Account account = fund != null ? accounts.get(fund) : null;
+        if (delta == 0 || account == null) {
+            return;
+        }
+
+        if (delta > 0) {
+            if (!reserve(account, delta)) {
+                rejected.increment();
+                throw new InsufficientFundsException(fund, delta, Math.max(0, account.available()));
+            }
+            afterCompletion(committed -> account.complete(delta, committed));
+        } else {
+            afterCompletion(committed -> {
+                if (committed) {
+                    account.committed.addAndGet(delta);
+                    giveBack(account, -delta);
+                }
+            });
+        }
+    }
+
+    /**
+     * Create or change a fund's budget. Other instances pick up the change at their next checkpoint.
+     */
+    public FundBalance setBudget(String fund, long budgetCents) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        FundBudget budget = onHome(() -> {
+            // Only the budget column: allocated_cents moves under other instances meanwhile
+            int updated = jdbcTemplate.update("UPDATE fund_budgets SET budget_cents = ?, updated_at = ? WHERE disaster_type = ?",
+                    budgetCents, now, fund);
+            if (updated > 0) {
+                return fundBudgetRepository.findById(fund).orElseThrow();
+            }
+            // A new fund may already have approved claims against it; they start out allocated
+            long committed = committedCents(fund);
+            jdbcTemplate.update("INSERT INTO fund_budgets (disaster_type, budget_cents, committed_cents, "
+                    + "allocated_cents, checkpointed_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)",
+                    fund, budgetCents, committed, committed, now, now);
+            FundBudget created = new FundBudget();
+            created.setDisasterType(fund);
+            created.setBudgetCents(budgetCents);
+            created.setCommittedCents(committed);
+            created.setAllocatedCents(committed);
+            return created;
+        });
+
+        Account account = accounts.get(fund);
+        if (account == null) {
+            account = new Account(fund, budgetCents, budget.getCommittedCents(), budget.getAllocatedCents());
+            register(account);
+        } else {
+            account.budgetCents = budgetCents;
+            account.unallocatedCents = budgetCents - budget.getAllocatedCents();
+        }
+        return balance(accounts.get(fund));
+    }
+
+    public List<FundBalance> getBalances() {
+        List<FundBalance> balances = new ArrayList<>();
+        accounts.values().forEach(account -> balances.add(balance(account)));
+        balances.sort((a, b) -> a.disasterType().compareTo(b.disasterType()));
+        return balances;
+    }
+
+    /**
+     * Renew this instance's slices, hand back headroom beyond two slices, and pick up budgets
+     * and funds set on other instances. Runs on every instance.
+     */
+    @Scheduled(fixedDelayString = "${safeny.fund.checkpoint-interval-ms:30000}")
+    public void checkpoint() {
+        for (Account account : accounts.values()) {
+            if (System.nanoTime() - account.sliceValidUntil >= 0) {
+                // Stalled past the slice's validity: the reconciliation may have handed it to others
+                account.headroom.set(0);
+            }
+            long keep = 2 * sliceCents(account, 0);
+            long current = account.headroom.get();
+            long excess = current > keep && account.headroom.compareAndSet(current, keep) ? current - keep : 0;
+            try {
+                renew(account, excess);
+            } catch (Exception e) {
+                account.headroom.addAndGet(excess);
+                log.warn("Could not renew the slice of fund {}: {}", account.fund, e.getMessage());
+            }
+        }
+        onHome(() -> {
+            for (FundBudget budget : fundBudgetRepository.findAll()) {
+                Account account = accounts.get(budget.getDisasterType());
+                if (account == null) {
+                    register(new Account(budget.getDisasterType(), budget.getBudgetCents(),
+                            budget.getCommittedCents(), budget.getAllocatedCents()));
+                    continue;
+                }
+                account.budgetCents = budget.getBudgetCents();
+                account.unallocatedCents = budget.getBudgetCents() - budget.getAllocatedCents();
+                account.committed.set(budget.getCommittedCents());
+            }
+        });
+    }
+
+    /**
+     * Set each fund's allocated total to its committed amount on every shard plus the slices still
+     * being renewed. A fund whose allocation moved while this ran is left for the next pass.
+     * Runs on one instance at a time.
+     */
+    @Scheduled(initialDelayString = "${safeny.fund.reconcile-initial-delay-ms:10000}",
+            fixedDelayString = "${safeny.fund.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        leaseManager.runExclusive("fund-reconcile", lease -> {
+            // Allocations first: anything granted or returned after this read fails the guarded update
+            Map<String, Long> allocated = new HashMap<>();
+            onHome(() -> jdbcTemplate.query("SELECT disaster_type, allocated_cents FROM fund_budgets",
+                    rs -> { allocated.put(rs.getString(1), rs.getLong(2)); }));
+            if (allocated.isEmpty()) {
+                return;
+            }
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            Map<String, Long> held = new HashMap<>();
+            onHome(() -> jdbcTemplate.query(LIVE_SLICES, rs -> { held.put(rs.getString(1), rs.getLong(2)); }, now));
+
+            Map<String, Long> actual = new HashMap<>();
+            shardRouter.forEachShard(shard -> jdbcTemplate.query(COMMITTED_BY_FUND, rs -> {
+                BigDecimal sum = rs.getBigDecimal(2);
+                if (sum != null) {
+                    actual.merge(rs.getString(1), toCents(sum), Long::sum);
+                }
+            }));
+
+            onHome(() -> ownTransaction.executeWithoutResult(status -> {
+                leaseManager.fence(lease);
+                allocated.forEach((fund, before) -> {
+                    long committed = actual.getOrDefault(fund, 0L);
+                    long target = committed + held.getOrDefault(fund, 0L);
+                    int updated = jdbcTemplate.update(CORRECT, target, committed, now, fund, before);
+                    if (updated > 0 && target != before) {
+                        drift.increment();
+                        log.warn("Fund {} allocation was off by {} cents; corrected from claims and slices",
+                                fund, before - target);
+                    }
+                });
+                jdbcTemplate.update("DELETE FROM fund_slices WHERE expires_at < ?", now);
+            }));
+        });
+    }
+
+    /**
+     * Reserve from the slice, taking a new slice from the pool when it runs short
+     */
+    private boolean reserve(Account account, long cents) {
+        if (account.tryReserve(cents)) {
+            return true;
+        }
+        synchronized (account) {
+            if (account.tryReserve(cents)) {
+                return true;
+            }
+            if (System.nanoTime() - account.sliceValidUntil >= 0) {
+                account.headroom.set(0);
+            }
+            long slice = sliceCents(account, cents);
+            if (!grant(account, slice) && (slice == cents || !grant(account, cents))) {
+                return false;
+            }
+            return account.tryReserve(cents);
+        }
+    }
+
+    /**
+     * Take cents from the shared pool into this instance's slice, in a transaction of its own on
+     * the home shard so the approving transaction's outcome does not undo it
+     */
+    private boolean grant(Account account, long cents) {
+        long validUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sliceTtlMillis / 2);
+        Boolean granted;
+        try {
+            granted = onHome(() -> ownTransaction.execute(status -> {
+                if (jdbcTemplate.update(GRANT, cents, account.fund, cents) == 0) {
+                    return false;
+                }
+                saveSlice(account, account.held() + cents);
+                return true;
+            }));
+        } catch (Exception e) {
+            log.warn("Could not take a slice of fund {}: {}", account.fund, e.getMessage());
+            return false;
+        }
+        if (Boolean.TRUE.equals(granted)) {
+            account.headroom.addAndGet(cents);
+            account.sliceValidUntil = validUntil;
+            account.unallocatedCents -= cents;
+            return true;
+        }
+        account.unallocatedCents = 0;
+        return false;
+    }
+
+    private void renew(Account account, long excess) {
+        long validUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sliceTtlMillis / 2);
+        onHome(() -> ownTransaction.executeWithoutResult(status -> {
+            if (excess > 0) {
+                jdbcTemplate.update(GIVE_BACK, excess, account.fund);
+            }
+            saveSlice(account, account.held());
+        }));
+        account.sliceValidUntil = validUntil;
+    }
+
+    private void giveBack(Account account, long cents) {
+        try {
+            onHome(() -> ownTransaction.executeWithoutResult(status -> jdbcTemplate.update(GIVE_BACK, cents, account.fund)));
+        } catch (Exception e) {
+            // Still counted as allocated, which only errs on the safe side until the next reconciliation
+            log.warn("Could not return {} cents to fund {}: {}", cents, account.fund, e.getMessage());
+        }
+    }
+
+    private void saveSlice(Account account, long cents) {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp expires = Timestamp.valueOf(now.plusNanos(TimeUnit.MILLISECONDS.toNanos(sliceTtlMillis)));
+        Timestamp updatedAt = Timestamp.valueOf(now);
+        String id = sliceId(account);
+        if (jdbcTemplate.update(UPDATE_SLICE, cents, expires, updatedAt, id) == 0) {
+            jdbcTemplate.update(INSERT_SLICE, id, account.fund, leaseManager.getNodeId(), cents, expires, updatedAt);
+        }
+    }
+
+    private long committedCents(String fund) {
+        long[] total = {0};
+        shardRouter.forEachShard(shard -> jdbcTemplate.query(COMMITTED_FOR_FUND, rs -> {
+            BigDecimal sum = rs.getBigDecimal(1);
+            if (sum != null) {
+                total[0] += toCents(sum);
+            }
+        }, fund, fund));
+        return total[0];
+    }
+
+    private long sliceCents(Account account, long atLeast) {
+        return Math.max(atLeast, Math.max(1, (long) (account.budgetCents * sliceFraction)));
+    }
+
+    private String sliceId(Account account) {
+        return account.fund + "|" + leaseManager.getNodeId();
+    }
+
+    /**
+     * fund_budgets and fund_slices live on the home shard, whatever shard the caller is routed to
+     */
+    private <T> T onHome(Supplier<T> action) {
+        try (ShardRouting.Scope ignored = shardRouter.onShard(ShardRouting.HOME)) {
+            return action.get();
+        }
+    }
+
+    private void onHome(Runnable action) {
+        onHome(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private void register(Account account) {
+        if (accounts.putIfAbsent(account.fund, account) == null) {
+            Gauge.builder("safeny.fund.available.cents", account, Account::available)
+                    .description("Unreserved budget of the fund")
+                    .tag("fund", account.fund)
+                    .register(meterRegistry);
+        }
+    }
+
+    private static FundBalance balance(Account account) {
+        return new FundBalance(account.fund, account.budgetCents, account.committed.get(),
+                account.pending.get(), account.available());
+    }
+
+    private static void afterCompletion(Consumer<Boolean> callback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            callback.accept(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                callback.accept(status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    public static long toCents(BigDecimal amount) {
+        return amount == null ? 0 : amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+}
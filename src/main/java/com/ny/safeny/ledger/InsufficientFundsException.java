@@ -0,0 +1,31 @@
+package com.ny.safeny.ledger;
+
+/**
+ * Thrown when approving a claim would take its disaster fund over budget
+ */
+public class InsufficientFundsException extends RuntimeException {
+
+    private final String fund;
+    private final long requestedCents;
+    private final long availableCents;
+
+    public InsufficientFundsException(String fund, long requestedCents, long availableCents) {
+        super(String.format("Fund %s has %d.%02d available, %d.%02d requested", fund,
+                availableCents / 100, Math.abs(availableCents % 100), requestedCents / 100, requestedCents % 100));
+        this.fund = fund;
+        this.requestedCents = requestedCents;
+        this.availableCents = availableCents;
+    }
+
+    public String getFund() {
+        return fund;
+    }
+
+    public long getRequestedCents() {
+        return requestedCents;
+    }
+
+    public long getAvailableCents() {
+        return availableCents;
+    }
+}
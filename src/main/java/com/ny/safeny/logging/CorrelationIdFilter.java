@@ -0,0 +1,75 @@
+package com.ny.safeny.logging;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.HexFormat;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Correlation Id Filter
+ * Gives every request an id, taken from X-Request-Id when a proxy or the frontend sent a sane
+ * one, and otherwise generated. The id is returned in the response header and is on every log
+ * line the request writes. Also decides whether this request logs at DEBUG (see
+ * RequestSamplingTurboFilter).
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+public class CorrelationIdFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Request-Id";
+    public static final String MDC_KEY = "requestId";
+
+    private static final int MAX_LENGTH = 64;
+
+    @Value("${safeny.logging.sample-rate:0.01}")
+    private double sampleRate;
+
+    @Value("${safeny.logging.trust-request-id:true}")
+    private boolean trustRequestId;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String requestId = trustRequestId ? acceptable(request.getHeader(HEADER)) : null;
+        if (requestId == null) {
+            requestId = HexFormat.of().toHexDigits(ThreadLocalRandom.current().nextLong());
+        }
+        boolean sampled = sampleRate > 0 && (sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate);
+
+        response.setHeader(HEADER, requestId);
+        MDC.put(MDC_KEY, requestId);
+        RequestLogContext.begin(sampled);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestLogContext.end();
+            MDC.remove(MDC_KEY);
+        }
+    }
+
+    /**
+     * The caller's id if it is short and plain enough to put in a log line as is
+     */
+    private static String acceptable(String requestId) {
+        if (requestId == null || requestId.isEmpty() || requestId.length() > MAX_LENGTH) {
+            return null;
+        }
+        for (int i = 0; i < requestId.length(); i++) {
+            char c = requestId.charAt(i);
+            if (!(Character.isLetterOrDigit(c) && c < 128) && c != '-' && c != '_' && c != '.') {
+                return null;
+            }
+        }
+        return requestId;
+    }
+}
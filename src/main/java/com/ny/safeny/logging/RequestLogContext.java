@@ -0,0 +1,27 @@
+package com.ny.safeny.logging;
+
+/**
+ * Whether the request on the current thread was picked for verbose logging. Static, because
+ * logback's turbo filter is created by logback, outside the Spring context.
+ */
+public final class RequestLogContext {
+
+    private static final ThreadLocal<Boolean> SAMPLED = new ThreadLocal<>();
+
+    private RequestLogContext() {}
+
+    static void begin(boolean sampled) {
+        SAMPLED.set(sampled);
+    }
+
+    static void end() {
+        SAMPLED.remove();
+    }
+
+    /**
+     * True or false inside a request, null on threads that are not serving one
+     */
+    public static Boolean sampled() {
+        return SAMPLED.get();
+    }
+}
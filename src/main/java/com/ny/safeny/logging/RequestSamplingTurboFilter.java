@@ -0,0 +1,45 @@
+package com.ny.safeny.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+/**
+ * Per-request sampling of DEBUG logs, configured in logback-spring.xml.
+ *
+ * On request threads, DEBUG from the configured loggers is accepted for sampled requests
+ * (whatever the logger's level) and denied for the rest. Turbo filters run before the level
+ * check and before the message is formatted, and also answer isDebugEnabled(), so an unsampled
+ * request pays for a thread-local read and nothing else. Other threads keep the configured levels.
+ */
+public class RequestSamplingTurboFilter extends TurboFilter {
+
+    private String[] loggerPrefixes = {"com.ny.safeny"};
+
+    public void setLoggerPrefixes(String loggerPrefixes) {
+        this.loggerPrefixes = loggerPrefixes.trim().split("\\s*,\\s*");
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (level == null || level.levelInt != Level.DEBUG_INT) {
+            return FilterReply.NEUTRAL;
+        }
+        Boolean sampled = RequestLogContext.sampled();
+        if (sampled == null || !covers(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        return sampled ? FilterReply.ACCEPT : FilterReply.DENY;
+    }
+
+    private boolean covers(String loggerName) {
+        for (String prefix : loggerPrefixes) {
+            if (loggerName.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,113 @@
+package com.ny.safeny.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Closed (PAID / REJECTED) claim moved out of the live claims table.
+ * On PostgreSQL the table is range-partitioned by created_at month, see db/postgres/claim_history.sql.
+ */
+@Entity
+@Table(name = "claim_history", indexes = {
+        @Index(name = "idx_claim_history_user", columnList = "user_id, created_at")
+})
+public class ArchivedClaim {
+
+    @Id
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "disaster_type", nullable = false)
+    private String disasterType;
+
+    @Column(nullable = false)
+    private String description;
+
+    @Column(name = "incident_date")
+    private LocalDateTime incidentDate;
+
+    private String location;
+
+    @Column(name = "request_amount", nullable = false)
+    private BigDecimal requestAmount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Claim.ClaimStatus status;
+
+    @Column(name = "reviewer_id")
+    private Long reviewerId;
+
+    @Column(name = "review_comments")
+    private String reviewComments;
+
+    @Column(name = "approved_amount")
+    private BigDecimal approvedAmount;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "reviewed_at")
+    private LocalDateTime reviewedAt;
+
+    @Column(name = "archived_at")
+    private LocalDateTime archivedAt;
+
+    /**
+     * Rebuild the read-only Claim view returned by the API
+     */
+    public Claim toClaim(User owner) {
+        Claim claim = new Claim();
+        claim.setId(id);
+        claim.setUser(owner);
+        claim.setDisasterType(disasterType);
+        claim.setDescription(description);
+        claim.setIncidentDate(incidentDate);
+        claim.setLocation(location);
+        claim.setRequestAmount(requestAmount);
+        claim.setStatus(status);
+        claim.setReviewerId(reviewerId);
+        claim.setReviewComments(reviewComments);
+        claim.setApprovedAmount(approvedAmount);
+        claim.setCreatedAt(createdAt);
+        claim.setUpdatedAt(updatedAt);
+        claim.setReviewedAt(reviewedAt);
+        return claim;
+    }
+
+    public Long getId() { return id; }
+
+    public Long getUserId() { return userId; }
+
+    public String getDisasterType() { return disasterType; }
+
+    public String getDescription() { return description; }
+
+    public LocalDateTime getIncidentDate() { return incidentDate; }
+
+    public String getLocation() { return location; }
+
+    public BigDecimal getRequestAmount() { return requestAmount; }
+
+    public Claim.ClaimStatus getStatus() { return status; }
+
+    public Long getReviewerId() { return reviewerId; }
+
+    public String getReviewComments() { return reviewComments; }
+
+    public BigDecimal getApprovedAmount() { return approvedAmount; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+
+    public LocalDateTime getReviewedAt() { return reviewedAt; }
+
+    public LocalDateTime getArchivedAt() { return archivedAt; }
+}
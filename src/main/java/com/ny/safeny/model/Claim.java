@@ -2,11 +2,17 @@ package com.ny.safeny.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "claims")
+@Table(name = "claims", indexes = {
+        @Index(name = "idx_claims_user_created", columnList = "user_id, created_at"),
+        @Index(name = "idx_claims_status_updated", columnList = "status, updated_at"),
+        @Index(name = "idx_claims_updated", columnList = "updated_at"),
+        @Index(name = "idx_claims_created", columnList = "created_at")
+})
 public class Claim {
 
     @Id
@@ -53,6 +59,12 @@ public class Claim {
     @Column(name = "reviewed_at")
     private LocalDateTime reviewedAt;
 
+    // Two reviewers deciding the same claim at once: the second commit fails instead of reserving funds twice
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -111,4 +123,7 @@ public class Claim {
 
     public LocalDateTime getReviewedAt() { return reviewedAt; }
     public void setReviewedAt(LocalDateTime reviewedAt) { this.reviewedAt = reviewedAt; }
+
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
 }
\ No newline at end of file
@@ -0,0 +1,64 @@
+package com.ny.safeny.model;
+
+import com.ny.safeny.model.Claim.ClaimStatus;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A claim that stayed in PENDING or UNDER_REVIEW past one of the SLA thresholds. One row per
+ * claim, state, level and time the claim entered the state, so each escalation fires once
+ * across restarts and instances.
+ */
+@Entity
+@Table(name = "claim_escalations", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_claim_escalations", columnNames = {"claim_id", "status", "escalation_level", "entered_at"})
+}, indexes = {
+        @Index(name = "idx_claim_escalations_escalated", columnList = "escalated_at")
+})
+public class ClaimEscalation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "claim_id", nullable = false)
+    private Long claimId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ClaimStatus status;
+
+    /** 1 for the first threshold of the state, 2 for the second, ... */
+    @Column(name = "escalation_level", nullable = false)
+    private int level;
+
+    @Column(name = "entered_at", nullable = false)
+    private LocalDateTime enteredAt;
+
+    @Column(name = "threshold_hours", nullable = false)
+    private long thresholdHours;
+
+    @Column(name = "escalated_at", nullable = false)
+    private LocalDateTime escalatedAt;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getClaimId() { return claimId; }
+    public void setClaimId(Long claimId) { this.claimId = claimId; }
+
+    public ClaimStatus getStatus() { return status; }
+    public void setStatus(ClaimStatus status) { this.status = status; }
+
+    public int getLevel() { return level; }
+    public void setLevel(int level) { this.level = level; }
+
+    public LocalDateTime getEnteredAt() { return enteredAt; }
+    public void setEnteredAt(LocalDateTime enteredAt) { this.enteredAt = enteredAt; }
+
+    public long getThresholdHours() { return thresholdHours; }
+    public void setThresholdHours(long thresholdHours) { this.thresholdHours = thresholdHours; }
+
+    public LocalDateTime getEscalatedAt() { return escalatedAt; }
+    public void setEscalatedAt(LocalDateTime escalatedAt) { this.escalatedAt = escalatedAt; }
+}
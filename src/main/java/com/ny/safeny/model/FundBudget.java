@@ -0,0 +1,59 @@
+package com.ny.safeny.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+import java.time.LocalDateTime;
+
+/**
+ * Relief budget for one disaster type.
+ * allocatedCents is what the instances have committed or hold in slices, and never passes the budget.
+ * committedCents is written by the reconciliation; the claims tables stay authoritative.
+ */
+@Entity
+@Table(name = "fund_budgets")
+public class FundBudget {
+
+    @Id
+    @Column(name = "disaster_type")
+    private String disasterType;
+
+    @Column(name = "budget_cents", nullable = false)
+    private long budgetCents;
+
+    @Column(name = "committed_cents", nullable = false)
+    private long committedCents;
+
+    @ColumnDefault("0")
+    @Column(name = "allocated_cents", nullable = false)
+    private long allocatedCents;
+
+    @Column(name = "checkpointed_at")
+    private LocalDateTime checkpointedAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public String getDisasterType() { return disasterType; }
+    public void setDisasterType(String disasterType) { this.disasterType = disasterType; }
+
+    public long getBudgetCents() { return budgetCents; }
+    public void setBudgetCents(long budgetCents) { this.budgetCents = budgetCents; }
+
+    public long getCommittedCents() { return committedCents; }
+    public void setCommittedCents(long committedCents) { this.committedCents = committedCents; }
+
+    public long getAllocatedCents() { return allocatedCents; }
+    public void setAllocatedCents(long allocatedCents) { this.allocatedCents = allocatedCents; }
+
+    public LocalDateTime getCheckpointedAt() { return checkpointedAt; }
+    public void setCheckpointedAt(LocalDateTime checkpointedAt) { this.checkpointedAt = checkpointedAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
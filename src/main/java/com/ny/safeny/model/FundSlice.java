@@ -0,0 +1,54 @@
+package com.ny.safeny.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * The part of a fund's budget one instance holds for local reservations. Renewed on every
+ * checkpoint; a row past expiresAt belongs to an instance that stopped, and its cents go back
+ * to the pool at the next reconciliation.
+ */
+@Entity
+@Table(name = "fund_slices", indexes = {
+        @Index(name = "idx_fund_slices_expires", columnList = "expires_at")
+})
+public class FundSlice {
+
+    // disaster type|node id
+    @Id
+    private String id;
+
+    @Column(name = "disaster_type", nullable = false)
+    private String disasterType;
+
+    @Column(name = "node_id", nullable = false)
+    private String nodeId;
+
+    /** Unreserved headroom plus reservations not yet settled */
+    @Column(nullable = false)
+    private long cents;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getDisasterType() { return disasterType; }
+    public void setDisasterType(String disasterType) { this.disasterType = disasterType; }
+
+    public String getNodeId() { return nodeId; }
+    public void setNodeId(String nodeId) { this.nodeId = nodeId; }
+
+    public long getCents() { return cents; }
+    public void setCents(long cents) { this.cents = cents; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
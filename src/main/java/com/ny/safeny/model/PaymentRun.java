@@ -0,0 +1,98 @@
+package com.ny.safeny.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One disbursement batch over APPROVED claims.
+ * The run is split into keyset ranges (PaymentRunChunk); a run that is not COMPLETED can be resumed.
+ */
+@Entity
+@Table(name = "payment_runs")
+public class PaymentRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RunStatus status;
+
+    @Column(name = "started_by")
+    private String startedBy;
+
+    @Column(name = "chunk_count")
+    private int chunkCount;
+
+    @Column(name = "claims_paid")
+    private long claimsPaid;
+
+    @Column(name = "total_cents")
+    private long totalCents;
+
+    @Column(name = "elapsed_millis")
+    private long elapsedMillis;
+
+    @Column(name = "file_path")
+    private String filePath;
+
+    @Column(name = "failure_reason")
+    private String failureReason;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (status == null) status = RunStatus.PLANNING;
+    }
+
+    public enum RunStatus {
+        PLANNING, RUNNING, FAILED, COMPLETED
+    }
+
+    /**
+     * Throughput of the processing that has run so far
+     */
+    public double getClaimsPerSecond() {
+        return elapsedMillis > 0 ? claimsPaid * 1000.0 / elapsedMillis : 0;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public RunStatus getStatus() { return status; }
+    public void setStatus(RunStatus status) { this.status = status; }
+
+    public String getStartedBy() { return startedBy; }
+    public void setStartedBy(String startedBy) { this.startedBy = startedBy; }
+
+    public int getChunkCount() { return chunkCount; }
+    public void setChunkCount(int chunkCount) { this.chunkCount = chunkCount; }
+
+    public long getClaimsPaid() { return claimsPaid; }
+    public void setClaimsPaid(long claimsPaid) { this.claimsPaid = claimsPaid; }
+
+    public long getTotalCents() { return totalCents; }
+    public void setTotalCents(long totalCents) { this.totalCents = totalCents; }
+
+    public long getElapsedMillis() { return elapsedMillis; }
+    public void setElapsedMillis(long elapsedMillis) { this.elapsedMillis = elapsedMillis; }
+
+    public String getFilePath() { return filePath; }
+    public void setFilePath(String filePath) { this.filePath = filePath; }
+
+    public String getFailureReason() { return failureReason; }
+    public void setFailureReason(String failureReason) { this.failureReason = failureReason; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+}
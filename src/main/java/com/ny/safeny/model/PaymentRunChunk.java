@@ -0,0 +1,80 @@
+package com.ny.safeny.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDateTime;
+
+/**
+ * Keyset range (fromId, toId] of a payment run on one shard; DONE once its claims are PAID.
+ * This row is the run's checkpoint: it lives on its claims' shard and commits in the same
+ * transaction as the PAID updates.
+ */
+@Entity
+@Table(name = "payment_run_chunks", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_payment_run_chunk", columnNames = {"run_id", "chunk_number"})
+})
+public class PaymentRunChunk {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
+    @Column(name = "chunk_number", nullable = false)
+    private int chunkNumber;
+
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int shard;
+
+    @Column(name = "from_id", nullable = false)
+    private long fromId;
+
+    @Column(name = "to_id", nullable = false)
+    private long toId;
+
+    @Column(nullable = false)
+    private boolean done;
+
+    @Column(name = "claim_count")
+    private int claimCount;
+
+    @Column(name = "total_cents")
+    private long totalCents;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getRunId() { return runId; }
+    public void setRunId(Long runId) { this.runId = runId; }
+
+    public int getChunkNumber() { return chunkNumber; }
+    public void setChunkNumber(int chunkNumber) { this.chunkNumber = chunkNumber; }
+
+    public int getShard() { return shard; }
+    public void setShard(int shard) { this.shard = shard; }
+
+    public long getFromId() { return fromId; }
+    public void setFromId(long fromId) { this.fromId = fromId; }
+
+    public long getToId() { return toId; }
+    public void setToId(long toId) { this.toId = toId; }
+
+    public boolean isDone() { return done; }
+    public void setDone(boolean done) { this.done = done; }
+
+    public int getClaimCount() { return claimCount; }
+    public void setClaimCount(int claimCount) { this.claimCount = claimCount; }
+
+    public long getTotalCents() { return totalCents; }
+    public void setTotalCents(long totalCents) { this.totalCents = totalCents; }
+
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+}
@@ -0,0 +1,72 @@
+package com.ny.safeny.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Persisted quantile sketch for one SLA stage, disaster type and day, holding one node's samples
+ */
+@Entity
+@Table(name = "sla_sketches", indexes = {
+        @Index(name = "idx_sla_sketches_day", columnList = "sketch_day"),
+        @Index(name = "idx_sla_sketches_updated", columnList = "updated_at")
+})
+public class SlaSketchRecord {
+
+    // stage|disaster type|day|node
+    @Id
+    private String id;
+
+    @Column(name = "node_id")
+    private String nodeId;
+
+    @Column(nullable = false)
+    private String stage;
+
+    @Column(name = "disaster_type", nullable = false)
+    private String disasterType;
+
+    // DAY is a reserved word in H2
+    @Column(name = "sketch_day", nullable = false)
+    private LocalDate day;
+
+    @Column(name = "sample_count", nullable = false)
+    private long sampleCount;
+
+    @Column(nullable = false, length = 16384)
+    private byte[] data;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getNodeId() { return nodeId; }
+    public void setNodeId(String nodeId) { this.nodeId = nodeId; }
+
+    public String getStage() { return stage; }
+    public void setStage(String stage) { this.stage = stage; }
+
+    public String getDisasterType() { return disasterType; }
+    public void setDisasterType(String disasterType) { this.disasterType = disasterType; }
+
+    public LocalDate getDay() { return day; }
+    public void setDay(LocalDate day) { this.day = day; }
+
+    public long getSampleCount() { return sampleCount; }
+    public void setSampleCount(long sampleCount) { this.sampleCount = sampleCount; }
+
+    public byte[] getData() { return data; }
+    public void setData(byte[] data) { this.data = data; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,21 @@
+package com.ny.safeny.monitoring;
+
+/**
+ * Raised when an endpoint issues more SQL statements than its {@link QueryBudget}
+ * and strict enforcement is enabled
+ */
+public class QueryBudgetExceededException extends RuntimeException {
+
+    private final int budget;
+    private final int actual;
+
+    public QueryBudgetExceededException(String endpoint, int budget, int actual) {
+        super("Query budget exceeded for " + endpoint + ": " + actual + " statements (budget " + budget + ")");
+        this.budget = budget;
+        this.actual = actual;
+    }
+
+    public int getBudget() { return budget; }
+
+    public int getActual() { return actual; }
+}
@@ -0,0 +1,111 @@
+package com.ny.safeny.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Query Budget Filter
+ * Opens a per-request statement counter ahead of the security chain so the JWT user
+ * lookup is included, then records the total and any budget overrun as metrics.
+ *
+ * The count is reported in a response header just before the response is committed, whether a
+ * body, an error, a redirect or nothing at all is written; {@link QueryBudgetInterceptor}
+ * decides whether it is over budget.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@RequiredArgsConstructor
+@Slf4j
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+    public static final String BUDGET_EXCEEDED_HEADER = "X-Query-Budget-Exceeded";
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        QueryCountInspector.begin();
+        CountingResponse counted = new CountingResponse(request, response);
+        try {
+            filterChain.doFilter(request, counted);
+        } finally {
+            // A response nothing was written to is committed by the container after this returns
+            counted.report();
+            int count = QueryCountInspector.end();
+            record(request, count);
+        }
+    }
+
+    private void record(HttpServletRequest request, int count) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNMATCHED";
+
+        DistributionSummary.builder("safeny.http.queries")
+                .description("SQL statements issued per request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(count);
+
+        QueryBudget queryBudget = QueryBudgetInterceptor.budget(request);
+        if (queryBudget != null && count > queryBudget.value()) {
+            Counter.builder("safeny.http.query.budget.exceeded")
+                    .description("Requests that issued more SQL statements than their declared budget")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .increment();
+            log.warn("Query budget exceeded: {} {} issued {} statements (budget {})",
+                    request.getMethod(), uri, count, queryBudget.value());
+        }
+    }
+
+    /**
+     * Sets the count headers once, just before the response is committed
+     */
+    private static final class CountingResponse extends OnCommittedResponseWrapper {
+
+        private final HttpServletRequest request;
+        private boolean reported;
+
+        CountingResponse(HttpServletRequest request, HttpServletResponse response) {
+            super(response);
+            this.request = request;
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            report();
+        }
+
+        void report() {
+            if (reported || isCommitted()) {
+                return;
+            }
+            reported = true;
+            int count = QueryCountInspector.current();
+            setHeader(QUERY_COUNT_HEADER, Integer.toString(count));
+            if (QueryBudgetInterceptor.exceeded(request, count)) {
+                setHeader(BUDGET_EXCEEDED_HEADER, "true");
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.ny.safeny.monitoring;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+/**
+ * Query Budget Interceptor
+ * Resolves the {@link QueryBudget} of the handler and checks the statement count against it.
+ *
+ * Overruns are always reported, through {@link QueryBudgetFilter}'s headers and metrics. Strict
+ * mode additionally fails the request once the handler returns; the handler's transaction has
+ * committed by then, so strict mode is for tests and is never enabled in a deployment.
+ */
+@Component
+public class QueryBudgetInterceptor implements HandlerInterceptor {
+
+    public static final String BUDGET_ATTRIBUTE = QueryBudget.class.getName();
+
+    @Value("${safeny.query-budget.fail-on-exceed:false}")
+    private boolean failOnExceed;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod) {
+            QueryBudget budget = handlerMethod.getMethodAnnotation(QueryBudget.class);
+            if (budget != null) {
+                request.setAttribute(BUDGET_ATTRIBUTE, budget);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        int count = QueryCountInspector.current();
+        if (failOnExceed && exceeded(request, count)) {
+            throw new QueryBudgetExceededException(
+                    request.getMethod() + " " + request.getRequestURI(), budget(request).value(), count);
+        }
+    }
+
+    /**
+     * The budget of the request's handler, or null when it declares none
+     */
+    public static QueryBudget budget(HttpServletRequest request) {
+        return request.getAttribute(BUDGET_ATTRIBUTE) instanceof QueryBudget budget ? budget : null;
+    }
+
+    public static boolean exceeded(HttpServletRequest request, int count) {
+        QueryBudget budget = budget(request);
+        return budget != null && count > budget.value();
+    }
+}
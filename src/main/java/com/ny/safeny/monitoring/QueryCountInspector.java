@@ -0,0 +1,72 @@
+package com.ny.safeny.monitoring;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Hibernate Statement Inspector
+ * Counts every SQL statement prepared on the current thread while a request scope is open,
+ * and on the pool threads the request hands work to through {@link #propagate(Supplier)}
+ */
+public class QueryCountInspector implements StatementInspector {
+
+    private static final ThreadLocal<AtomicInteger> COUNTER = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        AtomicInteger counter = COUNTER.get();
+        if (counter != null) {
+            counter.incrementAndGet();
+        }
+        return sql;
+    }
+
+    /**
+     * Start counting statements for the current thread
+     */
+    public static void begin() {
+        COUNTER.set(new AtomicInteger());
+    }
+
+    /**
+     * Number of statements issued since {@link #begin()}, or 0 when no scope is open
+     */
+    public static int current() {
+        AtomicInteger counter = COUNTER.get();
+        return counter != null ? counter.get() : 0;
+    }
+
+    /**
+     * Stop counting and return the final count
+     */
+    public static int end() {
+        int count = current();
+        COUNTER.remove();
+        return count;
+    }
+
+    /**
+     * Wrap a task for another thread so its statements count against the calling thread's scope
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> task) {
+        AtomicInteger counter = COUNTER.get();
+        if (counter == null) {
+            return task;
+        }
+        return () -> {
+            AtomicInteger previous = COUNTER.get();
+            COUNTER.set(counter);
+            try {
+                return task.get();
+            } finally {
+                if (previous != null) {
+                    COUNTER.set(previous);
+                } else {
+                    COUNTER.remove();
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,68 @@
+package com.ny.safeny.notification;
+
+import com.ny.safeny.model.OutboxNotification;
+import com.ny.safeny.model.OutboxNotification.Channel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Local stand-in for the mail and SMS gateways: appends every notification to a file, one line
+ * each, so development and load tests can check what would have been sent.
+ */
+@Component
+@ConditionalOnProperty(name = "safeny.notifications.sender", havingValue = "log", matchIfMissing = true)
+@Slf4j
+public class LogNotificationSender implements NotificationSender {
+
+    @Value("${safeny.notifications.log-file:./data/notifications/sent.log}")
+    private String logFile;
+
+    private FileChannel channel;
+
+    @PostConstruct
+    void open() throws IOException {
+        Path path = Paths.get(logFile);
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        log.info("Notifications are written to {}", path.toAbsolutePath());
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        channel.close();
+    }
+
+    @Override
+    public Set<Channel> channels() {
+        return EnumSet.allOf(Channel.class);
+    }
+
+    @Override
+    public void send(OutboxNotification notification, String message) throws IOException {
+        String line = LocalDateTime.now() + "\t" + notification.getId() + "\t" + notification.getChannel()
+                + "\t" + notification.getRecipient() + "\t" + message.replace('\n', ' ') + "\n";
+        ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+        // APPEND mode makes each write land at the end; the lock keeps lines from interleaving
+        synchronized (this) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.ny.safeny.notification;
+
+import com.ny.safeny.cluster.LeaseManager;
+import com.ny.safeny.datasource.DataSourceRouting;
+import com.ny.safeny.model.OutboxNotification;
+import com.ny.safeny.model.OutboxNotification.Channel;
+import com.ny.safeny.model.OutboxNotification.Status;
+import com.ny.safeny.ratelimit.RateLimiter;
+import com.ny.safeny.repository.OutboxNotificationRepository;
+import com.ny.safeny.sharding.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Notification Dispatcher
+ * Drains the notification outbox in batches. Each due notification takes a permit from its
+ * channel's rate limiter; notifications over the limit are pushed back to when a permit frees up
+ * rather than spending an attempt. Sends run in parallel on a fixed pool with a timeout, and the
+ * outcome of the whole batch is written back in one batched update: SENT, retry with exponential
+ * backoff and jitter, or FAILED after max-attempts.
+ */
+@Component
+@Slf4j
+public class NotificationDispatcher {
+
+    private static final String UPDATE_OUTCOME = "UPDATE notification_outbox "
+            + "SET status = ?, attempts = ?, next_attempt_at = ?, last_error = ?, sent_at = ? WHERE id = ?";
+
+    @Autowired
+    private OutboxNotificationRepository outboxNotificationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired(required = false)
+    private List<NotificationSender> senders = List.of();
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private LeaseManager leaseManager;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${safeny.notifications.batch-size:200}")
+    private int batchSize;
+
+    @Value("${safeny.notifications.max-batches-per-poll:20}")
+    private int maxBatchesPerPoll;
+
+    @Value("${safeny.notifications.parallelism:8}")
+    private int parallelism;
+
+    @Value("${safeny.notifications.send-timeout-ms:10000}")
+    private long sendTimeoutMillis;
+
+    @Value("${safeny.notifications.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${safeny.notifications.backoff-initial-ms:5000}")
+    private long backoffInitialMillis;
+
+    @Value("${safeny.notifications.backoff-max-ms:3600000}")
+    private long backoffMaxMillis;
+
+    @Value("${safeny.notifications.retention-days:14}")
+    private int retentionDays;
+
+    private final Map<Channel, NotificationSender> senderByChannel = new EnumMap<>(Channel.class);
+    private final Map<Channel, RateLimiter> limiters = new EnumMap<>(Channel.class);
+    private final Map<Channel, Counter> sent = new EnumMap<>(Channel.class);
+    private final Map<Channel, Counter> retried = new EnumMap<>(Channel.class);
+    private final Map<Channel, Counter> failed = new EnumMap<>(Channel.class);
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong pending = new AtomicLong();
+    private ExecutorService pool;
+
+    private record Outcome(long id, Status status, int attempts, LocalDateTime nextAttemptAt,
+                           String error, LocalDateTime sentAt) {
+    }
+
+    @PostConstruct
+    void init() {
+        for (NotificationSender sender : senders) {
+            for (Channel channel : sender.channels()) {
+                NotificationSender previous = senderByChannel.put(channel, sender);
+                if (previous != null) {
+                    throw new IllegalStateException("Both " + previous.getClass().getSimpleName() + " and "
+                            + sender.getClass().getSimpleName() + " send " + channel);
+                }
+            }
+        }
+        for (Channel channel : Channel.values()) {
+            String prefix = "safeny.notifications." + channel.name().toLowerCase() + ".";
+            double rate = environment.getProperty(prefix + "rate-per-second", Double.class, 20.0);
+            int burst = environment.getProperty(prefix + "burst", Integer.class, 20);
+            limiters.put(channel, new RateLimiter("notifications-" + channel.name().toLowerCase(), rate, burst, 1, 1));
+            sent.put(channel, counter("safeny.notifications.sent", channel));
+            retried.put(channel, counter("safeny.notifications.retried", channel));
+            failed.put(channel, counter("safeny.notifications.failed", channel));
+        }
+        Gauge.builder("safeny.notifications.pending", pending, AtomicLong::get)
+                .description("Pending notifications as of the last poll")
+                .register(meterRegistry);
+
+        AtomicInteger threads = new AtomicInteger();
+        pool = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "notification-sender-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Send everything due, a batch at a time, until the outbox is drained or the poll's batch budget is spent
+     */
+    @Scheduled(fixedDelayString = "${safeny.notifications.poll-interval-ms:2000}")
+    public void dispatch() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            // One dispatcher per cluster keeps the per-channel rate limits global
+            leaseManager.runExclusive("notifications", lease -> {
+                AtomicLong due = new AtomicLong();
+                // Each shard has its own outbox, written in the same transaction as its claims
+                shardRouter.forEachShard(shard -> {
+                    for (int i = 0; i < maxBatchesPerPoll && lease.isHeld(); i++) {
+                        if (dispatchBatch() < batchSize) {
+                            break;
+                        }
+                    }
+                    due.addAndGet(outboxNotificationRepository.countByStatus(Status.PENDING));
+                });
+                pending.set(due.get());
+            });
+        } catch (Exception e) {
+            log.error("Notification dispatch failed", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Drop delivered notifications past retention; failed ones stay for inspection
+     */
+    @Scheduled(cron = "${safeny.notifications.cleanup-cron:0 15 3 * * *}")
+    public void purgeSent() {
+        leaseManager.runExclusive("notifications-purge", lease -> shardRouter.forEachShard(shard -> {
+            int deleted = outboxNotificationRepository.deleteByStatusAndSentAtBefore(Status.SENT,
+                    LocalDateTime.now().minusDays(retentionDays));
+            if (deleted > 0) {
+                log.info("Purged {} delivered notifications on shard {}", deleted, shard);
+            }
+        }));
+    }
+
+    private int dispatchBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxNotification> due;
+        // The outbox must be read from the primary; a lagging replica would resend what was just sent
+        try (DataSourceRouting.Scope ignored = DataSourceRouting.primaryIf(true)) {
+            due = outboxNotificationRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByNextAttemptAtAscIdAsc(
+                    Status.PENDING, now, PageRequest.of(0, batchSize));
+        }
+        if (due.isEmpty()) {
+            return 0;
+        }
+
+        List<Outcome> outcomes = new ArrayList<>(due.size());
+        // Senders bound their own gateway calls; these limits only keep a hung one from stalling the outbox
+        long startBy = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+        List<CompletableFuture<Outcome>> sends = new ArrayList<>(due.size());
+        for (OutboxNotification notification : due) {
+            NotificationSender sender = senderByChannel.get(notification.getChannel());
+            if (sender == null) {
+                // No gateway for this channel right now; check again much later
+                outcomes.add(new Outcome(notification.getId(), Status.PENDING, notification.getAttempts(),
+                        now.plusNanos(TimeUnit.MILLISECONDS.toNanos(backoffMaxMillis)), "No sender for channel", null));
+                continue;
+            }
+            long waitNanos = limiters.get(notification.getChannel()).tryAcquire("all");
+            if (waitNanos > 0) {
+                outcomes.add(new Outcome(notification.getId(), Status.PENDING, notification.getAttempts(),
+                        now.plusNanos(waitNanos), notification.getLastError(), null));
+                continue;
+            }
+            sends.add(CompletableFuture
+                    .supplyAsync(() -> System.nanoTime() > startBy ? retryNow(notification) : send(sender, notification), pool)
+                    .completeOnTimeout(null, 2 * sendTimeoutMillis, TimeUnit.MILLISECONDS)
+                    .thenApply(outcome -> outcome != null ? outcome : failure(notification, "Send timed out")));
+        }
+        for (CompletableFuture<Outcome> future : sends) {
+            outcomes.add(future.join());
+        }
+
+        jdbcTemplate.batchUpdate(UPDATE_OUTCOME, outcomes, batchSize, (ps, outcome) -> {
+            ps.setString(1, outcome.status().name());
+            ps.setInt(2, outcome.attempts());
+            ps.setTimestamp(3, Timestamp.valueOf(outcome.nextAttemptAt()));
+            ps.setString(4, outcome.error());
+            ps.setTimestamp(5, outcome.sentAt() != null ? Timestamp.valueOf(outcome.sentAt()) : null);
+            ps.setLong(6, outcome.id());
+        });
+        return due.size();
+    }
+
+    private Outcome send(NotificationSender sender, OutboxNotification notification) {
+        try {
+            sender.send(notification, message(notification));
+            sent.get(notification.getChannel()).increment();
+            LocalDateTime now = LocalDateTime.now();
+            return new Outcome(notification.getId(), Status.SENT, notification.getAttempts() + 1, now, null, now);
+        } catch (Exception e) {
+            return failure(notification, e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+    }
+
+    /** Not attempted in this batch; does not count as an attempt */
+    private static Outcome retryNow(OutboxNotification notification) {
+        return new Outcome(notification.getId(), Status.PENDING, notification.getAttempts(),
+                LocalDateTime.now(), notification.getLastError(), null);
+    }
+
+    private Outcome failure(OutboxNotification notification, String error) {
+        int attempts = notification.getAttempts() + 1;
+        String truncated = error != null && error.length() > 500 ? error.substring(0, 500) : error;
+        if (attempts >= maxAttempts) {
+            failed.get(notification.getChannel()).increment();
+            log.warn("Notification {} for claim {} failed after {} attempts: {}",
+                    notification.getId(), notification.getClaimId(), attempts, error);
+            return new Outcome(notification.getId(), Status.FAILED, attempts, LocalDateTime.now(), truncated, null);
+        }
+        retried.get(notification.getChannel()).increment();
+        // Exponential backoff with jitter so a gateway outage is not followed by a synchronized retry storm
+        long backoff = Math.min(backoffMaxMillis, backoffInitialMillis << Math.min(attempts - 1, 30));
+        long delay = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        return new Outcome(notification.getId(), Status.PENDING, attempts,
+                LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(delay)), truncated, null);
+    }
+
+    static String message(OutboxNotification notification) {
+        String greeting = notification.getRecipientName() != null ? "Dear " + notification.getRecipientName() + ", " : "";
+        String amount = notification.getAmountCents() != null
+                ? " for $" + BigDecimal.valueOf(notification.getAmountCents(), 2).toPlainString() : "";
+        return switch (notification.getEventType()) {
+            case APPROVED -> greeting + "your SafeNY claim #" + notification.getClaimId() + " has been approved" + amount + ".";
+            case REJECTED -> greeting + "your SafeNY claim #" + notification.getClaimId()
+                    + " was not approved. Sign in to see the reviewer's comments.";
+            case PAID -> greeting + "payment" + amount + " for your SafeNY claim #" + notification.getClaimId() + " has been issued.";
+            default -> greeting + "your SafeNY claim #" + notification.getClaimId() + " is now " + notification.getEventType() + ".";
+        };
+    }
+
+    private Counter counter(String name, Channel channel) {
+        return Counter.builder(name).tag("channel", channel.name()).register(meterRegistry);
+    }
+}
@@ -0,0 +1,116 @@
+package com.ny.safeny.notification;
+
+import com.ny.safeny.model.Claim;
+import com.ny.safeny.model.Claim.ClaimStatus;
+import com.ny.safeny.model.OutboxNotification;
+import com.ny.safeny.model.OutboxNotification.Channel;
+import com.ny.safeny.model.User;
+import com.ny.safeny.repository.OutboxNotificationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Notification Outbox
+ * Queues claimant notifications inside the caller's transaction, so a notification exists if and
+ * only if the status change committed. Nothing here talks to a gateway; see NotificationDispatcher.
+ */
+@Component
+public class NotificationOutbox {
+
+    private static final Set<ClaimStatus> NOTIFIED = EnumSet.of(ClaimStatus.APPROVED, ClaimStatus.REJECTED, ClaimStatus.PAID);
+
+    // One row per claim and channel, only for users who have that contact detail
+    private static final String INSERT_PAID = "INSERT INTO notification_outbox "
+            + "(claim_id, event_type, channel, recipient, recipient_name, amount_cents, status, attempts, next_attempt_at, created_at) "
+            + "SELECT c.id, 'PAID', ?, %1$s, u.full_name, ?, 'PENDING', 0, ?, ? "
+            + "FROM claims c JOIN users u ON u.id = c.user_id WHERE c.id = ? AND %1$s IS NOT NULL AND %1$s <> ''";
+
+    @Autowired
+    private OutboxNotificationRepository outboxNotificationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${safeny.notifications.enabled:true}")
+    private boolean enabled;
+
+    @Value("${safeny.notifications.sms-enabled:true}")
+    private boolean smsEnabled;
+
+    /**
+     * Queue the claimant's notification for a status change, if the new status is one they hear about
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(Claim claim, ClaimStatus from) {
+        ClaimStatus to = claim.getStatus();
+        if (!enabled || to == from || !NOTIFIED.contains(to)) {
+            return;
+        }
+        User user = claim.getUser();
+        Long amountCents = to != ClaimStatus.REJECTED && claim.getApprovedAmount() != null
+                ? claim.getApprovedAmount().movePointRight(2).longValue() : null;
+
+        List<OutboxNotification> notifications = new ArrayList<>(2);
+        if (hasText(user.getEmail())) {
+            notifications.add(notification(claim, Channel.EMAIL, user.getEmail(), user.getFullName(), amountCents));
+        }
+        if (smsEnabled && hasText(user.getPhone())) {
+            notifications.add(notification(claim, Channel.SMS, user.getPhone(), user.getFullName(), amountCents));
+        }
+        outboxNotificationRepository.saveAll(notifications);
+    }
+
+    /**
+     * Queue PAID notifications for a batch of claims paid in the caller's transaction
+     * @param amountCentsByClaim paid amount per claim id
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueuePaid(Map<Long, Long> amountCentsByClaim, int batchSize) {
+        if (!enabled || amountCentsByClaim.isEmpty()) {
+            return;
+        }
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<Map.Entry<Long, Long>> rows = new ArrayList<>(amountCentsByClaim.entrySet());
+        insertPaid(Channel.EMAIL, "u.email", rows, now, batchSize);
+        if (smsEnabled) {
+            insertPaid(Channel.SMS, "u.phone", rows, now, batchSize);
+        }
+    }
+
+    private void insertPaid(Channel channel, String column, List<Map.Entry<Long, Long>> rows, Timestamp now, int batchSize) {
+        jdbcTemplate.batchUpdate(String.format(INSERT_PAID, column), rows, batchSize, (ps, row) -> {
+            ps.setString(1, channel.name());
+            ps.setLong(2, row.getValue());
+            ps.setTimestamp(3, now);
+            ps.setTimestamp(4, now);
+            ps.setLong(5, row.getKey());
+        });
+    }
+
+    private static OutboxNotification notification(Claim claim, Channel channel, String recipient,
+                                                   String recipientName, Long amountCents) {
+        OutboxNotification notification = new OutboxNotification();
+        notification.setClaimId(claim.getId());
+        notification.setEventType(claim.getStatus());
+        notification.setChannel(channel);
+        notification.setRecipient(recipient);
+        notification.setRecipientName(recipientName);
+        notification.setAmountCents(amountCents);
+        return notification;
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+}
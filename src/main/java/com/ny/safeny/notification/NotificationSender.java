@@ -0,0 +1,21 @@
+package com.ny.safeny.notification;
+
+import com.ny.safeny.model.OutboxNotification;
+import com.ny.safeny.model.OutboxNotification.Channel;
+
+import java.util.Set;
+
+/**
+ * Delivers notifications to a gateway. Implementations are picked up as beans, one per channel;
+ * a mail or SMS provider replaces {@link LogNotificationSender} by claiming its channels.
+ *
+ * send runs on the dispatcher's pool, never inside a database transaction. Throwing schedules a
+ * retry with backoff. The same notification can be sent again after a crash, so gateways that
+ * support it should use the notification id as the idempotency key.
+ */
+public interface NotificationSender {
+
+    Set<Channel> channels();
+
+    void send(OutboxNotification notification, String message) throws Exception;
+}
@@ -0,0 +1,114 @@
+package com.ny.safeny.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Adaptive concurrency limiter (TCP Vegas style)
+ *
+ * Admission is a single CAS on the in-flight count. The limit is re-estimated from completed
+ * requests: when latency rises above the no-load baseline the estimated queue grows and the
+ * limit shrinks, and while latency stays near the baseline the limit grows. Limit updates are
+ * sampled with tryLock so the request path never blocks on them.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final int BASELINE_PROBE_SAMPLES = 1000;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ReentrantLock updateLock = new ReentrantLock();
+
+    private volatile int limit;
+
+    // Guarded by updateLock
+    private long minRttNanos = Long.MAX_VALUE;
+    private double smoothedRttNanos;
+    private int samplesSinceProbe;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit) {
+        this.name = name;
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+    }
+
+    /**
+     * Try to admit one request; callers that get true must call {@link #release}
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Complete an admitted request
+     * @param rttNanos time the request spent in the application
+     * @param dropped true when the request failed in a way that signals overload
+     */
+    public void release(long rttNanos, boolean dropped) {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        if (!updateLock.tryLock()) {
+            return;
+        }
+        try {
+            int current = limit;
+            if (dropped) {
+                limit = clamp((int) (current * BACKOFF_RATIO));
+                return;
+            }
+
+            minRttNanos = Math.min(minRttNanos, rttNanos);
+            smoothedRttNanos = smoothedRttNanos == 0
+                    ? rttNanos
+                    : smoothedRttNanos * (1 - SMOOTHING) + rttNanos * SMOOTHING;
+
+            // Periodically re-learn the baseline so a permanently slower backend is not read as queueing
+            if (++samplesSinceProbe >= BASELINE_PROBE_SAMPLES) {
+                samplesSinceProbe = 0;
+                minRttNanos = (long) smoothedRttNanos;
+            }
+
+            double queue = current * (1.0 - minRttNanos / smoothedRttNanos);
+            int step = Math.max(1, (int) Math.log10(current));
+            int alpha = 3 * step;
+            int beta = 6 * step;
+
+            if (queue <= alpha && inFlightAtCompletion * 2 >= current) {
+                // Only grow when the current limit is actually being used
+                limit = clamp(current + step);
+            } else if (queue >= beta) {
+                limit = clamp(current - step);
+            }
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private int clamp(int value) {
+        return Math.min(maxLimit, Math.max(minLimit, value));
+    }
+}
@@ -0,0 +1,149 @@
+package com.ny.safeny.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Concurrency Limit Filter
+ * Separate adaptive bulkheads for auth, citizen and admin traffic so a login storm or a heavy
+ * admin listing cannot take every worker thread and connection. Requests over the limit are
+ * shed immediately with 503 and Retry-After instead of queueing.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 30)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    public enum Bulkhead {
+        AUTH, CITIZEN, ADMIN
+    }
+
+    private static final byte[] OVERLOADED_BODY =
+            "{\"error\":\"Service overloaded, please retry\"}".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${safeny.concurrency.enabled:true}")
+    private boolean enabled;
+
+    @Value("${safeny.concurrency.retry-after-seconds:1}")
+    private int retryAfterSeconds;
+
+    @Value("${safeny.concurrency.auth.initial-limit:20}")
+    private int authInitial;
+    @Value("${safeny.concurrency.auth.min-limit:4}")
+    private int authMin;
+    @Value("${safeny.concurrency.auth.max-limit:60}")
+    private int authMax;
+
+    @Value("${safeny.concurrency.citizen.initial-limit:50}")
+    private int citizenInitial;
+    @Value("${safeny.concurrency.citizen.min-limit:10}")
+    private int citizenMin;
+    @Value("${safeny.concurrency.citizen.max-limit:150}")
+    private int citizenMax;
+
+    @Value("${safeny.concurrency.admin.initial-limit:10}")
+    private int adminInitial;
+    @Value("${safeny.concurrency.admin.min-limit:2}")
+    private int adminMin;
+    @Value("${safeny.concurrency.admin.max-limit:30}")
+    private int adminMax;
+
+    private final Map<Bulkhead, AdaptiveConcurrencyLimiter> limiters = new EnumMap<>(Bulkhead.class);
+    private final Map<Bulkhead, Counter> shed = new EnumMap<>(Bulkhead.class);
+
+    @PostConstruct
+    void init() {
+        register(Bulkhead.AUTH, new AdaptiveConcurrencyLimiter("auth", authInitial, authMin, authMax));
+        register(Bulkhead.CITIZEN, new AdaptiveConcurrencyLimiter("citizen", citizenInitial, citizenMin, citizenMax));
+        register(Bulkhead.ADMIN, new AdaptiveConcurrencyLimiter("admin", adminInitial, adminMin, adminMax));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Bulkhead bulkhead = enabled ? classify(request.getServletPath()) : null;
+        if (bulkhead == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        AdaptiveConcurrencyLimiter limiter = limiters.get(bulkhead);
+        if (!limiter.tryAcquire()) {
+            shed.get(bulkhead).increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Integer.toString(retryAfterSeconds));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setContentLength(OVERLOADED_BODY.length);
+            response.getOutputStream().write(OVERLOADED_BODY);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean dropped = true;
+        try {
+            filterChain.doFilter(request, response);
+            dropped = response.getStatus() >= 500;
+        } finally {
+            limiter.release(System.nanoTime() - start, dropped);
+        }
+    }
+
+    static Bulkhead classify(String path) {
+        if (path.equals("/auth/availability")) {
+            // Mostly answered from memory in microseconds; sharing AUTH would pin its minimum RTT far
+            // below BCrypt login and register and hold that limit near min-limit. RateLimitFilter caps it per IP
+            return null;
+        }
+        if (path.startsWith("/auth/")) {
+            return Bulkhead.AUTH;
+        }
+        if (path.contains("/attachments")) {
+            // Transfer time tracks the client's bandwidth, not server load; AttachmentService caps these itself
+            return null;
+        }
+        if (path.equals("/claims/all") || path.equals("/claims/pending") || path.equals("/claims/statistics")
+                || path.startsWith("/disbursements/") || path.equals("/funds") || path.startsWith("/funds/")
+                || path.startsWith("/analytics/") || path.equals("/sla") || path.equals("/dashboard/admin")
+                || path.startsWith("/cluster/")) {
+            return Bulkhead.ADMIN;
+        }
+        if (path.equals("/claims") || path.startsWith("/claims/") || path.equals("/dashboard/citizen")) {
+            return Bulkhead.CITIZEN;
+        }
+        return null;
+    }
+
+    private void register(Bulkhead bulkhead, AdaptiveConcurrencyLimiter limiter) {
+        limiters.put(bulkhead, limiter);
+        Tags tags = Tags.of("bulkhead", limiter.getName());
+        shed.put(bulkhead, Counter.builder("safeny.concurrency.shed")
+                .description("Requests rejected because the bulkhead was at its concurrency limit")
+                .tags(tags)
+                .register(meterRegistry));
+        meterRegistry.gauge("safeny.concurrency.limit", tags, limiter, AdaptiveConcurrencyLimiter::getLimit);
+        meterRegistry.gauge("safeny.concurrency.in.flight", tags, limiter, AdaptiveConcurrencyLimiter::getInFlight);
+    }
+}
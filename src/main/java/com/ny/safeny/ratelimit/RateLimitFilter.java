@@ -0,0 +1,87 @@
+package com.ny.safeny.ratelimit;
+
+import com.ny.safeny.security.JwtTokenUtil;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate Limit Filter
+ * Runs ahead of Spring Security so rejected logins, claim submissions and availability checks
+ * never reach the JWT user lookup, BCrypt or the database.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final byte[] TOO_MANY_REQUESTS_BODY =
+            "{\"error\":\"Too many requests\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final RateLimitService rateLimitService;
+    private final JwtTokenUtil jwtTokenUtil;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long wait = 0;
+        if ("POST".equals(request.getMethod())) {
+            String path = request.getServletPath();
+            if ("/auth/login".equals(path)) {
+                wait = rateLimitService.checkLoginByIp(request.getRemoteAddr());
+            } else if ("/claims".equals(path)) {
+                wait = rateLimitService.checkClaimSubmission(tokenSubject(request), request.getRemoteAddr());
+            }
+        } else if ("GET".equals(request.getMethod()) && "/auth/availability".equals(request.getServletPath())) {
+            wait = rateLimitService.checkAvailability(request.getRemoteAddr());
+        }
+
+        if (wait > 0) {
+            reject(response, wait);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    static void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds(waitNanos)));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(TOO_MANY_REQUESTS_BODY.length);
+        response.getOutputStream().write(TOO_MANY_REQUESTS_BODY);
+    }
+
+    public static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * Username from the bearer token (signature-checked, no database lookup)
+     */
+    private String tokenSubject(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.startsWith("Bearer ")) {
+            return null;
+        }
+        try {
+            return jwtTokenUtil.extractUsername(header.substring(7));
+        } catch (Exception e) {
+            // Invalid tokens are rejected by the security chain
+            return null;
+        }
+    }
+}
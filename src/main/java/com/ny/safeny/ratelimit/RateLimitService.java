@@ -0,0 +1,144 @@
+package com.ny.safeny.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Rate Limit Service
+ * Per-client, per-user and global token buckets for login, claim submission and availability checks.
+ * Checks are in-memory only and never touch the database.
+ */
+@Service
+public class RateLimitService {
+
+    private static final String GLOBAL_KEY = "*";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${safeny.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${safeny.rate-limit.max-keys:100000}")
+    private int maxKeys;
+
+    @Value("${safeny.rate-limit.stripes:16}")
+    private int stripes;
+
+    @Value("${safeny.rate-limit.login.per-ip.rate:5}")
+    private double loginPerIpRate;
+    @Value("${safeny.rate-limit.login.per-ip.burst:20}")
+    private int loginPerIpBurst;
+    @Value("${safeny.rate-limit.login.per-username.rate:1}")
+    private double loginPerUsernameRate;
+    @Value("${safeny.rate-limit.login.per-username.burst:5}")
+    private int loginPerUsernameBurst;
+    @Value("${safeny.rate-limit.login.global.rate:200}")
+    private double loginGlobalRate;
+    @Value("${safeny.rate-limit.login.global.burst:400}")
+    private int loginGlobalBurst;
+
+    @Value("${safeny.rate-limit.claims.per-user.rate:0.5}")
+    private double claimsPerUserRate;
+    @Value("${safeny.rate-limit.claims.per-user.burst:5}")
+    private int claimsPerUserBurst;
+    @Value("${safeny.rate-limit.claims.per-ip.rate:5}")
+    private double claimsPerIpRate;
+    @Value("${safeny.rate-limit.claims.per-ip.burst:30}")
+    private int claimsPerIpBurst;
+    @Value("${safeny.rate-limit.claims.global.rate:500}")
+    private double claimsGlobalRate;
+    @Value("${safeny.rate-limit.claims.global.burst:1000}")
+    private int claimsGlobalBurst;
+
+    @Value("${safeny.rate-limit.availability.per-ip.rate:10}")
+    private double availabilityPerIpRate;
+    @Value("${safeny.rate-limit.availability.per-ip.burst:30}")
+    private int availabilityPerIpBurst;
+
+    private RateLimiter loginPerIp;
+    private RateLimiter loginPerUsername;
+    private RateLimiter loginGlobal;
+    private RateLimiter claimsPerUser;
+    private RateLimiter claimsPerIp;
+    private RateLimiter claimsGlobal;
+    private RateLimiter availabilityPerIp;
+
+    private final Map<RateLimiter, Counter> rejections = new HashMap<>();
+
+    @PostConstruct
+    void init() {
+        loginPerIp = register(new RateLimiter("login.per-ip", loginPerIpRate, loginPerIpBurst, maxKeys, stripes));
+        loginPerUsername = register(new RateLimiter("login.per-username", loginPerUsernameRate, loginPerUsernameBurst, maxKeys, stripes));
+        loginGlobal = register(new RateLimiter("login.global", loginGlobalRate, loginGlobalBurst, 1, 1));
+        claimsPerUser = register(new RateLimiter("claims.per-user", claimsPerUserRate, claimsPerUserBurst, maxKeys, stripes));
+        claimsPerIp = register(new RateLimiter("claims.per-ip", claimsPerIpRate, claimsPerIpBurst, maxKeys, stripes));
+        claimsGlobal = register(new RateLimiter("claims.global", claimsGlobalRate, claimsGlobalBurst, 1, 1));
+        availabilityPerIp = register(new RateLimiter("availability.per-ip", availabilityPerIpRate, availabilityPerIpBurst, maxKeys, stripes));
+    }
+
+    /**
+     * Login attempts from one client address
+     * @return 0 when allowed, otherwise nanoseconds to wait
+     */
+    public long checkLoginByIp(String clientIp) {
+        if (!enabled) return 0;
+        long wait = acquire(loginPerIp, clientIp);
+        return wait > 0 ? wait : acquire(loginGlobal, GLOBAL_KEY);
+    }
+
+    /**
+     * Login attempts against one account (each one costs a BCrypt verification)
+     */
+    public long checkLoginByUsername(String username) {
+        if (!enabled || username == null) return 0;
+        return acquire(loginPerUsername, username);
+    }
+
+    /**
+     * Claim submissions by one user from one client address
+     */
+    public long checkClaimSubmission(String username, String clientIp) {
+        if (!enabled) return 0;
+        long wait = acquire(claimsPerIp, clientIp);
+        if (wait == 0 && username != null) {
+            wait = acquire(claimsPerUser, username);
+        }
+        return wait > 0 ? wait : acquire(claimsGlobal, GLOBAL_KEY);
+    }
+
+    /**
+     * Username / email availability checks from one client address (keeps the endpoint from
+     * being used to enumerate accounts)
+     */
+    public long checkAvailability(String clientIp) {
+        if (!enabled) return 0;
+        return acquire(availabilityPerIp, clientIp);
+    }
+
+    private long acquire(RateLimiter limiter, String key) {
+        long wait = limiter.tryAcquire(key);
+        if (wait > 0) {
+            rejections.get(limiter).increment();
+        }
+        return wait;
+    }
+
+    private RateLimiter register(RateLimiter limiter) {
+        rejections.put(limiter, Counter.builder("safeny.rate.limit.rejected")
+                .description("Requests rejected by the rate limiter")
+                .tag("limiter", limiter.getName())
+                .register(meterRegistry));
+        meterRegistry.gauge("safeny.rate.limit.keys", Tags.of("limiter", limiter.getName()),
+                limiter, RateLimiter::size);
+        return limiter;
+    }
+}
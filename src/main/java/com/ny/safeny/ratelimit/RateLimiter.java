@@ -0,0 +1,108 @@
+package com.ny.safeny.ratelimit;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free keyed token bucket
+ *
+ * Each key holds a single "theoretical arrival time" (GCRA form of a token bucket), so a
+ * permit is one CAS with no refill thread. Keys are spread over independent stripes, and a
+ * stripe that reaches capacity drops buckets that have fully refilled, which loses no state.
+ * A new key examines a bounded batch of the stripe's buckets; if none can be dropped, the key
+ * shares one overflow bucket with every other untracked key instead of going unlimited.
+ */
+public class RateLimiter {
+
+    /** Buckets a full stripe examines for each new key */
+    private static final int EVICTION_BATCH = 64;
+
+    private final String name;
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final int maxKeysPerStripe;
+    private final ConcurrentHashMap<String, AtomicLong>[] stripes;
+    private final AtomicLong overflow = new AtomicLong();
+
+    @SuppressWarnings("unchecked")
+    public RateLimiter(String name, double permitsPerSecond, int burst, int maxKeys, int stripeCount) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Invalid rate limit for " + name);
+        }
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.name = name;
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.burstNanos = intervalNanos * burst;
+        this.maxKeysPerStripe = Math.max(1, maxKeys / size);
+        this.stripes = new ConcurrentHashMap[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * Take one permit for the key
+     * @return 0 when allowed, otherwise nanoseconds until a permit becomes available
+     */
+    public long tryAcquire(String key) {
+        long now = System.nanoTime();
+        AtomicLong bucket = bucket(key, now);
+        if (bucket == null) {
+            // The stripe is full of actively limited keys: keys it cannot track share one bucket
+            bucket = overflow;
+        }
+        while (true) {
+            long current = bucket.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long excess = next - now - burstNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (bucket.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int size() {
+        int size = 0;
+        for (ConcurrentHashMap<String, AtomicLong> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private AtomicLong bucket(String key, long now) {
+        int hash = key.hashCode();
+        ConcurrentHashMap<String, AtomicLong> stripe = stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+        AtomicLong bucket = stripe.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (stripe.size() >= maxKeysPerStripe) {
+            evict(stripe, now);
+            if (stripe.size() >= maxKeysPerStripe) {
+                return null;
+            }
+        }
+        return stripe.computeIfAbsent(key, k -> new AtomicLong(now));
+    }
+
+    /**
+     * Drop the fully refilled buckets among at most {@link #EVICTION_BATCH} of the stripe's buckets
+     */
+    private static void evict(ConcurrentHashMap<String, AtomicLong> stripe, long now) {
+        Iterator<AtomicLong> buckets = stripe.values().iterator();
+        for (int examined = 0; examined < EVICTION_BATCH && buckets.hasNext(); examined++) {
+            if (buckets.next().get() <= now) {
+                buckets.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.ny.safeny.registration;
+
+import com.ny.safeny.model.User;
+import com.ny.safeny.sharding.UserDirectory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Account Availability
+ * Answers "is this username / email taken?" from Bloom filters of every registered account, so the
+ * common case (a name nobody has) needs no query. A "maybe" is confirmed against the database, and
+ * the unique constraints on users remain the final word at insert time.
+ *
+ * The filters are built in the background after startup and then topped up with new user ids on a
+ * short interval, which also picks up accounts registered on other instances. Each top-up re-reads the
+ * last scan-overlap-ids ids, because a lower id can commit after a higher one has been scanned. Until
+ * the first build completes every check falls through to the database.
+ */
+@Component
+@Slf4j
+public class AccountAvailability {
+
+    private static final int SCAN_PAGE_SIZE = 10_000;
+
+    @Autowired
+    private UserDirectory userDirectory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${safeny.registration.expected-accounts:1000000}")
+    private long expectedAccounts;
+
+    @Value("${safeny.registration.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${safeny.registration.scan-overlap-ids:1000}")
+    private long scanOverlapIds;
+
+    private record Filters(BloomFilter usernames, BloomFilter emails, long capacity) {
+    }
+
+    private volatile Filters filters;
+    private final AtomicLong lastScannedId = new AtomicLong();
+    private final AtomicLong accounts = new AtomicLong();
+    private Counter skippedQueries;
+    private Counter confirmedQueries;
+
+    @PostConstruct
+    void init() {
+        skippedQueries = Counter.builder("safeny.registration.availability")
+                .tag("result", "filter-negative")
+                .description("Availability checks answered by the Bloom filter without a query")
+                .register(meterRegistry);
+        confirmedQueries = Counter.builder("safeny.registration.availability")
+                .tag("result", "database")
+                .description("Availability checks the Bloom filter sent to the database")
+                .register(meterRegistry);
+    }
+
+    /**
+     * True unless the username is certainly taken... confirmed in the database only when the filter says "maybe"
+     */
+    public boolean isUsernameAvailable(String username) {
+        if (!mightHaveUsername(username)) {
+            skippedQueries.increment();
+            return true;
+        }
+        confirmedQueries.increment();
+        return !userDirectory.usernameTaken(username);
+    }
+
+    public boolean isEmailAvailable(String email) {
+        if (!mightHaveEmail(email)) {
+            skippedQueries.increment();
+            return true;
+        }
+        confirmedQueries.increment();
+        return !userDirectory.emailTaken(email);
+    }
+
+    /**
+     * Add a newly inserted account so the next check for it goes to the database. Not counted here;
+     * the next scan reaches the same row and counts it once.
+     */
+    public void registered(User user) {
+        Filters current = filters;
+        if (current != null) {
+            current.usernames().add(normalize(user.getUsername()));
+            current.emails().add(normalize(user.getEmail()));
+        }
+    }
+
+    /**
+     * Build the filters on first run, then add accounts created since the last scan.
+     * Rebuilds at twice the size once the account count outgrows the filters' capacity.
+     */
+    @Scheduled(initialDelayString = "${safeny.registration.initial-delay-ms:0}",
+            fixedDelayString = "${safeny.registration.refresh-interval-ms:5000}")
+    public void refresh() {
+        Filters current = filters;
+        if (current == null || accounts.get() > current.capacity()) {
+            rebuild(current == null ? expectedAccounts : current.capacity() * 2);
+        } else {
+            scan(current, lastScannedId.get());
+        }
+    }
+
+    private boolean mightHaveUsername(String username) {
+        Filters current = filters;
+        return current == null || current.usernames().mightContain(normalize(username));
+    }
+
+    private boolean mightHaveEmail(String email) {
+        Filters current = filters;
+        return current == null || current.emails().mightContain(normalize(email));
+    }
+
+    private void rebuild(long capacity) {
+        long start = System.nanoTime();
+        long count = Math.max(capacity, 2 * userDirectory.count());
+        Filters rebuilt = new Filters(new BloomFilter(count, falsePositiveRate), new BloomFilter(count, falsePositiveRate), count);
+        accounts.set(0);
+        scan(rebuilt, 0);
+        // Accounts registered during the scan and not reached by it are picked up by the next refresh
+        filters = rebuilt;
+        log.info("Account availability filters built for {} accounts in {} ms ({} bits, {} hashes each)",
+                accounts.get(), (System.nanoTime() - start) / 1_000_000,
+                rebuilt.usernames().bitSize(), rebuilt.usernames().hashCount());
+    }
+
+    private void scan(Filters target, long watermark) {
+        // Adding an account twice leaves the filter unchanged; only ids above the watermark are counted,
+        // so a late commit inside the overlap is added to the filter but not to the capacity count
+        long lastId = Math.max(0, watermark - scanOverlapIds);
+        while (true) {
+            long[] last = {lastId};
+            int[] rows = {0};
+            int[] added = {0};
+            userDirectory.scan(lastId, SCAN_PAGE_SIZE, rs -> {
+                last[0] = rs.getLong(1);
+                target.usernames().add(normalize(rs.getString(2)));
+                target.emails().add(normalize(rs.getString(3)));
+                rows[0]++;
+                if (last[0] > watermark) {
+                    added[0]++;
+                }
+            });
+            accounts.addAndGet(added[0]);
+            lastId = last[0];
+            if (rows[0] < SCAN_PAGE_SIZE) {
+                break;
+            }
+        }
+        lastScannedId.set(Math.max(lastId, watermark));
+    }
+
+    // Case-folded: the filter may then say "maybe" more often than the exact database match, never less
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,13 @@
+package com.ny.safeny.repository;
+
+import com.ny.safeny.model.ArchivedClaim;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ArchivedClaimRepository extends JpaRepository<ArchivedClaim, Long> {
+
+    List<ArchivedClaim> findByUserIdOrderByCreatedAtDesc(Long userId);
+}
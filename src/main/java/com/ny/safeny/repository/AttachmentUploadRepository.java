@@ -0,0 +1,14 @@
+package com.ny.safeny.repository;
+
+import com.ny.safeny.model.AttachmentUpload;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface AttachmentUploadRepository extends JpaRepository<AttachmentUpload, String> {
+
+    List<AttachmentUpload> findByUpdatedAtBefore(LocalDateTime cutoff);
+}
@@ -0,0 +1,27 @@
+package com.ny.safeny.repository;
+
+import com.ny.safeny.model.ClaimAttachment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ClaimAttachmentRepository extends JpaRepository<ClaimAttachment, Long> {
+
+    List<ClaimAttachment> findByClaimIdOrderByCreatedAtAsc(Long claimId);
+
+    Optional<ClaimAttachment> findByClaimIdAndSha256(Long claimId, String sha256);
+
+    Optional<ClaimAttachment> findByIdAndClaimId(Long id, Long claimId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ClaimAttachment a WHERE a.claimId = :claimId")
+    int deleteByClaimId(@Param("claimId") Long claimId);
+}
@@ -0,0 +1,14 @@
+package com.ny.safeny.repository;
+
+import com.ny.safeny.model.ClaimEscalation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ClaimEscalationRepository extends JpaRepository<ClaimEscalation, Long> {
+
+    List<ClaimEscalation> findByOrderByEscalatedAtDescIdDesc(Pageable pageable);
+}
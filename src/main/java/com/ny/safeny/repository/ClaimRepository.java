@@ -2,6 +2,8 @@ package com.ny.safeny.repository;
 
 import com.ny.safeny.model.Claim;
 import com.ny.safeny.model.Claim.ClaimStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -12,7 +14,20 @@ public interface ClaimRepository extends JpaRepository<Claim, Long> {
     
     List<Claim> findByUserIdOrderByCreatedAtDesc(Long userId);
 
-    List<Claim> findByStatus(ClaimStatus status);
+    // Fetch the eager user association in the same select instead of one query per claimant
+    @Override
+    @EntityGraph(attributePaths = "user")
+    List<Claim> findAll();
+
+    // Admin lists: the id tie-breaker gives every shard the same total order to merge on
+    @EntityGraph(attributePaths = "user")
+    List<Claim> findByOrderByCreatedAtDescIdDesc(Pageable pageable);
+
+    @EntityGraph(attributePaths = "user")
+    List<Claim> findByStatusOrderByCreatedAtAscIdAsc(ClaimStatus status, Pageable pageable);
+
+    @EntityGraph(attributePaths = "user")
+    List<Claim> findByOrderByUpdatedAtDescIdDesc(Pageable pageable);
 
     long countByStatus(ClaimStatus status);
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.ny.safeny.repository;
+
+import com.ny.safeny.model.FundBudget;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface FundBudgetRepository extends JpaRepository<FundBudget, String> {
+}
@@ -0,0 +1,13 @@
+package com.ny.safeny.repository;
+
+import com.ny.safeny.model.JobLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface JobLeaseRepository extends JpaRepository<JobLease, String> {
+
+    List<JobLease> findAllByOrderByNameAsc();
+}
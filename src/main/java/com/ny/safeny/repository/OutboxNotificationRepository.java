@@ -0,0 +1,28 @@
+package com.ny.safeny.repository;
+
+import com.ny.safeny.model.OutboxNotification;
+import com.ny.safeny.model.OutboxNotification.Status;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxNotificationRepository extends JpaRepository<OutboxNotification, Long> {
+
+    List<OutboxNotification> findByStatusAndNextAttemptAtLessThanEqualOrderByNextAttemptAtAscIdAsc(
+            Status status, LocalDateTime now, Pageable pageable);
+
+    long countByStatus(Status status);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OutboxNotification n WHERE n.status = :status AND n.sentAt < :cutoff")
+    int deleteByStatusAndSentAtBefore(@Param("status") Status status, @Param("cutoff") LocalDateTime cutoff);
+}
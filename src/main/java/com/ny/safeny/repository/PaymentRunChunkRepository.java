@@ -0,0 +1,20 @@
+package com.ny.safeny.repository;
+
+import com.ny.safeny.model.PaymentRunChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PaymentRunChunkRepository extends JpaRepository<PaymentRunChunk, Long> {
+
+    List<PaymentRunChunk> findByRunIdOrderByChunkNumberAsc(Long runId);
+
+    @Modifying
+    @Query("DELETE FROM PaymentRunChunk c WHERE c.runId = :runId")
+    int deleteByRunId(@Param("runId") Long runId);
+}
@@ -0,0 +1,18 @@
+package com.ny.safeny.repository;
+
+import com.ny.safeny.model.PaymentRun;
+import com.ny.safeny.model.PaymentRun.RunStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PaymentRunRepository extends JpaRepository<PaymentRun, Long> {
+
+    Optional<PaymentRun> findFirstByStatusInOrderByIdAsc(Collection<RunStatus> statuses);
+
+    List<PaymentRun> findTop20ByOrderByIdDesc();
+}
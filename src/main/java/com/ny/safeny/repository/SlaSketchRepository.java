@@ -0,0 +1,26 @@
+package com.ny.safeny.repository;
+
+import com.ny.safeny.model.SlaSketchRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SlaSketchRepository extends JpaRepository<SlaSketchRecord, String> {
+
+    List<SlaSketchRecord> findByDayGreaterThanEqual(LocalDate day);
+
+    List<SlaSketchRecord> findByUpdatedAtGreaterThanEqual(LocalDateTime since);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM SlaSketchRecord s WHERE s.day < :day")
+    int deleteOlderThan(@Param("day") LocalDate day);
+}
@@ -1,25 +1,98 @@
 package com.ny.safeny.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Accessibility Service
  * Provides accessibility metadata and WCAG 2.1 AA compliance features
  * Differentiator: NYS requires Section 508/WCAG compliance
+ *
+ * The metadata is constant, so each map is built once, and its JSON is serialized and gzipped
+ * once at startup for the accessibility endpoints. Maps keep insertion order so the bytes, and
+ * with them the ETags, are identical on every instance.
  */
 @Service
 @Slf4j
 public class AccessibilityService {
-    
+
+    private static final Map<String, String> FORM_METADATA = formAccessibilityMetadata();
+    private static final Map<String, Object> CONTRAST_RATIOS = colorContrastRatios();
+    private static final Map<String, String> KEYBOARD_SHORTCUTS = keyboardShortcuts();
+    private static final Map<String, String> FONT_SIZES = recommendedFontSizes();
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Map<String, PreparedPayload> payloads;
+
+    @PostConstruct
+    void preparePayloads() {
+        Map<String, Object> all = new LinkedHashMap<>();
+        all.put("forms", FORM_METADATA);
+        all.put("contrast", CONTRAST_RATIOS);
+        all.put("keyboardShortcuts", KEYBOARD_SHORTCUTS);
+        all.put("fontSizes", FONT_SIZES);
+
+        Map<String, PreparedPayload> prepared = new LinkedHashMap<>();
+        all.forEach((name, content) -> prepared.put(name, prepare(content)));
+        prepared.put("all", prepare(all));
+        payloads = Collections.unmodifiableMap(prepared);
+        log.info("Prepared {} accessibility payloads", payloads.size());
+    }
+
+    /**
+     * Pre-serialized payload by name (forms, contrast, keyboardShortcuts, fontSizes or all), or null
+     */
+    public PreparedPayload getPayload(String name) {
+        return payloads.get(name);
+    }
+
     /**
      * Get accessibility metadata for forms
      */
     public Map<String, String> getFormAccessibilityMetadata() {
-        Map<String, String> metadata = new HashMap<>();
+        return FORM_METADATA;
+    }
+
+    /**
+     * Get color contrast ratios for WCAG 2.1 AA compliance
+     */
+    public Map<String, Object> getColorContrastRatios() {
+        return CONTRAST_RATIOS;
+    }
+
+    /**
+     * Get keyboard navigation shortcuts
+     */
+    public Map<String, String> getKeyboardShortcuts() {
+        return KEYBOARD_SHORTCUTS;
+    }
+
+    /**
+     * Get recommended font sizes for different screen readers
+     */
+    public Map<String, String> getRecommendedFontSizes() {
+        return FONT_SIZES;
+    }
+
+    private static Map<String, String> formAccessibilityMetadata() {
+        Map<String, String> metadata = new LinkedHashMap<>();
         
         // ARIA labels for screen readers
         metadata.put("disasterTypeLabel", "Select disaster type - Required field");
@@ -32,14 +105,11 @@ public class AccessibilityService {
         metadata.put("descriptionError", "Error: Description must be between 20 and 2000 characters.");
         metadata.put("amountError", "Error: Amount must be between $100 and $50,000.");
         
-        return metadata;
+        return Collections.unmodifiableMap(metadata);
     }
     
-    /**
-     * Get color contrast ratios for WCAG 2.1 AA compliance
-     */
-    public Map<String, Object> getColorContrastRatios() {
-        Map<String, Object> ratios = new HashMap<>();
+    private static Map<String, Object> colorContrastRatios() {
+        Map<String, Object> ratios = new LinkedHashMap<>();
         
         // NYS Standard Colors
         ratios.put("primaryBlue", "#0056b3");
@@ -51,14 +121,11 @@ public class AccessibilityService {
         ratios.put("highContrastYellow", "#FFFF00");
         ratios.put("highContrastRatio", "21:1"); // Maximum contrast
         
-        return ratios;
+        return Collections.unmodifiableMap(ratios);
     }
     
-    /**
-     * Get keyboard navigation shortcuts
-     */
-    public Map<String, String> getKeyboardShortcuts() {
-        Map<String, String> shortcuts = new HashMap<>();
+    private static Map<String, String> keyboardShortcuts() {
+        Map<String, String> shortcuts = new LinkedHashMap<>();
         
         shortcuts.put("skipToMain", "Alt + M - Skip to main content");
         shortcuts.put("focusSearch", "Alt + S - Focus on search field");
@@ -66,7 +133,7 @@ public class AccessibilityService {
         shortcuts.put("increaseFontSize", "Ctrl + Plus - Increase font size");
         shortcuts.put("decreaseFontSize", "Ctrl + Minus - Decrease font size");
         
-        return shortcuts;
+        return Collections.unmodifiableMap(shortcuts);
     }
     
     /**
@@ -94,11 +161,8 @@ public class AccessibilityService {
         return result;
     }
     
-    /**
-     * Get recommended font sizes for different screen readers
-     */
-    public Map<String, String> getRecommendedFontSizes() {
-        Map<String, String> sizes = new HashMap<>();
+    private static Map<String, String> recommendedFontSizes() {
+        Map<String, String> sizes = new LinkedHashMap<>();
         
         sizes.put("body", "16px"); // Minimum for readability
         sizes.put("heading1", "2rem");
@@ -106,9 +170,38 @@ public class AccessibilityService {
         sizes.put("buttonText", "1rem");
         sizes.put("errorMessage", "0.875rem");
         
-        return sizes;
+        return Collections.unmodifiableMap(sizes);
+    }
+
+    private PreparedPayload prepare(Object content) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(content);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Accessibility metadata is not serializable", e);
+        }
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream(json.length);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        String hash;
+        try {
+            hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        // A strong validator per representation, since the gzipped bytes differ from the plain ones
+        return new PreparedPayload(json, gzipped.toByteArray(), "\"" + hash + "\"", "\"" + hash + "-gzip\"");
     }
     
+    /**
+     * JSON bytes and their gzipped form with one ETag each; never modified after startup
+     */
+    public record PreparedPayload(byte[] json, byte[] gzipped, String etag, String gzipEtag) {
+    }
+
     /**
      * Accessibility Validation Result DTO
      */
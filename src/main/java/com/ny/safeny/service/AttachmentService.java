@@ -0,0 +1,362 @@
+package com.ny.safeny.service;
+
+import com.ny.safeny.cluster.LeaseManager;
+import com.ny.safeny.exception.NotFoundException;
+import com.ny.safeny.model.AttachmentUpload;
+import com.ny.safeny.model.ClaimAttachment;
+import com.ny.safeny.repository.AttachmentUploadRepository;
+import com.ny.safeny.repository.ClaimAttachmentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+
+/**
+ * Attachment Service
+ * Evidence files for claims, uploaded in resumable chunks and stored content-addressed on local disk.
+ *
+ * Chunks are streamed from the request straight into the partial file with channel transfers, so
+ * no upload is ever held on the heap. The recorded offset only moves after the bytes are forced to
+ * disk; a client that loses its connection asks for the offset and continues from there. When the
+ * last byte arrives the file is hashed and moved to blobs/ab/abcdef..., where a file uploaded
+ * before (by anyone) is reused instead of stored again. Downloads copy byte ranges from the blob
+ * with FileChannel.transferTo.
+ */
+@Service
+@Slf4j
+public class AttachmentService {
+
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private ClaimService claimService;
+
+    @Autowired
+    private ClaimAttachmentRepository claimAttachmentRepository;
+
+    @Autowired
+    private AttachmentUploadRepository attachmentUploadRepository;
+
+    @Autowired
+    private LeaseManager leaseManager;
+
+    @Value("${safeny.attachments.directory:./data/attachments}")
+    private String directory;
+
+    @Value("${safeny.attachments.max-size-bytes:26214400}")
+    private long maxSizeBytes;
+
+    @Value("${safeny.attachments.allowed-types:image/jpeg,image/png,image/heic,application/pdf}")
+    private String allowedTypes;
+
+    @Value("${safeny.attachments.max-concurrent-transfers:32}")
+    private int maxConcurrentTransfers;
+
+    @Value("${safeny.attachments.upload-expiry-hours:24}")
+    private int uploadExpiryHours;
+
+    private Path uploadsDir;
+    private Path blobsDir;
+    private Set<String> allowed;
+    private Semaphore transfers;
+
+    /** Uploads with a chunk currently streaming; a second writer is refused, not queued behind a slow client */
+    private final Set<String> activeUploads = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void init() throws IOException {
+        uploadsDir = Files.createDirectories(Paths.get(directory, "uploads"));
+        blobsDir = Files.createDirectories(Paths.get(directory, "blobs"));
+        allowed = Arrays.stream(allowedTypes.split(","))
+                .map(String::trim)
+                .filter(type -> !type.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        transfers = new Semaphore(maxConcurrentTransfers);
+    }
+
+    /**
+     * 1. Start a resumable upload for a claim the user can access
+     */
+    public AttachmentUpload startUpload(Long claimId, String username, String fileName, String contentType, long size) {
+        claimService.getClaimById(claimId, username);
+        if (size <= 0 || size > maxSizeBytes) {
+            throw new IllegalArgumentException("File size must be between 1 and " + maxSizeBytes + " bytes");
+        }
+        String type = contentType != null ? contentType.trim().toLowerCase() : "";
+        if (!allowed.contains(type)) {
+            throw new IllegalArgumentException("Content type not allowed: " + contentType);
+        }
+
+        AttachmentUpload upload = new AttachmentUpload();
+        upload.setId(UUID.randomUUID().toString());
+        upload.setClaimId(claimId);
+        upload.setUsername(username);
+        upload.setFileName(sanitizeFileName(fileName));
+        upload.setContentType(type);
+        upload.setTotalBytes(size);
+        upload.setReceivedBytes(0);
+        try {
+            Files.createFile(partPath(upload.getId()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return attachmentUploadRepository.save(upload);
+    }
+
+    /**
+     * 2. Current state of an upload, used by clients to find the offset to resume from
+     */
+    public AttachmentUpload getUpload(Long claimId, String uploadId, String username) {
+        return attachmentUploadRepository.findById(uploadId)
+                .filter(u -> u.getClaimId().equals(claimId) && u.getUsername().equals(username))
+                .orElseThrow(() -> new NotFoundException("Upload not found"));
+    }
+
+    /**
+     * 3. Append a chunk at the given offset. Completes the attachment when the last byte arrives.
+     * @return the attachment once complete, otherwise null
+     * @throws IllegalStateException if offset is not where the upload currently ends
+     */
+    public ClaimAttachment appendChunk(Long claimId, String uploadId, String username, long offset, InputStream body) {
+        if (!activeUploads.add(uploadId)) {
+            throw new IllegalStateException("Another chunk of this upload is in progress");
+        }
+        if (!transfers.tryAcquire()) {
+            activeUploads.remove(uploadId);
+            throw new TransferLimitException();
+        }
+        try {
+            // Read after claiming the upload so the offset check sees the last committed chunk
+            AttachmentUpload upload = getUpload(claimId, uploadId, username);
+            if (offset != upload.getReceivedBytes()) {
+                throw new IllegalStateException("Upload is at offset " + upload.getReceivedBytes());
+            }
+
+            long received = writeChunk(partPath(uploadId), offset, upload.getTotalBytes(), body);
+            upload.setReceivedBytes(received);
+            if (received < upload.getTotalBytes()) {
+                attachmentUploadRepository.save(upload);
+                return null;
+            }
+            return complete(upload);
+        } finally {
+            transfers.release();
+            activeUploads.remove(uploadId);
+        }
+    }
+
+    /**
+     * 4. Attachments of a claim the user can access
+     */
+    public List<ClaimAttachment> getAttachments(Long claimId, String username) {
+        claimService.getClaimById(claimId, username);
+        return claimAttachmentRepository.findByClaimIdOrderByCreatedAtAsc(claimId);
+    }
+
+    /**
+     * 5. One attachment of a claim the user can access
+     */
+    public ClaimAttachment getAttachment(Long claimId, Long attachmentId, String username) {
+        claimService.getClaimById(claimId, username);
+        return claimAttachmentRepository.findByIdAndClaimId(attachmentId, claimId)
+                .orElseThrow(() -> new NotFoundException("Attachment not found"));
+    }
+
+    /**
+     * 6. Copy bytes [start, start + length) of an attachment to the response channel
+     */
+    public void transfer(ClaimAttachment attachment, long start, long length, WritableByteChannel target) throws IOException {
+        if (!transfers.tryAcquire()) {
+            throw new TransferLimitException();
+        }
+        try (FileChannel channel = FileChannel.open(blobPath(attachment.getSha256()), StandardOpenOption.READ)) {
+            long position = start;
+            long end = start + length;
+            while (position < end) {
+                long sent = channel.transferTo(position, end - position, target);
+                if (sent <= 0) {
+                    throw new IOException("Attachment " + attachment.getId() + " is shorter than recorded");
+                }
+                position += sent;
+            }
+        } finally {
+            transfers.release();
+        }
+    }
+
+    /**
+     * Drop uploads that stopped receiving chunks, together with their partial files
+     */
+    @Scheduled(fixedDelayString = "${safeny.attachments.cleanup-interval-ms:3600000}")
+    public void expireUploads() {
+        // The attachment directory is shared storage when several instances run; one of them cleans it
+        leaseManager.runExclusive("attachment-expiry", lease -> {
+            LocalDateTime cutoff = LocalDateTime.now().minusHours(uploadExpiryHours);
+            List<AttachmentUpload> stale = attachmentUploadRepository.findByUpdatedAtBefore(cutoff);
+            for (AttachmentUpload upload : stale) {
+                try {
+                    Files.deleteIfExists(partPath(upload.getId()));
+                } catch (IOException e) {
+                    log.warn("Could not delete partial upload {}", upload.getId(), e);
+                    continue;
+                }
+                attachmentUploadRepository.delete(upload);
+            }
+            if (!stale.isEmpty()) {
+                log.info("Expired {} abandoned attachment uploads", stale.size());
+            }
+        });
+    }
+
+    /** Thrown when too many uploads and downloads are already streaming */
+    public static class TransferLimitException extends RuntimeException {
+
+        public TransferLimitException() {
+            super("Too many attachment transfers in progress");
+        }
+    }
+
+    /**
+     * Streams the request body into the partial file at offset. Returns the new end of the upload.
+     * Anything past the declared size is rejected rather than truncated.
+     */
+    private static long writeChunk(Path part, long offset, long totalBytes, InputStream body) {
+        ReadableByteChannel source = Channels.newChannel(body);
+        try (FileChannel file = FileChannel.open(part, StandardOpenOption.WRITE)) {
+            long remaining = totalBytes - offset;
+            long written = 0;
+            while (written < remaining) {
+                long n = file.transferFrom(source, offset + written, remaining - written);
+                if (n <= 0) {
+                    break;
+                }
+                written += n;
+            }
+            if (written == remaining && source.read(ByteBuffer.allocate(1)) > 0) {
+                throw new IllegalArgumentException("Chunk exceeds the declared file size");
+            }
+            // Bytes from an earlier attempt that never got recorded are overwritten or cut off here
+            file.truncate(offset + written);
+            // The offset is only recorded once the data is durable
+            file.force(false);
+            return offset + written;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ClaimAttachment complete(AttachmentUpload upload) {
+        Path part = partPath(upload.getId());
+        String sha256 = hash(part);
+        Path blob = blobPath(sha256);
+        try {
+            Files.createDirectories(blob.getParent());
+            if (Files.exists(blob)) {
+                Files.delete(part);
+            } else {
+                moveIntoPlace(part, blob);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        ClaimAttachment attachment = claimAttachmentRepository
+                .findByClaimIdAndSha256(upload.getClaimId(), sha256)
+                .orElseGet(() -> {
+                    ClaimAttachment created = new ClaimAttachment();
+                    created.setClaimId(upload.getClaimId());
+                    created.setFileName(upload.getFileName());
+                    created.setContentType(upload.getContentType());
+                    created.setSizeBytes(upload.getTotalBytes());
+                    created.setSha256(sha256);
+                    created.setUploadedBy(upload.getUsername());
+                    return claimAttachmentRepository.save(created);
+                });
+        attachmentUploadRepository.delete(upload);
+        log.info("Attachment {} ({} bytes) stored for claim {}", sha256, upload.getTotalBytes(), upload.getClaimId());
+        return attachment;
+    }
+
+    private static void moveIntoPlace(Path part, Path blob) throws IOException {
+        try {
+            Files.move(part, blob, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            try {
+                Files.move(part, blob);
+            } catch (FileAlreadyExistsException raced) {
+                Files.delete(part);
+            }
+        } catch (FileAlreadyExistsException raced) {
+            // The same content finished uploading concurrently; keep theirs
+            Files.delete(part);
+        }
+    }
+
+    private static String hash(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            ByteBuffer buffer = ByteBuffer.allocateDirect(HASH_BUFFER_SIZE);
+            while (channel.read(buffer) > 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Path partPath(String uploadId) {
+        // Upload ids come from the URL; only accept the UUIDs we issue
+        UUID.fromString(uploadId);
+        return uploadsDir.resolve(uploadId + ".part");
+    }
+
+    private Path blobPath(String sha256) {
+        return blobsDir.resolve(sha256.substring(0, 2)).resolve(sha256);
+    }
+
+    private static String sanitizeFileName(String fileName) {
+        if (fileName == null || fileName.isBlank()) {
+            return "attachment";
+        }
+        String name = fileName.replace('\\', '/');
+        name = name.substring(name.lastIndexOf('/') + 1).replaceAll("[\\p{Cntrl}\"]", "").trim();
+        if (name.isEmpty()) {
+            return "attachment";
+        }
+        return name.length() > 255 ? name.substring(name.length() - 255) : name;
+    }
+}
@@ -1,15 +1,20 @@
 package com.ny.safeny.service;
 
+import com.ny.safeny.datasource.ShardRouting;
 import com.ny.safeny.dto.AuthRequest;
 import com.ny.safeny.dto.AuthResponse;
 import com.ny.safeny.dto.RegisterRequest;
+import com.ny.safeny.exception.ConflictException;
+import com.ny.safeny.exception.NotFoundException;
 import com.ny.safeny.model.User;
+import com.ny.safeny.registration.AccountAvailability;
 import com.ny.safeny.repository.UserRepository;
 import com.ny.safeny.security.JwtTokenUtil;
+import com.ny.safeny.sharding.UserDirectory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -29,28 +34,33 @@ public class AuthService {
     private JwtTokenUtil jwtTokenUtil;
 
     @Autowired
-    private CustomUserDetailsService userDetailsService;
+    private UserDirectory userDirectory;
+
+    @Autowired
+    private AccountAvailability accountAvailability;
 
     public AuthResponse login(AuthRequest request) {
         authenticationManager.authenticate(
             new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
         );
 
-        UserDetails userDetails = userDetailsService.loadUserByUsername(request.getUsername());
-        String token = jwtTokenUtil.generateToken(userDetails);
-
-        User user = userRepository.findByUsername(request.getUsername())
-            .orElseThrow(() -> new RuntimeException("User not found"));
+        User user;
+        try (ShardRouting.Scope ignored = userDirectory.forUser(request.getUsername())) {
+            user = userRepository.findByUsername(request.getUsername())
+                .orElseThrow(() -> new NotFoundException("User not found"));
+        }
+        String token = jwtTokenUtil.generateToken(CustomUserDetailsService.toUserDetails(user));
 
         return new AuthResponse(token, user.getUsername(), user.getFullName(), user.getEmail(), user.getRole().name());
     }
 
     public AuthResponse register(RegisterRequest request) {
-        if (userRepository.existsByUsername(request.getUsername())) {
-            throw new RuntimeException("Username already exists");
+        // 1. Pre-insert checks: the Bloom filter answers most of them without a query
+        if (!accountAvailability.isUsernameAvailable(request.getUsername())) {
+            throw new ConflictException("Username already exists");
         }
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new RuntimeException("Email already exists");
+        if (!accountAvailability.isEmailAvailable(request.getEmail())) {
+            throw new ConflictException("Email already exists");
         }
 
         User user = new User();
@@ -67,9 +77,19 @@ public class AuthService {
             user.setRole(User.Role.ROLE_USER);
         }
 
-        User savedUser = userRepository.save(user);
-        UserDetails userDetails = userDetailsService.loadUserByUsername(savedUser.getUsername());
-        String token = jwtTokenUtil.generateToken(userDetails);
+        // 2. One insert (two when sharded: directory, then the user's shard); the unique constraints
+        //    settle races the checks above cannot see
+        User savedUser;
+        try {
+            savedUser = userDirectory.insert(user);
+        } catch (DataIntegrityViolationException e) {
+            throw new ConflictException(userDirectory.usernameTaken(request.getUsername())
+                    ? "Username already exists" : "Email already exists");
+        }
+        accountAvailability.registered(savedUser);
+
+        // 3. Token from the saved entity, no reload
+        String token = jwtTokenUtil.generateToken(CustomUserDetailsService.toUserDetails(savedUser));
 
         return new AuthResponse(token, savedUser.getUsername(), savedUser.getFullName(), 
                                savedUser.getEmail(), savedUser.getRole().name());
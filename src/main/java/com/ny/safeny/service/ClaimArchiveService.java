@@ -0,0 +1,246 @@
+package com.ny.safeny.service;
+
+import com.ny.safeny.cluster.Lease;
+import com.ny.safeny.cluster.LeaseLostException;
+import com.ny.safeny.cluster.LeaseManager;
+import com.ny.safeny.model.ArchivedClaim;
+import com.ny.safeny.model.Claim;
+import com.ny.safeny.model.User;
+import com.ny.safeny.repository.ArchivedClaimRepository;
+import com.ny.safeny.repository.UserRepository;
+import com.ny.safeny.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Claim Archive Service
+ * Moves PAID and REJECTED claims older than the configured age from the live claims table
+ * into claim_history, one batch per transaction, and serves lookups of archived claims.
+ * When sharded, every shard archives its own claims into its own claim_history.
+ */
+@Service
+@Slf4j
+public class ClaimArchiveService {
+
+    private static final String COLUMNS = "id, user_id, disaster_type, description, incident_date, location, "
+            + "request_amount, status, reviewer_id, review_comments, approved_amount, created_at, updated_at, reviewed_at";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ArchivedClaimRepository archivedClaimRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LeaseManager leaseManager;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${safeny.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${safeny.archive.min-age-days:90}")
+    private int minAgeDays;
+
+    @Value("${safeny.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${safeny.archive.shards:8}")
+    private int shards;
+
+    @Value("${safeny.archive.shard-block-size:10000}")
+    private long shardBlockSize;
+
+    // Partition names by database shard, e.g. "1/claim_history_202401"
+    private final Set<String> knownPartitions = ConcurrentHashMap.newKeySet();
+    private final Map<Integer, Boolean> partitioned = new ConcurrentHashMap<>();
+
+    /**
+     * 1. Archive closed claims (nightly), sharded by id range across instances
+     */
+    @Scheduled(cron = "${safeny.archive.cron:0 30 2 * * *}")
+    public void scheduledArchive() {
+        if (enabled) {
+            // Instances fire on the same cron minute, so the minute identifies the run
+            String runKey = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES).toString();
+            leaseManager.runSharded("archive", shards, runKey, this::archiveShard);
+        }
+    }
+
+    /**
+     * 2. Archive all eligible claims in batches
+     * @return number of claims moved
+     */
+    public int archiveClosedClaims() {
+        int moved = 0;
+        for (int shard = 0; shard < shards; shard++) {
+            moved += archiveShard(shard, shards, null);
+        }
+        return moved;
+    }
+
+    /**
+     * Archive the claims of one shard: id blocks shard, shard + shardCount, shard + 2 * shardCount, ...
+     * Fixed-width blocks keep the split identical on every instance whatever the data looks like.
+     * The blocks are taken on every database shard, each of which archives its own claims.
+     * @param lease the shard's lease, checked in every batch transaction; null when not coordinated
+     */
+    private int archiveShard(int shard, int shardCount, Lease lease) {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(minAgeDays);
+        int[] moved = {0};
+        shardRouter.forEachShard(database -> {
+            isPartitioned(database);
+            Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM claims", Long.class);
+            if (maxId == null) {
+                return;
+            }
+            for (long block = shard; block * shardBlockSize < maxId; block += shardCount) {
+                long blockEnd = (block + 1) * shardBlockSize;
+                moved[0] += archiveRange(database, block * shardBlockSize, blockEnd, cutoff, lease);
+            }
+        });
+        if (moved[0] > 0) {
+            log.info("Archived {} closed claims older than {} days (shard {} of {})", moved[0], minAgeDays, shard, shardCount);
+        }
+        return moved[0];
+    }
+
+    private int archiveRange(int database, long fromId, long toId, LocalDateTime cutoff, Lease lease) {
+        long lastId = fromId;
+        int moved = 0;
+
+        while (true) {
+            List<Object[]> batch = jdbcTemplate.query(
+                    "SELECT id, created_at FROM claims WHERE status IN ('PAID', 'REJECTED') "
+                            + "AND updated_at < ? AND id > ? AND id <= ? ORDER BY id FETCH FIRST " + batchSize + " ROWS ONLY",
+                    (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getTimestamp(2)},
+                    Timestamp.valueOf(cutoff), lastId, toId);
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            List<Long> ids = new ArrayList<>(batch.size());
+            Set<YearMonth> months = new TreeSet<>();
+            for (Object[] row : batch) {
+                ids.add((Long) row[0]);
+                if (row[1] != null) {
+                    months.add(YearMonth.from(((Timestamp) row[1]).toLocalDateTime()));
+                }
+            }
+            lastId = ids.get(ids.size() - 1);
+
+            List<String> created = new ArrayList<>();
+            try {
+                Integer count = leaseManager.commitFenced(lease, database, () -> moveBatch(database, ids, months, created));
+                moved += count != null ? count : 0;
+                // Only now are the partitions committed; a rolled-back batch rolls its CREATE TABLE back too
+                knownPartitions.addAll(created);
+            } catch (LeaseLostException e) {
+                // Every later batch would fail the same way; the shard is left for the lease's new holder
+                throw e;
+            } catch (RuntimeException e) {
+                log.error("Archiving claims {} to {} on database {} failed; they are retried on the next run",
+                        ids.get(0), lastId, database, e);
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * 3. Find an archived claim by ID
+     */
+    @Transactional(readOnly = true)
+    public Optional<Claim> findArchivedClaim(Long id) {
+        return archivedClaimRepository.findById(id)
+                .flatMap(archived -> userRepository.findById(archived.getUserId()).map(archived::toClaim));
+    }
+
+    /**
+     * 4. Archived claims of a user, newest first
+     */
+    @Transactional(readOnly = true)
+    public List<Claim> findArchivedClaims(User owner) {
+        List<ArchivedClaim> archived = archivedClaimRepository.findByUserIdOrderByCreatedAtDesc(owner.getId());
+        if (archived.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return archived.stream().map(a -> a.toClaim(owner)).collect(Collectors.toList());
+    }
+
+    private int moveBatch(int database, List<Long> ids, Set<YearMonth> months, List<String> created) {
+        months.forEach(month -> ensurePartition(database, month, created));
+
+        String placeholders = ids.stream().map(id -> "?").collect(Collectors.joining(", "));
+        Object[] args = ids.toArray();
+
+        Object[] insertArgs = new Object[args.length + 1];
+        insertArgs[0] = Timestamp.valueOf(LocalDateTime.now());
+        System.arraycopy(args, 0, insertArgs, 1, args.length);
+
+        int inserted = jdbcTemplate.update(
+                "INSERT INTO claim_history (" + COLUMNS + ", archived_at) "
+                        + "SELECT " + COLUMNS + ", ? FROM claims WHERE id IN (" + placeholders + ")",
+                insertArgs);
+        jdbcTemplate.update("DELETE FROM claims WHERE id IN (" + placeholders + ")", args);
+        return inserted;
+    }
+
+    /**
+     * Create the month partition on PostgreSQL when claim_history is a partitioned table.
+     * The partition is added to {@code created}, which the caller records once the batch commits.
+     */
+    private void ensurePartition(int database, YearMonth month, List<String> created) {
+        String partition = String.format("claim_history_%04d%02d", month.getYear(), month.getMonthValue());
+        if (!isPartitioned(database) || knownPartitions.contains(database + "/" + partition)) {
+            return;
+        }
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF claim_history "
+                + "FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        created.add(database + "/" + partition);
+    }
+
+    /**
+     * Checked once per database shard outside any transaction, before its first batch
+     */
+    private boolean isPartitioned(int database) {
+        Boolean result = partitioned.get(database);
+        if (result == null) {
+            try {
+                String kind = jdbcTemplate.queryForObject(
+                        "SELECT CAST(relkind AS VARCHAR) FROM pg_class WHERE relname = 'claim_history'", String.class);
+                result = "p".equals(kind);
+            } catch (Exception e) {
+                // Not PostgreSQL, or the table is a plain one created by Hibernate
+                result = false;
+            }
+            partitioned.put(database, result);
+        }
+        return result;
+    }
+}
@@ -1,163 +1,274 @@
 package com.ny.safeny.service;
 
+import com.ny.safeny.audit.AuditRecord;
+import com.ny.safeny.audit.ClaimAuditLog;
+import com.ny.safeny.datasource.DataSourceRouting;
+import com.ny.safeny.datasource.ReplicaConsistencyTracker;
+import com.ny.safeny.datasource.ShardRouting;
+import com.ny.safeny.escalation.ClaimEscalationScheduler;
+import com.ny.safeny.exception.ConflictException;
+import com.ny.safeny.exception.ForbiddenException;
+import com.ny.safeny.exception.NotFoundException;
+import com.ny.safeny.ledger.FundLedger;
 import com.ny.safeny.model.Claim;
 import com.ny.safeny.model.Claim.ClaimStatus;
 import com.ny.safeny.model.User;
+import com.ny.safeny.notification.NotificationOutbox;
+import com.ny.safeny.repository.ClaimAttachmentRepository;
 import com.ny.safeny.repository.ClaimRepository;
 import com.ny.safeny.repository.UserRepository;
+import com.ny.safeny.sharding.ShardRouter;
+import com.ny.safeny.sharding.UserDirectory;
+import com.ny.safeny.sla.SlaStage;
+import com.ny.safeny.sla.SlaTracker;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 @Service
 @Transactional
+@Slf4j
 public class ClaimService {
 
+    /** Deepest row a paged admin list may reach; every shard returns up to this many rows */
+    private static final int MAX_PAGE_WINDOW = 10_000;
+
+    private static final String DELETE_ATTACHMENTS = "DELETE FROM claim_attachments WHERE claim_id = ?";
+
+    private static final Comparator<Claim> NEWEST_FIRST = Comparator
+            .comparing(Claim::getCreatedAt, Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder()))
+            .thenComparing(Claim::getId, Comparator.reverseOrder());
+
+    private static final Comparator<Claim> OLDEST_FIRST = Comparator
+            .comparing(Claim::getCreatedAt, Comparator.nullsLast(Comparator.<LocalDateTime>naturalOrder()))
+            .thenComparing(Claim::getId);
+
+    private static final Comparator<Claim> RECENTLY_UPDATED = Comparator
+            .comparing(Claim::getUpdatedAt, Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder()))
+            .thenComparing(Claim::getId, Comparator.reverseOrder());
+
     @Autowired
     private ClaimRepository claimRepository;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ClaimAttachmentRepository claimAttachmentRepository;
+
+    @Autowired
+    private NotificationOutbox notificationOutbox;
+
+    @Autowired
+    private ReplicaConsistencyTracker consistencyTracker;
+
+    @Autowired
+    private ClaimArchiveService claimArchiveService;
+
+    @Autowired
+    private ClaimAuditLog claimAuditLog;
+
+    @Autowired
+    private FundLedger fundLedger;
+
+    @Autowired
+    private SlaTracker slaTracker;
+
+    @Autowired
+    private ClaimEscalationScheduler escalationScheduler;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private UserDirectory userDirectory;
+
     /**
      * 1. Create Claim (User submits claim)
      */
     public Claim createClaim(Claim claim, String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        claim.setUser(user);
-        
-        if (claim.getStatus() == null) {
-            claim.setStatus(ClaimStatus.PENDING);
+        // Claims live on their owner's shard
+        try (ShardRouting.Scope ignored = userDirectory.forUser(username)) {
+            User user = userRepository.findByUsername(username)
+                    .orElseThrow(() -> new NotFoundException("User not found"));
+            
+            claim.setUser(user);
+            
+            if (claim.getStatus() == null) {
+                claim.setStatus(ClaimStatus.PENDING);
+            }
+            
+            claim.setCreatedAt(LocalDateTime.now());
+            claim.setUpdatedAt(LocalDateTime.now());
+            
+            log.debug("Creating {} claim for {}", claim.getDisasterType(), username);
+            Claim saved = claimRepository.save(claim);
+            consistencyTracker.recordWrite(username);
+            audit(saved, null, username, null, null);
+            return saved;
         }
-        
-        claim.setCreatedAt(LocalDateTime.now());
-        claim.setUpdatedAt(LocalDateTime.now());
-        
-        System.out.println("Creating claim for user: " + username);
-        return claimRepository.save(claim);
     }
 
     /**
      * 2. Get claims by username (User views their own claims)
+     * Served from the replica unless the user changed a claim moments ago;
+     * archived claims are merged in by creation date
      */
+    @Transactional(readOnly = true)
     public List<Claim> getClaimsByUsername(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        return claimRepository.findByUserIdOrderByCreatedAtDesc(user.getId());
+        try (ShardRouting.Scope shard = userDirectory.forUser(username);
+             DataSourceRouting.Scope ignored = DataSourceRouting.replicaUnless(consistencyTracker.requiresPrimary(username))) {
+            User user = userRepository.findByUsername(username)
+                    .orElseThrow(() -> new NotFoundException("User not found"));
+            
+            List<Claim> active = claimRepository.findByUserIdOrderByCreatedAtDesc(user.getId());
+            List<Claim> archived = claimArchiveService.findArchivedClaims(user);
+            return archived.isEmpty() ? active : mergeByCreatedAtDesc(active, archived);
+        }
     }
 
     /**
-     * 3. Get all claims (Admin views all claims)
+     * 3. Get all claims, newest first (Admin views all claims)
+     * Gathered from every shard; size 0 returns all of them
      */
-    public List<Claim> getAllClaims() {
-        return claimRepository.findAll();
+    @Transactional(readOnly = true)
+    public List<Claim> getAllClaims(int page, int size) {
+        return gatherPage(page, size, NEWEST_FIRST, claimRepository::findByOrderByCreatedAtDescIdDesc);
     }
 
     /**
-     * 4. Get pending claims (Admin views pending claims)
+     * 4. Get pending claims, oldest first (Admin views pending claims)
      */
-    public List<Claim> getPendingClaims() {
-        return claimRepository.findByStatus(ClaimStatus.PENDING);
+    @Transactional(readOnly = true)
+    public List<Claim> getPendingClaims(int page, int size) {
+        return gatherPage(page, size, OLDEST_FIRST,
+                pageable -> claimRepository.findByStatusOrderByCreatedAtAscIdAsc(ClaimStatus.PENDING, pageable));
     }
 
     /**
-     * 5. Get claim by ID
+     * 5. Get claim by ID (falls back to the claim history table for archived claims)
      */
+    @Transactional(readOnly = true)
     public Claim getClaimById(Long id, String username) {
-        Claim claim = claimRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Claim not found"));
-        
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        // User can only view their own claims, Admin can view all
-        if (!claim.getUser().getId().equals(user.getId()) && 
-            !user.getRole().name().equals("ROLE_ADMIN")) {
-            throw new RuntimeException("Unauthorized access");
+        try (ShardRouting.Scope shard = shardRouter.forClaim(id);
+             DataSourceRouting.Scope ignored = DataSourceRouting.replicaUnless(consistencyTracker.requiresPrimary(username))) {
+            Claim claim = claimRepository.findById(id)
+                    .or(() -> claimArchiveService.findArchivedClaim(id))
+                    .orElseThrow(() -> new NotFoundException("Claim not found"));
+            
+            // The caller may be on another shard, so look them up in the directory
+            UserDirectory.Account user = userDirectory.find(username)
+                    .orElseThrow(() -> new NotFoundException("User not found"));
+            
+            // User can only view their own claims, Admin can view all
+            if (!claim.getUser().getId().equals(user.userId()) && 
+                user.role() != User.Role.ROLE_ADMIN) {
+                throw new ForbiddenException("Unauthorized access");
+            }
+            
+            return claim;
         }
-        
-        return claim;
     }
 
     /**
      * 6. Update claim (User can only update PENDING claims)
      */
     public Claim updateClaim(Long id, Claim claimUpdate, String username) {
-        Claim claim = claimRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Claim not found"));
+        try (ShardRouting.Scope ignored = shardRouter.forClaim(id)) {
+            Claim claim = claimRepository.findById(id)
+                    .orElseThrow(() -> new NotFoundException("Claim not found"));
         
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+            UserDirectory.Account user = userDirectory.find(username)
+                    .orElseThrow(() -> new NotFoundException("User not found"));
 
-        // Only the owner can update
-        if (!claim.getUser().getId().equals(user.getId())) {
-             throw new RuntimeException("Unauthorized access");
-        }
+            // Only the owner can update
+            if (!claim.getUser().getId().equals(user.userId())) {
+                 throw new ForbiddenException("Unauthorized access");
+            }
 
-        // Only PENDING claims can be updated
-        if (!ClaimStatus.PENDING.equals(claim.getStatus())) {
-            throw new RuntimeException("Only pending claims can be updated");
-        }
+            // Only PENDING claims can be updated
+            if (!ClaimStatus.PENDING.equals(claim.getStatus())) {
+                throw new ConflictException("Only pending claims can be updated");
+            }
 
-        // Update fields
-        if (claimUpdate.getDisasterType() != null) 
-            claim.setDisasterType(claimUpdate.getDisasterType());
-        if (claimUpdate.getIncidentDate() != null) 
-            claim.setIncidentDate(claimUpdate.getIncidentDate());
-        if (claimUpdate.getLocation() != null) 
-            claim.setLocation(claimUpdate.getLocation());
-        if (claimUpdate.getDescription() != null) 
-            claim.setDescription(claimUpdate.getDescription());
-        if (claimUpdate.getRequestAmount() != null) 
-            claim.setRequestAmount(claimUpdate.getRequestAmount());
+            // Update fields
+            if (claimUpdate.getDisasterType() != null) 
+                claim.setDisasterType(claimUpdate.getDisasterType());
+            if (claimUpdate.getIncidentDate() != null) 
+                claim.setIncidentDate(claimUpdate.getIncidentDate());
+            if (claimUpdate.getLocation() != null) 
+                claim.setLocation(claimUpdate.getLocation());
+            if (claimUpdate.getDescription() != null) 
+                claim.setDescription(claimUpdate.getDescription());
+            if (claimUpdate.getRequestAmount() != null) 
+                claim.setRequestAmount(claimUpdate.getRequestAmount());
         
-        claim.setUpdatedAt(LocalDateTime.now());
-        return claimRepository.save(claim);
+            claim.setUpdatedAt(LocalDateTime.now());
+            Claim saved = claimRepository.save(claim);
+            consistencyTracker.recordWrite(username);
+            return saved;
+        }
     }
 
     /**
      * 7. Delete claim (User can only delete PENDING claims)
      */
     public void deleteClaim(Long id, String username) {
-        Claim claim = claimRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Claim not found"));
+        try (ShardRouting.Scope ignored = shardRouter.forClaim(id)) {
+            Claim claim = claimRepository.findById(id)
+                    .orElseThrow(() -> new NotFoundException("Claim not found"));
         
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+            UserDirectory.Account user = userDirectory.find(username)
+                    .orElseThrow(() -> new NotFoundException("User not found"));
         
-        // Only the owner can delete
-        if (!claim.getUser().getId().equals(user.getId())) {
-             throw new RuntimeException("Unauthorized access");
-        }
+            // Only the owner can delete
+            if (!claim.getUser().getId().equals(user.userId())) {
+                 throw new ForbiddenException("Unauthorized access");
+            }
         
-        // Only PENDING claims can be deleted
-        if (!ClaimStatus.PENDING.equals(claim.getStatus())) {
-            throw new RuntimeException("Only pending claims can be deleted");
-        }
+            // Only PENDING claims can be deleted
+            if (!ClaimStatus.PENDING.equals(claim.getStatus())) {
+                throw new ConflictException("Only pending claims can be deleted");
+            }
         
-        claimRepository.delete(claim);
+            claimRepository.delete(claim);
+            // Blobs stay on disk: the same content may be attached to other claims
+            if (shardRouter.isSharded()) {
+                // Attachment metadata lives on the home shard, not in this claim shard's transaction
+                afterCommit(() -> shardRouter.jdbc(ShardRouting.HOME).update(DELETE_ATTACHMENTS, id));
+            } else {
+                claimAttachmentRepository.deleteByClaimId(id);
+            }
+            consistencyTracker.recordWrite(username);
+            afterCommit(() -> escalationScheduler.forget(id));
+        }
     }
 
     /**
-     * 8. Get statistics (Admin)
+     * 8. Get statistics (Admin), counted on every shard and summed
      */
+    @Transactional(readOnly = true)
     public Map<String, Long> getStatistics() {
         Map<String, Long> stats = new HashMap<>();
-        stats.put("total", claimRepository.count());
-        stats.put("pending", claimRepository.countByStatus(ClaimStatus.PENDING));
-        stats.put("underReview", claimRepository.countByStatus(ClaimStatus.UNDER_REVIEW));
-        stats.put("approved", claimRepository.countByStatus(ClaimStatus.APPROVED));
-        stats.put("rejected", claimRepository.countByStatus(ClaimStatus.REJECTED));
-        stats.put("paid", claimRepository.countByStatus(ClaimStatus.PAID));
+        try (DataSourceRouting.Scope ignored = DataSourceRouting.replicaUnless(false)) {
+            for (Map<String, Long> counts : shardRouter.scatter(shard -> countByStatus())) {
+                counts.forEach((key, count) -> stats.merge(key, count, Long::sum));
+            }
+        }
         return stats;
     }
 
@@ -165,90 +276,234 @@ public class ClaimService {
      * 9. Approve claim (Admin)
      */
     public Claim approveClaim(Long id, String adminUsername, String reviewComments, BigDecimal approvedAmount) {
-        Claim claim = claimRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Claim not found"));
+        try (ShardRouting.Scope ignored = shardRouter.forClaim(id)) {
+            Claim claim = claimRepository.findById(id)
+                    .orElseThrow(() -> new NotFoundException("Claim not found"));
         
-        User admin = userRepository.findByUsername(adminUsername)
-                .orElseThrow(() -> new RuntimeException("Admin not found"));
+            UserDirectory.Account admin = userDirectory.find(adminUsername)
+                    .orElseThrow(() -> new NotFoundException("Admin not found"));
         
-        // Set approval details
-        claim.setStatus(ClaimStatus.APPROVED);
-        claim.setReviewerId(admin.getId());
-        claim.setReviewComments(reviewComments);
-        claim.setApprovedAmount(approvedAmount != null ? approvedAmount : claim.getRequestAmount());
-        claim.setReviewedAt(LocalDateTime.now());
-        claim.setUpdatedAt(LocalDateTime.now());
+            // Set approval details
+            ClaimStatus previous = claim.getStatus();
+            long committedBefore = FundLedger.commitmentCents(claim);
+            claim.setStatus(ClaimStatus.APPROVED);
+            claim.setReviewerId(admin.userId());
+            claim.setReviewComments(reviewComments);
+            claim.setApprovedAmount(approvedAmount != null ? approvedAmount : claim.getRequestAmount());
+            claim.setReviewedAt(LocalDateTime.now());
+            claim.setUpdatedAt(LocalDateTime.now());
         
-        System.out.println("Claim " + id + " approved by admin: " + adminUsername);
-        return claimRepository.save(claim);
+            log.info("Claim {} approved by {}", id, adminUsername);
+            fundLedger.adjust(claim.getDisasterType(), committedBefore, FundLedger.commitmentCents(claim));
+            consistencyTracker.recordWrite(claim.getUser().getUsername());
+            audit(claim, previous, adminUsername, reviewComments, claim.getApprovedAmount());
+            return claimRepository.save(claim);
+        }
     }
 
     /**
      * 10. Reject claim (Admin)
      */
     public Claim rejectClaim(Long id, String adminUsername, String reviewComments) {
-        Claim claim = claimRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Claim not found"));
+        try (ShardRouting.Scope ignored = shardRouter.forClaim(id)) {
+            Claim claim = claimRepository.findById(id)
+                    .orElseThrow(() -> new NotFoundException("Claim not found"));
         
-        User admin = userRepository.findByUsername(adminUsername)
-                .orElseThrow(() -> new RuntimeException("Admin not found"));
+            UserDirectory.Account admin = userDirectory.find(adminUsername)
+                    .orElseThrow(() -> new NotFoundException("Admin not found"));
         
-        // Set rejection details
-        claim.setStatus(ClaimStatus.REJECTED);
-        claim.setReviewerId(admin.getId());
-        claim.setReviewComments(reviewComments);
-        claim.setReviewedAt(LocalDateTime.now());
-        claim.setUpdatedAt(LocalDateTime.now());
+            // Set rejection details
+            ClaimStatus previous = claim.getStatus();
+            long committedBefore = FundLedger.commitmentCents(claim);
+            claim.setStatus(ClaimStatus.REJECTED);
+            claim.setReviewerId(admin.userId());
+            claim.setReviewComments(reviewComments);
+            claim.setReviewedAt(LocalDateTime.now());
+            claim.setUpdatedAt(LocalDateTime.now());
         
-        System.out.println("Claim " + id + " rejected by admin: " + adminUsername);
-        return claimRepository.save(claim);
+            log.info("Claim {} rejected by {}", id, adminUsername);
+            fundLedger.adjust(claim.getDisasterType(), committedBefore, FundLedger.commitmentCents(claim));
+            consistencyTracker.recordWrite(claim.getUser().getUsername());
+            audit(claim, previous, adminUsername, reviewComments, null);
+            return claimRepository.save(claim);
+        }
     }
 
     /**
      * 11. Update status (Admin - generic status update)
      */
-    public Claim updateStatus(Long id, String status) {
-        Claim claim = claimRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Claim not found"));
+    public Claim updateStatus(Long id, String status, String adminUsername) {
+        try (ShardRouting.Scope ignored = shardRouter.forClaim(id)) {
+            Claim claim = claimRepository.findById(id)
+                    .orElseThrow(() -> new NotFoundException("Claim not found"));
         
-        claim.setStatus(ClaimStatus.valueOf(status));
-        claim.setUpdatedAt(LocalDateTime.now());
+            ClaimStatus previous = claim.getStatus();
+            long committedBefore = FundLedger.commitmentCents(claim);
+            claim.setStatus(ClaimStatus.valueOf(status));
+            claim.setUpdatedAt(LocalDateTime.now());
         
-        return claimRepository.save(claim);
+            fundLedger.adjust(claim.getDisasterType(), committedBefore, FundLedger.commitmentCents(claim));
+            consistencyTracker.recordWrite(claim.getUser().getUsername());
+            audit(claim, previous, adminUsername, null, null);
+            return claimRepository.save(claim);
+        }
     }
 
     /**
      * 12. Set claim to UNDER_REVIEW (Admin starts reviewing)
      */
     public Claim setUnderReview(Long id, String adminUsername) {
-        Claim claim = claimRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Claim not found"));
+        try (ShardRouting.Scope ignored = shardRouter.forClaim(id)) {
+            Claim claim = claimRepository.findById(id)
+                    .orElseThrow(() -> new NotFoundException("Claim not found"));
         
-        User admin = userRepository.findByUsername(adminUsername)
-                .orElseThrow(() -> new RuntimeException("Admin not found"));
+            UserDirectory.Account admin = userDirectory.find(adminUsername)
+                    .orElseThrow(() -> new NotFoundException("Admin not found"));
         
-        claim.setStatus(ClaimStatus.UNDER_REVIEW);
-        claim.setReviewerId(admin.getId());
-        claim.setUpdatedAt(LocalDateTime.now());
+            ClaimStatus previous = claim.getStatus();
+            long committedBefore = FundLedger.commitmentCents(claim);
+            claim.setStatus(ClaimStatus.UNDER_REVIEW);
+            claim.setReviewerId(admin.userId());
+            claim.setUpdatedAt(LocalDateTime.now());
         
-        return claimRepository.save(claim);
+            fundLedger.adjust(claim.getDisasterType(), committedBefore, FundLedger.commitmentCents(claim));
+            consistencyTracker.recordWrite(claim.getUser().getUsername());
+            audit(claim, previous, adminUsername, null, null);
+            return claimRepository.save(claim);
+        }
     }
 
     /**
      * 13. Mark claim as PAID (Admin completes payment)
      */
     public Claim markAsPaid(Long id, String adminUsername) {
-        Claim claim = claimRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Claim not found"));
+        try (ShardRouting.Scope ignored = shardRouter.forClaim(id)) {
+            Claim claim = claimRepository.findById(id)
+                    .orElseThrow(() -> new NotFoundException("Claim not found"));
         
-        if (!ClaimStatus.APPROVED.equals(claim.getStatus())) {
-            throw new RuntimeException("Only approved claims can be marked as paid");
-        }
+            if (!ClaimStatus.APPROVED.equals(claim.getStatus())) {
+                throw new ConflictException("Only approved claims can be marked as paid");
+            }
         
-        claim.setStatus(ClaimStatus.PAID);
-        claim.setUpdatedAt(LocalDateTime.now());
+            claim.setStatus(ClaimStatus.PAID);
+            claim.setUpdatedAt(LocalDateTime.now());
         
-        System.out.println("Claim " + id + " marked as paid by admin: " + adminUsername);
-        return claimRepository.save(claim);
+            log.info("Claim {} marked as paid by {}", id, adminUsername);
+            consistencyTracker.recordWrite(claim.getUser().getUsername());
+            audit(claim, ClaimStatus.APPROVED, adminUsername, null, claim.getApprovedAmount());
+            return claimRepository.save(claim);
+        }
+    }
+
+    /**
+     * 14. First page of pending claims, oldest first (Admin dashboard)
+     */
+    @Transactional(readOnly = true)
+    public List<Claim> getPendingClaimsPage(int size) {
+        return getPendingClaims(0, size);
+    }
+
+    /**
+     * 15. Most recently changed claims (Admin dashboard)
+     */
+    @Transactional(readOnly = true)
+    public List<Claim> getRecentActivity(int limit) {
+        return gatherPage(0, limit, RECENTLY_UPDATED, claimRepository::findByOrderByUpdatedAtDescIdDesc);
+    }
+
+    private Map<String, Long> countByStatus() {
+        Map<String, Long> counts = new HashMap<>();
+        counts.put("total", claimRepository.count());
+        counts.put("pending", claimRepository.countByStatus(ClaimStatus.PENDING));
+        counts.put("underReview", claimRepository.countByStatus(ClaimStatus.UNDER_REVIEW));
+        counts.put("approved", claimRepository.countByStatus(ClaimStatus.APPROVED));
+        counts.put("rejected", claimRepository.countByStatus(ClaimStatus.REJECTED));
+        counts.put("paid", claimRepository.countByStatus(ClaimStatus.PAID));
+        return counts;
+    }
+
+    /**
+     * One page of an admin-wide list in {@code order}, which must match the query's ORDER BY.
+     * A single database reads just the page. Shards each return every row up to the end of the
+     * page and the merge drops the rows before it, so deep pages cost more and are capped.
+     */
+    private List<Claim> gatherPage(int page, int size, Comparator<Claim> order, Function<Pageable, List<Claim>> query) {
+        if (page < 0 || size < 0) {
+            throw new IllegalArgumentException("page and size must not be negative");
+        }
+        // Admin lists tolerate replication lag
+        try (DataSourceRouting.Scope ignored = DataSourceRouting.replicaUnless(false)) {
+            if (size == 0) {
+                return ShardRouter.mergeSorted(shardRouter.scatter(shard -> query.apply(Pageable.unpaged())), order, 0, -1);
+            }
+            if ((long) (page + 1) * size > MAX_PAGE_WINDOW) {
+                throw new IllegalArgumentException("Pages end at row " + MAX_PAGE_WINDOW);
+            }
+            if (shardRouter.shardCount() == 1) {
+                return shardRouter.scatter(shard -> query.apply(PageRequest.of(page, size))).get(0);
+            }
+            List<List<Claim>> perShard = shardRouter.scatter(shard -> query.apply(PageRequest.of(0, (page + 1) * size)));
+            return ShardRouter.mergeSorted(perShard, order, page * size, size);
+        }
+    }
+
+    /**
+     * Record a state transition in the audit log and SLA sketches, and reset the claim's
+     * escalation timer, once the transaction commits.
+     * The claimant's notification is queued in the outbox within the transaction itself.
+     */
+    private void audit(Claim claim, ClaimStatus from, String actor, String comment, BigDecimal amount) {
+        notificationOutbox.enqueue(claim, from);
+        AuditRecord record = new AuditRecord(claim.getId(), System.currentTimeMillis(),
+                from, claim.getStatus(), amount, actor, comment);
+        Long claimId = claim.getId();
+        ClaimStatus to = claim.getStatus();
+        String disasterType = claim.getDisasterType();
+        LocalDateTime createdAt = claim.getCreatedAt();
+        LocalDateTime updatedAt = claim.getUpdatedAt();
+        LocalDateTime reviewedAt = claim.getReviewedAt();
+        LocalDateTime now = LocalDateTime.now();
+
+        Runnable apply = () -> {
+            claimAuditLog.append(record);
+            escalationScheduler.track(claimId, to, createdAt, updatedAt);
+            if (to == ClaimStatus.APPROVED || to == ClaimStatus.REJECTED) {
+                slaTracker.record(SlaStage.DECISION, disasterType, createdAt, now);
+            } else if (to == ClaimStatus.PAID) {
+                slaTracker.record(SlaStage.PAYMENT, disasterType, reviewedAt, now);
+                slaTracker.record(SlaStage.END_TO_END, disasterType, createdAt, now);
+            }
+        };
+        afterCommit(apply);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static List<Claim> mergeByCreatedAtDesc(List<Claim> first, List<Claim> second) {
+        List<Claim> merged = new ArrayList<>(first.size() + second.size());
+        int i = 0, j = 0;
+        while (i < first.size() && j < second.size()) {
+            LocalDateTime a = first.get(i).getCreatedAt();
+            LocalDateTime b = second.get(j).getCreatedAt();
+            if (b == null || (a != null && !a.isBefore(b))) {
+                merged.add(first.get(i++));
+            } else {
+                merged.add(second.get(j++));
+            }
+        }
+        while (i < first.size()) merged.add(first.get(i++));
+        while (j < second.size()) merged.add(second.get(j++));
+        return merged;
     }
 }
\ No newline at end of file
@@ -1,7 +1,9 @@
 package com.ny.safeny.service;
 
+import com.ny.safeny.datasource.ShardRouting;
 import com.ny.safeny.model.User;
 import com.ny.safeny.repository.UserRepository;
+import com.ny.safeny.sharding.UserDirectory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -17,13 +19,26 @@ public class CustomUserDetailsService implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserDirectory userDirectory;
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        // 1. find the user in the DB
-        User user = userRepository.findByUsername(username)
-            .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+        // 1. find the user in the DB (on their shard when sharded)
+        User user;
+        try (ShardRouting.Scope ignored = userDirectory.forUser(username)) {
+            user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+        }
 
         // 2. create a spring security user object
+        return toUserDetails(user);
+    }
+
+    /**
+     * Spring Security view of an already loaded user, e.g. one just inserted at registration
+     */
+    public static UserDetails toUserDetails(User user) {
         return new org.springframework.security.core.userdetails.User(
             user.getUsername(),
             user.getPassword(),
@@ -0,0 +1,166 @@
+package com.ny.safeny.service;
+
+import com.ny.safeny.ledger.FundLedger;
+import com.ny.safeny.monitoring.QueryCountInspector;
+import com.ny.safeny.sla.SlaStage;
+import com.ny.safeny.sla.SlaTracker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Dashboard Service
+ * Builds each role's dashboard in one call. Sub-queries run concurrently on a bounded pool and
+ * each one has its own timeout, so the response takes as long as the slowest part and a part
+ * that is slow or failing is reported as unavailable instead of failing the whole dashboard.
+ *
+ * Each part runs in a read-only transaction whose timeout is the part's timeout, so its JDBC
+ * statements are cancelled by the database rather than holding a pool thread and a connection
+ * after the part was reported unavailable. Statements on the pool count against the request's
+ * query budget.
+ */
+@Service
+@Slf4j
+public class DashboardService {
+
+    /** Marks a part that timed out, failed or was rejected */
+    private static final Object UNAVAILABLE = new Object();
+
+    @Autowired
+    private ClaimService claimService;
+
+    @Autowired
+    private FundLedger fundLedger;
+
+    @Autowired
+    private SlaTracker slaTracker;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${safeny.dashboard.threads:16}")
+    private int threads;
+
+    @Value("${safeny.dashboard.queue-capacity:200}")
+    private int queueCapacity;
+
+    @Value("${safeny.dashboard.timeout-ms:2000}")
+    private long timeoutMillis;
+
+    @Value("${safeny.dashboard.page-size:20}")
+    private int pageSize;
+
+    private ThreadPoolExecutor executor;
+    private TransactionTemplate partTransaction;
+    private Counter unavailableParts;
+
+    public record Dashboard(String role, Map<String, Object> parts, List<String> unavailable, long tookMillis) {
+    }
+
+    @PostConstruct
+    void init() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "dashboard-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        partTransaction = new TransactionTemplate(transactionManager);
+        partTransaction.setReadOnly(true);
+        // JDBC query timeouts are in whole seconds; round up so a statement never outlives its part by much
+        partTransaction.setTimeout((int) Math.max(1, (timeoutMillis + 999) / 1000));
+        unavailableParts = Counter.builder("safeny.dashboard.parts.unavailable")
+                .description("Dashboard parts that timed out, failed or were rejected by the pool")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 1. Admin dashboard: statistics, oldest pending claims, recent activity, fund balances
+     */
+    public Dashboard adminDashboard() {
+        Map<String, Supplier<?>> parts = new LinkedHashMap<>();
+        parts.put("statistics", claimService::getStatistics);
+        parts.put("pendingClaims", () -> claimService.getPendingClaimsPage(pageSize));
+        parts.put("recentActivity", () -> claimService.getRecentActivity(pageSize));
+        parts.put("funds", fundLedger::getBalances);
+        return compose("ADMIN", parts);
+    }
+
+    /**
+     * 2. Citizen dashboard: own claims and the current expected decision time
+     */
+    public Dashboard citizenDashboard(String username) {
+        Map<String, Supplier<?>> parts = new LinkedHashMap<>();
+        parts.put("claims", () -> claimService.getClaimsByUsername(username));
+        parts.put("expectedDecisionTime", () -> slaTracker.report(SlaStage.DECISION, 30, null).overall());
+        return compose("USER", parts);
+    }
+
+    private Dashboard compose(String role, Map<String, Supplier<?>> parts) {
+        long start = System.nanoTime();
+        Map<String, CompletableFuture<Object>> futures = new LinkedHashMap<>();
+        parts.forEach((name, supplier) -> futures.put(name, submit(name, supplier)));
+
+        Map<String, Object> results = new LinkedHashMap<>();
+        List<String> unavailable = new ArrayList<>();
+        // Every future already carries its own timeout, so these joins wait at most timeoutMillis overall
+        futures.forEach((name, future) -> {
+            Object value = future.join();
+            if (value == UNAVAILABLE) {
+                unavailable.add(name);
+                unavailableParts.increment();
+            } else {
+                results.put(name, value);
+            }
+        });
+        return new Dashboard(role, results, unavailable, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private CompletableFuture<Object> submit(String name, Supplier<?> supplier) {
+        CompletableFuture<Object> future;
+        try {
+            future = CompletableFuture.supplyAsync(
+                    QueryCountInspector.propagate(() -> partTransaction.execute(status -> supplier.get())), executor);
+        } catch (RejectedExecutionException e) {
+            log.warn("Dashboard part {} rejected: pool saturated", name);
+            return CompletableFuture.completedFuture(UNAVAILABLE);
+        }
+        return future
+                .orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    log.warn("Dashboard part {} unavailable: {}", name, e.toString());
+                    return UNAVAILABLE;
+                });
+    }
+}
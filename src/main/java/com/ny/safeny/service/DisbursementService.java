@@ -0,0 +1,542 @@
+package com.ny.safeny.service;
+
+import com.ny.safeny.audit.AuditRecord;
+import com.ny.safeny.audit.ClaimAuditLog;
+import com.ny.safeny.cluster.Lease;
+import com.ny.safeny.cluster.LeaseManager;
+import com.ny.safeny.datasource.ShardRouting;
+import com.ny.safeny.exception.NotFoundException;
+import com.ny.safeny.model.Claim.ClaimStatus;
+import com.ny.safeny.model.PaymentRun;
+import com.ny.safeny.model.PaymentRun.RunStatus;
+import com.ny.safeny.model.PaymentRunChunk;
+import com.ny.safeny.notification.NotificationOutbox;
+import com.ny.safeny.repository.PaymentRunChunkRepository;
+import com.ny.safeny.repository.PaymentRunRepository;
+import com.ny.safeny.sharding.ShardRouter;
+import com.ny.safeny.sla.SlaStage;
+import com.ny.safeny.sla.SlaTracker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Disbursement Service
+ * Pays APPROVED claims in nightly batch runs.
+ *
+ * A run is planned as keyset ranges of approved claim ids. Ranges are processed in parallel:
+ * each one streams its claims into a fixed-width chunk file, then marks them PAID with batched
+ * updates in one transaction that also flags the chunk as done. That chunk row is the checkpoint,
+ * so a crashed or failed run resumes with only the chunks that never committed. Once every chunk
+ * is done the chunk files are concatenated into the run's payment file.
+ *
+ * When sharded, ranges are planned on each shard and every chunk row lives on its claims' shard, so
+ * the checkpoint still commits with the PAID updates. The run row stays on the home shard.
+ */
+@Service
+@Slf4j
+public class DisbursementService {
+
+    private static final String RUN_LEASE = "disbursement";
+
+    private static final List<RunStatus> UNFINISHED = List.of(RunStatus.PLANNING, RunStatus.RUNNING, RunStatus.FAILED);
+
+    private static final String SELECT_CHUNK = "SELECT c.id, c.user_id, u.full_name, c.disaster_type, "
+            + "COALESCE(c.approved_amount, c.request_amount) AS amount, c.created_at, c.reviewed_at "
+            + "FROM claims c JOIN users u ON u.id = c.user_id "
+            + "WHERE c.status = 'APPROVED' AND c.id > ? AND c.id <= ? ORDER BY c.id";
+
+    // The status guard makes a concurrent change to the claim fail the chunk instead of paying twice
+    private static final String MARK_PAID =
+            "UPDATE claims SET status = 'PAID', updated_at = ?, version = version + 1 WHERE id = ? AND status = 'APPROVED'";
+
+    private static final String MARK_CHUNK_DONE = "UPDATE payment_run_chunks "
+            + "SET done = ?, claim_count = ?, total_cents = ?, completed_at = ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PaymentRunRepository paymentRunRepository;
+
+    @Autowired
+    private PaymentRunChunkRepository chunkRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ClaimAuditLog claimAuditLog;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private SlaTracker slaTracker;
+
+    @Autowired
+    private NotificationOutbox notificationOutbox;
+
+    @Autowired
+    private LeaseManager leaseManager;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${safeny.disbursement.directory:./data/payments}")
+    private String directory;
+
+    @Value("${safeny.disbursement.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${safeny.disbursement.parallelism:4}")
+    private int parallelism;
+
+    @Value("${safeny.disbursement.update-batch-size:200}")
+    private int updateBatchSize;
+
+    @Value("${safeny.disbursement.scheduled:false}")
+    private boolean scheduled;
+
+    private final AtomicBoolean active = new AtomicBoolean();
+
+    private Path root;
+    private ExecutorService coordinator;
+    private ExecutorService workers;
+    private Counter claimsPaid;
+    private Timer chunkTimer;
+
+    private record Payment(long claimId, long amountCents, String disasterType,
+                           LocalDateTime createdAt, LocalDateTime reviewedAt) {
+    }
+
+    @PostConstruct
+    void init() {
+        root = Paths.get(directory);
+        coordinator = Executors.newSingleThreadExecutor(daemonThreads("disbursement-run"));
+        workers = Executors.newFixedThreadPool(Math.max(1, parallelism), daemonThreads("disbursement-chunk"));
+        claimsPaid = Counter.builder("safeny.disbursement.claims.paid")
+                .description("Claims marked PAID by payment runs")
+                .register(meterRegistry);
+        chunkTimer = Timer.builder("safeny.disbursement.chunk")
+                .description("Time to write and commit one payment run chunk")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        coordinator.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    /**
+     * 1. Start a new payment run (runs in the background)
+     */
+    public PaymentRun startRun(String adminUsername) {
+        Lease lease = acquire();
+        try {
+            paymentRunRepository.findFirstByStatusInOrderByIdAsc(UNFINISHED).ifPresent(unfinished -> {
+                throw new IllegalStateException("Payment run " + unfinished.getId() + " is unfinished; resume it first");
+            });
+            PaymentRun run = new PaymentRun();
+            run.setStartedBy(adminUsername);
+            run = paymentRunRepository.save(run);
+            submit(run.getId(), lease);
+            return run;
+        } catch (RuntimeException e) {
+            releaseRun(lease);
+            throw e;
+        }
+    }
+
+    /**
+     * 2. Resume an unfinished payment run from its last committed chunk
+     */
+    public PaymentRun resumeRun(Long runId) {
+        PaymentRun run = paymentRunRepository.findById(runId)
+                .orElseThrow(() -> new NotFoundException("Payment run not found"));
+        if (run.getStatus() == RunStatus.COMPLETED) {
+            throw new IllegalStateException("Payment run " + runId + " is already completed");
+        }
+        submit(runId, acquire());
+        return run;
+    }
+
+    /**
+     * 3. Nightly run: resume whatever did not finish, otherwise start a new run
+     */
+    @Scheduled(cron = "${safeny.disbursement.cron:0 0 1 * * *}")
+    public void scheduledRun() {
+        if (!scheduled || active.get()) {
+            return;
+        }
+        // Only one instance's timer starts the nightly run; the run itself holds the "disbursement" lease
+        leaseManager.runExclusive("disbursement-schedule", scheduleLease -> {
+            try {
+                Optional<PaymentRun> unfinished = paymentRunRepository.findFirstByStatusInOrderByIdAsc(UNFINISHED);
+                if (unfinished.isPresent()) {
+                    resumeRun(unfinished.get().getId());
+                } else {
+                    startRun("scheduler");
+                }
+            } catch (IllegalStateException e) {
+                log.info("Scheduled payment run skipped: {}", e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 4. Run status
+     */
+    public Optional<PaymentRun> getRun(Long runId) {
+        return paymentRunRepository.findById(runId);
+    }
+
+    /**
+     * 5. Most recent runs, newest first
+     */
+    public List<PaymentRun> getRecentRuns() {
+        return paymentRunRepository.findTop20ByOrderByIdDesc();
+    }
+
+    /**
+     * 6. Payment file of a completed run
+     */
+    public Optional<Path> getPaymentFile(Long runId) {
+        return paymentRunRepository.findById(runId)
+                .filter(run -> run.getStatus() == RunStatus.COMPLETED && run.getFilePath() != null)
+                .map(run -> Paths.get(run.getFilePath()))
+                .filter(Files::isReadable);
+    }
+
+    private Lease acquire() {
+        if (!active.compareAndSet(false, true)) {
+            throw new IllegalStateException("A payment run is already in progress");
+        }
+        Optional<Lease> lease = leaseManager.tryAcquire(RUN_LEASE);
+        if (lease.isEmpty()) {
+            active.set(false);
+            throw new IllegalStateException("A payment run is in progress on another instance");
+        }
+        return lease.get();
+    }
+
+    private void releaseRun(Lease lease) {
+        try {
+            leaseManager.release(lease, Duration.ZERO);
+        } finally {
+            active.set(false);
+        }
+    }
+
+    private void submit(long runId, Lease lease) {
+        coordinator.execute(() -> {
+            try {
+                execute(runId, lease);
+            } finally {
+                releaseRun(lease);
+            }
+        });
+    }
+
+    private void execute(long runId, Lease lease) {
+        PaymentRun run = paymentRunRepository.findById(runId)
+                .orElseThrow(() -> new IllegalStateException("Payment run " + runId + " disappeared"));
+        long start = System.nanoTime();
+        try {
+            Path runDirectory = root.resolve(String.format("run-%06d", runId));
+            Files.createDirectories(runDirectory);
+
+            if (run.getStatus() == RunStatus.PLANNING) {
+                plan(run);
+            }
+            run.setStatus(RunStatus.RUNNING);
+            run.setFailureReason(null);
+            run = paymentRunRepository.save(run);
+
+            List<PaymentRunChunk> pending = new ArrayList<>();
+            for (PaymentRunChunk chunk : chunks(runId)) {
+                if (!chunk.isDone()) {
+                    pending.add(chunk);
+                }
+            }
+            log.info("Payment run {}: {} of {} chunks to process", runId, pending.size(), run.getChunkCount());
+
+            String actor = run.getStartedBy();
+            CompletableFuture<?>[] futures = pending.stream()
+                    .map(chunk -> CompletableFuture.runAsync(
+                            () -> chunkTimer.record(() -> processChunk(runId, actor, chunk, runDirectory, lease)), workers))
+                    .toArray(CompletableFuture[]::new);
+            // allOf completes only after every chunk has finished, even when one of them fails
+            CompletableFuture.allOf(futures).join();
+
+            assemble(run, runDirectory);
+        } catch (Exception e) {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            log.error("Payment run {} failed; resume it to continue", runId, cause);
+            run.setStatus(RunStatus.FAILED);
+            run.setFailureReason(cause.getMessage());
+        } finally {
+            run.setElapsedMillis(run.getElapsedMillis() + (System.nanoTime() - start) / 1_000_000);
+            tallyChunks(run);
+            paymentRunRepository.save(run);
+        }
+
+        if (run.getStatus() == RunStatus.COMPLETED) {
+            log.info("Payment run {} completed: {} claims, {} cents in {} ms ({} claims/sec)",
+                    runId, run.getClaimsPaid(), run.getTotalCents(), run.getElapsedMillis(),
+                    String.format("%.1f", run.getClaimsPerSecond()));
+            deleteChunkFiles(root.resolve(String.format("run-%06d", runId)));
+        }
+    }
+
+    /**
+     * Split each shard's approved claims into keyset ranges of chunkSize ids and store them with
+     * that shard's claims. Planning again after an interruption replaces the stored ranges.
+     */
+    private void plan(PaymentRun run) {
+        Map<Integer, List<PaymentRunChunk>> byShard = new LinkedHashMap<>();
+        int[] chunkCount = {0};
+        shardRouter.forEachShard(shard -> {
+            List<PaymentRunChunk> chunks = new ArrayList<>();
+            long lastId = 0;
+            while (true) {
+                Long toId = jdbcTemplate.queryForObject(
+                        "SELECT MAX(id) FROM (SELECT id FROM claims WHERE status = 'APPROVED' AND id > ? "
+                                + "ORDER BY id FETCH FIRST " + chunkSize + " ROWS ONLY) keyset",
+                        Long.class, lastId);
+                if (toId == null) {
+                    break;
+                }
+                PaymentRunChunk chunk = new PaymentRunChunk();
+                chunk.setRunId(run.getId());
+                chunk.setChunkNumber(++chunkCount[0]);
+                chunk.setShard(shard);
+                chunk.setFromId(lastId);
+                chunk.setToId(toId);
+                chunks.add(chunk);
+                lastId = toId;
+            }
+            byShard.put(shard, chunks);
+        });
+        byShard.forEach((shard, chunks) -> {
+            try (ShardRouting.Scope ignored = shardRouter.onShard(shard)) {
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    chunkRepository.deleteByRunId(run.getId());
+                    chunkRepository.saveAll(chunks);
+                });
+            }
+        });
+        run.setChunkCount(chunkCount[0]);
+        run.setStatus(RunStatus.RUNNING);
+        paymentRunRepository.save(run);
+    }
+
+    /**
+     * Every chunk of the run, from all shards, in chunk order
+     */
+    private List<PaymentRunChunk> chunks(long runId) {
+        List<PaymentRunChunk> chunks = new ArrayList<>();
+        shardRouter.forEachShard(shard -> chunks.addAll(chunkRepository.findByRunIdOrderByChunkNumberAsc(runId)));
+        chunks.sort(Comparator.comparingInt(PaymentRunChunk::getChunkNumber));
+        return chunks;
+    }
+
+    private void processChunk(long runId, String actor, PaymentRunChunk chunk, Path runDirectory, Lease lease) {
+        Path file = chunkPath(runDirectory, chunk);
+        List<Payment> payments = new ArrayList<>();
+        try {
+            // 1. Stream the chunk's claims into its file and make it durable before paying anything
+            try (ShardRouting.Scope ignored = shardRouter.onShard(chunk.getShard());
+                 BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.US_ASCII)) {
+                jdbcTemplate.query(SELECT_CHUNK, rs -> {
+                    long claimId = rs.getLong(1);
+                    long cents = rs.getBigDecimal(5).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+                    try {
+                        writer.write(PaymentFileFormat.detail(claimId, rs.getLong(2), rs.getString(3), cents, rs.getString(4)));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    payments.add(new Payment(claimId, cents, rs.getString(4),
+                            toLocalDateTime(rs.getTimestamp(6)), toLocalDateTime(rs.getTimestamp(7))));
+                }, chunk.getFromId(), chunk.getToId());
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+
+            // 2. Mark PAID and checkpoint the chunk atomically
+            long totalCents = payments.stream().mapToLong(Payment::amountCents).sum();
+            // Refuse to pay if another instance has taken the run over meanwhile
+            leaseManager.commitFenced(lease, chunk.getShard(), () -> {
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                int[][] counts = jdbcTemplate.batchUpdate(MARK_PAID, payments, updateBatchSize, (ps, payment) -> {
+                    ps.setTimestamp(1, now);
+                    ps.setLong(2, payment.claimId());
+                });
+                for (int[] batch : counts) {
+                    for (int count : batch) {
+                        if (count == 0) {
+                            throw new IllegalStateException("A claim in chunk " + chunk.getChunkNumber()
+                                    + " of payment run " + runId + " changed while it was being paid");
+                        }
+                    }
+                }
+                Map<Long, Long> paid = new LinkedHashMap<>();
+                payments.forEach(payment -> paid.put(payment.claimId(), payment.amountCents()));
+                notificationOutbox.enqueuePaid(paid, updateBatchSize);
+                return jdbcTemplate.update(MARK_CHUNK_DONE, true, payments.size(), totalCents, now, chunk.getId());
+            });
+        } catch (IOException e) {
+            deleteQuietly(file);
+            throw new UncheckedIOException("Cannot write payment chunk " + file, e);
+        } catch (RuntimeException e) {
+            deleteQuietly(file);
+            throw e;
+        }
+
+        // 3. After commit
+        claimsPaid.increment(payments.size());
+        long now = System.currentTimeMillis();
+        LocalDateTime paidAt = LocalDateTime.now();
+        String comment = "Payment run " + runId;
+        for (Payment payment : payments) {
+            claimAuditLog.append(new AuditRecord(payment.claimId(), now, ClaimStatus.APPROVED, ClaimStatus.PAID,
+                    BigDecimal.valueOf(payment.amountCents(), 2), actor, comment));
+            slaTracker.record(SlaStage.PAYMENT, payment.disasterType(), payment.reviewedAt(), paidAt);
+            slaTracker.record(SlaStage.END_TO_END, payment.disasterType(), payment.createdAt(), paidAt);
+        }
+    }
+
+    /**
+     * Concatenate header, chunk files and trailer into the run's payment file
+     */
+    private void assemble(PaymentRun run, Path runDirectory) throws IOException {
+        List<PaymentRunChunk> chunks = chunks(run.getId());
+        long count = 0;
+        long totalCents = 0;
+        for (PaymentRunChunk chunk : chunks) {
+            if (!chunk.isDone()) {
+                throw new IllegalStateException("Chunk " + chunk.getChunkNumber() + " of payment run " + run.getId() + " is not done");
+            }
+            count += chunk.getClaimCount();
+            totalCents += chunk.getTotalCents();
+        }
+
+        Path output = root.resolve(String.format("payments-%06d.txt", run.getId()));
+        Path partial = root.resolve(output.getFileName() + ".part");
+        try (FileChannel out = FileChannel.open(partial,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(out, PaymentFileFormat.header(run.getId(), run.getCreatedAt()));
+            for (PaymentRunChunk chunk : chunks) {
+                try (FileChannel in = FileChannel.open(chunkPath(runDirectory, chunk), StandardOpenOption.READ)) {
+                    long size = in.size();
+                    long position = 0;
+                    while (position < size) {
+                        position += in.transferTo(position, size - position, out);
+                    }
+                }
+            }
+            write(out, PaymentFileFormat.trailer(count, totalCents));
+            out.force(true);
+        }
+        Files.move(partial, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        run.setFilePath(output.toAbsolutePath().toString());
+        run.setStatus(RunStatus.COMPLETED);
+        run.setFinishedAt(LocalDateTime.now());
+    }
+
+    private void tallyChunks(PaymentRun run) {
+        long count = 0;
+        long totalCents = 0;
+        for (PaymentRunChunk chunk : chunks(run.getId())) {
+            count += chunk.getClaimCount();
+            totalCents += chunk.getTotalCents();
+        }
+        run.setClaimsPaid(count);
+        run.setTotalCents(totalCents);
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    private static Path chunkPath(Path runDirectory, PaymentRunChunk chunk) {
+        return runDirectory.resolve(String.format("chunk-%06d.dat", chunk.getChunkNumber()));
+    }
+
+    private static void write(FileChannel channel, String line) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.US_ASCII));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void deleteChunkFiles(Path runDirectory) {
+        try (Stream<Path> files = Files.list(runDirectory)) {
+            files.forEach(DisbursementService::deleteQuietly);
+        } catch (IOException e) {
+            log.warn("Cannot list payment chunk directory {}", runDirectory, e);
+        }
+        deleteQuietly(runDirectory);
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Cannot delete {}", path, e);
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,88 @@
+package com.ny.safeny.service;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+
+/**
+ * Fixed-width payment file records (US-ASCII, 120 characters plus newline)
+ *
+ * <pre>
+ *   Header   H | run id (10) | created yyyyMMddHHmmss (14)
+ *   Detail   D | claim id (12) | payee id (12) | payee name (40) | amount cents (15) | disaster type (20)
+ *   Trailer  T | record count (10) | total cents (18)
+ * </pre>
+ * Numbers are zero-padded on the left, text is space-padded on the right and truncated to fit.
+ */
+final class PaymentFileFormat {
+
+    static final int RECORD_LENGTH = 120;
+
+    private static final DateTimeFormatter CREATED = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private PaymentFileFormat() {
+    }
+
+    static String header(long runId, LocalDateTime created) {
+        return new Line('H').number(runId, 10).text(CREATED.format(created), 14).end();
+    }
+
+    static String detail(long claimId, long payeeId, String payeeName, long amountCents, String disasterType) {
+        return new Line('D')
+                .number(claimId, 12)
+                .number(payeeId, 12)
+                .text(payeeName, 40)
+                .number(amountCents, 15)
+                .text(disasterType, 20)
+                .end();
+    }
+
+    static String trailer(long count, long totalCents) {
+        return new Line('T').number(count, 10).number(totalCents, 18).end();
+    }
+
+    private static final class Line {
+
+        private final char[] chars = new char[RECORD_LENGTH + 1];
+        private int position;
+
+        Line(char type) {
+            Arrays.fill(chars, ' ');
+            chars[position++] = type;
+        }
+
+        Line number(long value, int width) {
+            if (value < 0) {
+                throw new IllegalArgumentException("Negative value in payment record: " + value);
+            }
+            String digits = Long.toString(value);
+            if (digits.length() > width) {
+                throw new IllegalArgumentException("Value " + value + " does not fit in " + width + " digits");
+            }
+            for (int i = 0; i < width - digits.length(); i++) {
+                chars[position + i] = '0';
+            }
+            digits.getChars(0, digits.length(), chars, position + width - digits.length());
+            position += width;
+            return this;
+        }
+
+        Line text(String value, int width) {
+            if (value != null) {
+                int length = Math.min(width, value.length());
+                for (int i = 0; i < length; i++) {
+                    char c = value.charAt(i);
+                    // Keep the record strictly single-byte and on one line
+                    chars[position + i] = c >= 0x20 && c < 0x7f ? c : '?';
+                }
+            }
+            position += width;
+            return this;
+        }
+
+        String end() {
+            chars[RECORD_LENGTH] = '\n';
+            return new String(chars);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.ny.safeny.sharding;
+
+import java.util.Arrays;
+
+/**
+ * Consistent hash ring of shards
+ *
+ * Each shard owns many points (virtual nodes) on a 64-bit ring and a key belongs to the first
+ * point at or after its hash. Adding a shard only takes over the keys that land just before its
+ * points, about 1/N of them, instead of reshuffling everything the way hash-mod-N would.
+ * Immutable; lookups are a binary search over a sorted array.
+ */
+public class ConsistentHashRing {
+
+    private final long[] points;
+    private final int[] owners;
+
+    public ConsistentHashRing(int shards, int virtualNodes) {
+        if (shards < 1 || virtualNodes < 1) {
+            throw new IllegalArgumentException("A ring needs at least one shard and one virtual node");
+        }
+        long[][] entries = new long[shards * virtualNodes][];
+        int n = 0;
+        for (int shard = 0; shard < shards; shard++) {
+            for (int v = 0; v < virtualNodes; v++) {
+                // Points depend only on (shard, v), so existing shards keep theirs when one is added
+                entries[n++] = new long[]{mix(shard * 0x9E3779B97F4A7C15L + v), shard};
+            }
+        }
+        Arrays.sort(entries, (a, b) -> Long.compare(a[0], b[0]));
+        points = new long[entries.length];
+        owners = new int[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            points[i] = entries[i][0];
+            owners[i] = (int) entries[i][1];
+        }
+    }
+
+    public int shardFor(long key) {
+        int index = Arrays.binarySearch(points, mix(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    /**
+     * murmur3 64-bit finalizer: consecutive ids spread over the whole ring
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,259 @@
+package com.ny.safeny.sharding;
+
+import com.ny.safeny.datasource.ShardDataSources;
+import com.ny.safeny.datasource.ShardRouting;
+import com.ny.safeny.exception.NotFoundException;
+import com.ny.safeny.monitoring.QueryCountInspector;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * Shard Router
+ * Decides which shard a user or claim lives on and runs work there.
+ *
+ * A user and all their claims live on the shard their user id hashed to on a consistent hash
+ * ring when the user was created; the user directory records it. Claim ids carry their shard (id modulo the claim id stride, see ShardSchema), so calls
+ * that only have a claim id route without a lookup. Admin-wide reads are scattered to every shard
+ * in parallel, each in its own read-only transaction, and the per-shard results merged.
+ *
+ * With sharding disabled there is one shard: scopes do nothing and scattered queries run inline in
+ * the caller's transaction, so the single-database path issues exactly the queries it did before.
+ */
+@Component
+@Slf4j
+public class ShardRouter {
+
+    @Autowired(required = false)
+    private ShardDataSources shardDataSources;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${safeny.sharding.virtual-nodes:128}")
+    private int virtualNodes;
+
+    @Value("${safeny.sharding.claim-id-stride:64}")
+    private int claimIdStride;
+
+    @Value("${safeny.sharding.scatter-threads:16}")
+    private int scatterThreads;
+
+    @Value("${safeny.sharding.scatter-timeout-ms:10000}")
+    private long scatterTimeoutMillis;
+
+    private ConsistentHashRing ring;
+    private ThreadPoolExecutor scatterPool;
+    private TransactionTemplate readOnly;
+    private final List<JdbcTemplate> shardJdbc = new ArrayList<>();
+
+    @PostConstruct
+    void init() {
+        ring = new ConsistentHashRing(shardCount(), virtualNodes);
+        if (!isSharded()) {
+            return;
+        }
+        for (int shard = 0; shard < shardDataSources.count(); shard++) {
+            shardJdbc.add(new JdbcTemplate(shardDataSources.get(shard)));
+        }
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        // When the queue is full the caller runs its own shard query rather than failing the request
+        scatterPool = new ThreadPoolExecutor(scatterThreads, scatterThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(scatterThreads * 16), runnable -> {
+                    Thread thread = new Thread(runnable, "shard-scatter-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        scatterPool.allowCoreThreadTimeOut(true);
+
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        // A fresh transaction, so its connection is taken on the chosen shard even inside a caller's transaction
+        readOnly.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        log.info("Sharding claims and users across {} shards", shardCount());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (scatterPool != null) {
+            scatterPool.shutdownNow();
+        }
+    }
+
+    public boolean isSharded() {
+        return shardDataSources != null;
+    }
+
+    public int shardCount() {
+        return shardDataSources != null ? shardDataSources.count() : 1;
+    }
+
+    /**
+     * Place a new user. Existing users stay on the shard recorded for them in the user directory.
+     */
+    public int shardForUser(long userId) {
+        return ring.shardFor(userId);
+    }
+
+    public int shardForClaim(long claimId) {
+        int shard = (int) Math.floorMod(claimId, (long) claimIdStride);
+        if (shard >= shardCount()) {
+            throw new NotFoundException("Claim not found");
+        }
+        return shard;
+    }
+
+    /**
+     * Route this thread to the shard until the scope is closed
+     */
+    public ShardRouting.Scope onShard(int shard) {
+        return isSharded() ? ShardRouting.on(shard) : ShardRouting.none();
+    }
+
+    /**
+     * Route this thread to the claim's shard; open before the transaction's first statement
+     */
+    public ShardRouting.Scope forClaim(Long claimId) {
+        return isSharded() && claimId != null ? ShardRouting.on(shardForClaim(claimId)) : ShardRouting.none();
+    }
+
+    /**
+     * Run the task on each shard in turn, for background jobs that work shard by shard
+     */
+    public void forEachShard(IntConsumer task) {
+        for (int shard = 0; shard < shardCount(); shard++) {
+            try (ShardRouting.Scope ignored = onShard(shard)) {
+                task.accept(shard);
+            }
+        }
+    }
+
+    /**
+     * Run a read on every shard in parallel and return the results in shard order.
+     * Fails if any shard fails or the timeout passes: partial admin totals would look complete.
+     * The timeout is the caller's remaining transaction time when that is shorter, and each shard
+     * transaction carries it, so statements are cancelled on the shards once the caller gives up.
+     */
+    public <T> List<T> scatter(IntFunction<T> query) {
+        if (!isSharded()) {
+            return Collections.singletonList(query.apply(ShardRouting.HOME));
+        }
+        long timeoutMillis = remainingMillis();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager, readOnly);
+        transaction.setTimeout((int) Math.max(1, (timeoutMillis + 999) / 1000));
+
+        List<CompletableFuture<T>> parts = new ArrayList<>(shardCount());
+        for (int shard = 0; shard < shardCount(); shard++) {
+            int target = shard;
+            parts.add(CompletableFuture.supplyAsync(QueryCountInspector.propagate(() -> {
+                try (ShardRouting.Scope ignored = ShardRouting.on(target)) {
+                    return transaction.execute(status -> query.apply(target));
+                }
+            }), scatterPool));
+        }
+        try {
+            CompletableFuture.allOf(parts.toArray(new CompletableFuture[0]))
+                    .get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            parts.forEach(part -> part.cancel(true));
+            throw new IllegalStateException("Shard query timed out after " + timeoutMillis + " ms");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Shard query failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for shards", e);
+        }
+        List<T> results = new ArrayList<>(parts.size());
+        for (CompletableFuture<T> part : parts) {
+            results.add(part.join());
+        }
+        return results;
+    }
+
+    /**
+     * The scatter timeout, or less when the caller's transaction has a timeout that ends sooner
+     */
+    private long remainingMillis() {
+        if (transactionManager instanceof JpaTransactionManager jpa
+                && TransactionSynchronizationManager.getResource(jpa.getEntityManagerFactory()) instanceof EntityManagerHolder holder
+                && holder.hasTimeout()) {
+            return Math.min(scatterTimeoutMillis, holder.getTimeToLiveInMillis());
+        }
+        return scatterTimeoutMillis;
+    }
+
+    /**
+     * Statements on one shard outside any transaction, e.g. the user directory on the home shard
+     */
+    public JdbcTemplate jdbc(int shard) {
+        if (!isSharded()) {
+            throw new IllegalStateException("Sharding is disabled");
+        }
+        return shardJdbc.get(shard);
+    }
+
+    /**
+     * K-way merge of lists that are each sorted by {@code order}, skipping {@code offset} items
+     * and returning at most {@code limit} (negative for no limit)
+     */
+    public static <T> List<T> mergeSorted(List<List<T>> sorted, Comparator<? super T> order, int offset, int limit) {
+        if (sorted.size() == 1) {
+            List<T> only = sorted.get(0);
+            int from = Math.min(offset, only.size());
+            int to = limit < 0 ? only.size() : (int) Math.min(only.size(), (long) from + limit);
+            return from == 0 && to == only.size() ? only : new ArrayList<>(only.subList(from, to));
+        }
+        // Each heap entry is {list, position}
+        PriorityQueue<int[]> heads = new PriorityQueue<>(
+                (a, b) -> order.compare(sorted.get(a[0]).get(a[1]), sorted.get(b[0]).get(b[1])));
+        for (int i = 0; i < sorted.size(); i++) {
+            if (!sorted.get(i).isEmpty()) {
+                heads.add(new int[]{i, 0});
+            }
+        }
+        List<T> merged = new ArrayList<>(limit >= 0 ? Math.min(limit, 1024) : 16);
+        int skipped = 0;
+        while (!heads.isEmpty() && (limit < 0 || merged.size() < limit)) {
+            int[] head = heads.poll();
+            List<T> list = sorted.get(head[0]);
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                merged.add(list.get(head[1]));
+            }
+            if (++head[1] < list.size()) {
+                heads.add(head);
+            }
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,112 @@
+package com.ny.safeny.sharding;
+
+import com.ny.safeny.datasource.ShardDataSources;
+import com.ny.safeny.datasource.ShardRouting;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Shard Schema
+ * Hibernate creates or updates the schema only on the connection it boots with, the home shard.
+ * This repeats that schema update on every other shard (when ddl-auto manages the schema), then
+ * makes claim ids carry their shard on every shard: shard s hands out ids congruent to s modulo
+ * the claim id stride, so a claim id alone says where the claim lives.
+ */
+@Slf4j
+public class ShardSchema implements Integrator, SmartInitializingSingleton {
+
+    private static final Set<String> MANAGED = Set.of("update", "create", "create-drop");
+
+    private static final String CLAIM_ID_INCREMENT = "SELECT identity_increment FROM information_schema.columns "
+            + "WHERE LOWER(table_name) = 'claims' AND LOWER(column_name) = 'id'";
+
+    private final ShardDataSources shards;
+    private final String ddlAuto;
+    private final int claimIdStride;
+
+    private volatile Metadata metadata;
+    private volatile ServiceRegistry serviceRegistry;
+
+    public ShardSchema(ShardDataSources shards, String ddlAuto, int claimIdStride) {
+        this.shards = shards;
+        this.ddlAuto = ddlAuto;
+        this.claimIdStride = claimIdStride;
+    }
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        this.metadata = metadata;
+        this.serviceRegistry = sessionFactory.getServiceRegistry();
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        this.metadata = null;
+        this.serviceRegistry = null;
+    }
+
+    /**
+     * Runs once every singleton exists, so after the entity manager factory and before any
+     * runner or scheduled job can insert a claim
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (MANAGED.contains(ddlAuto)) {
+            if (metadata == null) {
+                throw new IllegalStateException("Hibernate metadata was not captured; shard schemas cannot be updated");
+            }
+            Map<String, Object> settings = updateSettings();
+            for (int shard = 1; shard < shards.count(); shard++) {
+                // Hibernate's connections come from the routing data source, so this targets the shard
+                try (ShardRouting.Scope ignored = ShardRouting.on(shard)) {
+                    // Always an update: the home shard alone owns create-drop's drop on shutdown
+                    SchemaManagementToolCoordinator.process(metadata, serviceRegistry, settings, action -> { });
+                }
+                log.info("Schema updated on shard {}", shard);
+            }
+        }
+        for (int shard = 0; shard < shards.count(); shard++) {
+            strideClaimIds(shard);
+        }
+    }
+
+    private Map<String, Object> updateSettings() {
+        Map<String, Object> settings = new HashMap<>(serviceRegistry.getService(ConfigurationService.class).getSettings());
+        settings.put(AvailableSettings.JAKARTA_HBM2DDL_DATABASE_ACTION, "update");
+        settings.put(AvailableSettings.JAKARTA_HBM2DDL_SCRIPTS_ACTION, "none");
+        settings.put(AvailableSettings.HBM2DDL_AUTO, "update");
+        settings.put(AvailableSettings.HBM2DDL_HALT_ON_ERROR, true);
+        return settings;
+    }
+
+    private void strideClaimIds(int shard) {
+        JdbcTemplate jdbc = new JdbcTemplate(shards.get(shard));
+        List<String> increments = jdbc.queryForList(CLAIM_ID_INCREMENT, String.class);
+        if (increments.isEmpty() || increments.get(0) == null) {
+            throw new IllegalStateException("claims.id on shard " + shard
+                    + " is not an identity column; see db/postgres/sharding.sql");
+        }
+        if (Long.parseLong(increments.get(0).trim()) == claimIdStride) {
+            return;
+        }
+        Long max = jdbc.queryForObject("SELECT MAX(id) FROM claims", Long.class);
+        long next = ((max != null ? max : 0) / claimIdStride + 1) * claimIdStride + shard;
+        jdbc.execute("ALTER TABLE claims ALTER COLUMN id SET INCREMENT BY " + claimIdStride + " RESTART WITH " + next);
+        log.info("Claim ids on shard {} now start at {} with stride {}", shard, next, claimIdStride);
+    }
+}
@@ -0,0 +1,183 @@
+package com.ny.safeny.sharding;
+
+import com.ny.safeny.datasource.ShardRouting;
+import com.ny.safeny.model.User;
+import com.ny.safeny.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * User Directory
+ * Answers account questions that span all users: who a username is, which shard their data is
+ * on, and whether a username or email is taken.
+ *
+ * On a single database this is the users table. When sharded, the user_directory table on the
+ * home shard hands out user ids and holds the unique username and email constraints. A new user
+ * is placed on the shard its id hashes to, that shard is recorded in the directory, and the user
+ * row is then written there. Later lookups read the recorded shard, so adding shards to the ring
+ * places new users only and never moves existing ones away from their data. Directory reads run
+ * on their own connection, outside the caller's transaction, which may be bound to another shard;
+ * username to account mappings never change, so they are cached.
+ */
+@Component
+public class UserDirectory {
+
+    private static final String FIND = "SELECT user_id, role, shard FROM user_directory WHERE username = ?";
+
+    private static final String PLACE = "UPDATE user_directory SET shard = ? WHERE user_id = ?";
+
+    private static final String INSERT_ENTRY = "INSERT INTO user_directory (username, email, role, created_at) "
+            + "VALUES (?, ?, ?, ?)";
+
+    private static final String INSERT_USER = "INSERT INTO users "
+            + "(id, username, password, full_name, email, phone, role, enabled, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${safeny.sharding.directory-cache-size:100000}")
+    private int cacheSize;
+
+    public record Account(long userId, User.Role role, int shard) {
+    }
+
+    private final ConcurrentHashMap<String, Account> cache = new ConcurrentHashMap<>();
+
+    public Optional<Account> find(String username) {
+        if (!shardRouter.isSharded()) {
+            return userRepository.findByUsername(username)
+                    .map(user -> new Account(user.getId(), user.getRole(), ShardRouting.HOME));
+        }
+        Account cached = cache.get(username);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        List<Account> found = home().query(FIND, (rs, row) -> {
+            long userId = rs.getLong(1);
+            int shard = rs.getInt(3);
+            // Entries written before the shard was recorded were placed by the ring
+            return new Account(userId, User.Role.valueOf(rs.getString(2)),
+                    rs.wasNull() ? shardRouter.shardForUser(userId) : shard);
+        }, username);
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        remember(username, found.get(0));
+        return Optional.of(found.get(0));
+    }
+
+    /**
+     * Route this thread to the user's shard; unknown users go to the home shard, where they are not found either
+     */
+    public ShardRouting.Scope forUser(String username) {
+        if (!shardRouter.isSharded()) {
+            return ShardRouting.none();
+        }
+        int shard = find(username).map(Account::shard).orElse(ShardRouting.HOME);
+        return ShardRouting.on(shard);
+    }
+
+    /**
+     * Insert a new user. Duplicate usernames or emails fail with DataIntegrityViolationException.
+     */
+    public User insert(User user) {
+        if (!shardRouter.isSharded()) {
+            return userRepository.saveAndFlush(user);
+        }
+        KeyHolder keys = new GeneratedKeyHolder();
+        LocalDateTime now = LocalDateTime.now();
+        home().update(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT_ENTRY, new String[]{"user_id"});
+            ps.setString(1, user.getUsername());
+            ps.setString(2, user.getEmail());
+            ps.setString(3, user.getRole().name());
+            ps.setTimestamp(4, Timestamp.valueOf(now));
+            return ps;
+        }, keys);
+        long userId = keys.getKey().longValue();
+
+        int shard = shardRouter.shardForUser(userId);
+        try {
+            home().update(PLACE, shard, userId);
+            shardRouter.jdbc(shard).update(INSERT_USER, userId, user.getUsername(), user.getPassword(),
+                    user.getFullName(), user.getEmail(), user.getPhone(), user.getRole().name(), user.getEnabled(),
+                    Timestamp.valueOf(now), Timestamp.valueOf(now));
+        } catch (RuntimeException e) {
+            // Free the username and email again; the account does not exist
+            home().update("DELETE FROM user_directory WHERE user_id = ?", userId);
+            throw e;
+        }
+        user.setId(userId);
+        user.setCreatedAt(now);
+        user.setUpdatedAt(now);
+        remember(user.getUsername(), new Account(userId, user.getRole(), shard));
+        return user;
+    }
+
+    public boolean usernameTaken(String username) {
+        if (!shardRouter.isSharded()) {
+            return userRepository.existsByUsername(username);
+        }
+        return count("SELECT COUNT(*) FROM user_directory WHERE username = ?", username) > 0;
+    }
+
+    public boolean emailTaken(String email) {
+        if (!shardRouter.isSharded()) {
+            return userRepository.existsByEmail(email);
+        }
+        return count("SELECT COUNT(*) FROM user_directory WHERE email = ?", email) > 0;
+    }
+
+    /**
+     * Stream (id, username, email) of accounts with an id above {@code afterId}, in id order
+     */
+    public void scan(long afterId, int limit, RowCallbackHandler rows) {
+        String sql = shardRouter.isSharded()
+                ? "SELECT user_id, username, email FROM user_directory WHERE user_id > ? ORDER BY user_id"
+                : "SELECT id, username, email FROM users WHERE id > ? ORDER BY id";
+        accounts().query(sql + " FETCH FIRST " + limit + " ROWS ONLY", rows, afterId);
+    }
+
+    public long count() {
+        return count(shardRouter.isSharded() ? "SELECT COUNT(*) FROM user_directory" : "SELECT COUNT(*) FROM users");
+    }
+
+    private long count(String sql, Object... args) {
+        Long count = accounts().queryForObject(sql, Long.class, args);
+        return count != null ? count : 0;
+    }
+
+    private void remember(String username, Account account) {
+        if (cache.size() >= cacheSize) {
+            cache.clear();
+        }
+        cache.put(username, account);
+    }
+
+    private JdbcTemplate accounts() {
+        return shardRouter.isSharded() ? home() : jdbcTemplate;
+    }
+
+    private JdbcTemplate home() {
+        return shardRouter.jdbc(ShardRouting.HOME);
+    }
+}
@@ -0,0 +1,125 @@
+package com.ny.safeny.sla;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Mergeable streaming quantile sketch with logarithmic buckets (DDSketch style)
+ *
+ * A value v >= 1 goes to bucket k = ceil(log_gamma(v)) and is reported back as
+ * 2 * gamma^k / (gamma + 1), so every quantile is within RELATIVE_ACCURACY of a real value.
+ * Memory is a fixed array covering one second to ten years; adding is one array increment and
+ * two sketches merge by adding their arrays.
+ */
+public final class QuantileSketch {
+
+    static final double RELATIVE_ACCURACY = 0.01;
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    private static final long MAX_VALUE = 10L * 366 * 24 * 3600;
+    // Bucket 0 holds values below one
+    private static final int BUCKETS = 2 + (int) Math.ceil(Math.log(MAX_VALUE) / LOG_GAMMA);
+    private static final byte FORMAT_VERSION = 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+
+    public void add(long value) {
+        counts.incrementAndGet(bucket(value));
+        count.incrementAndGet();
+    }
+
+    public void merge(QuantileSketch other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long c = other.counts.get(i);
+            if (c != 0) {
+                counts.addAndGet(i, c);
+            }
+        }
+        count.addAndGet(other.count.get());
+    }
+
+    public long count() {
+        return count.get();
+    }
+
+    /**
+     * @param q quantile in [0, 1]
+     * @return estimated value, or 0 when the sketch is empty
+     */
+    public long quantile(double q) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) (q * (total - 1));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen > rank) {
+                return value(i);
+            }
+        }
+        return value(BUCKETS - 1);
+    }
+
+    byte[] toBytes() {
+        int nonZero = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts.get(i) != 0) {
+                nonZero++;
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 4 + nonZero * (2 + 8));
+        buffer.put(FORMAT_VERSION);
+        int position = buffer.position();
+        buffer.putInt(0);
+        int written = 0;
+        for (int i = 0; i < BUCKETS && written < nonZero; i++) {
+            long c = counts.get(i);
+            if (c != 0) {
+                buffer.putShort((short) i);
+                buffer.putLong(c);
+                written++;
+            }
+        }
+        // Buckets may have gained counts while encoding; record what was actually written
+        buffer.putInt(position, written);
+        return buffer.array();
+    }
+
+    static QuantileSketch fromBytes(byte[] data) {
+        QuantileSketch sketch = new QuantileSketch();
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        if (buffer.get() != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unknown sketch format");
+        }
+        int entries = buffer.getInt();
+        for (int i = 0; i < entries; i++) {
+            int bucket = buffer.getShort();
+            long c = buffer.getLong();
+            sketch.counts.addAndGet(bucket, c);
+            sketch.count.addAndGet(c);
+        }
+        return sketch;
+    }
+
+    private static int bucket(long value) {
+        if (value < 1) {
+            return 0;
+        }
+        int k = (int) Math.ceil(Math.log(Math.min(value, MAX_VALUE)) / LOG_GAMMA);
+        return Math.min(BUCKETS - 1, 1 + k);
+    }
+
+    private static long value(int bucket) {
+        if (bucket == 0) {
+            return 0;
+        }
+        return Math.round(2 * Math.pow(GAMMA, bucket - 1) / (GAMMA + 1));
+    }
+}
@@ -0,0 +1,13 @@
+package com.ny.safeny.sla;
+
+/**
+ * Measured intervals of a claim's life
+ */
+public enum SlaStage {
+    /** createdAt to approval or rejection */
+    DECISION,
+    /** approval to payment */
+    PAYMENT,
+    /** createdAt to payment */
+    END_TO_END
+}
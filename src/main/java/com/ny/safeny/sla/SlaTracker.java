@@ -0,0 +1,216 @@
+package com.ny.safeny.sla;
+
+import com.ny.safeny.cluster.LeaseManager;
+import com.ny.safeny.datasource.ShardRouting;
+import com.ny.safeny.model.SlaSketchRecord;
+import com.ny.safeny.repository.SlaSketchRepository;
+import com.ny.safeny.sharding.ShardRouter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * SLA Tracker
+ * Time-in-state percentiles from one quantile sketch per stage, disaster type and day.
+ * Recording a transition is a map lookup and an array increment; reports merge the sketches
+ * of the requested days. Sketches are not sharded: transitions on every shard feed them, and they
+ * are kept on the home shard.
+ *
+ * Each instance persists only its own samples, one row per node, stage, disaster type and day, so
+ * instances never overwrite each other's counts. The rows of other nodes, including earlier runs
+ * of this one, are read back periodically and merged into reports.
+ */
+@Component
+@Slf4j
+public class SlaTracker {
+
+    private static final String UNKNOWN = "UNKNOWN";
+
+    @Autowired
+    private SlaSketchRepository slaSketchRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private LeaseManager leaseManager;
+
+    @Value("${safeny.sla.retention-days:400}")
+    private int retentionDays;
+
+    /** Re-read other nodes' rows this far behind the last read, for writes that committed after it */
+    private static final Duration READ_OVERLAP = Duration.ofMinutes(1);
+
+    // This node's samples
+    private final Map<Key, QuantileSketch> sketches = new ConcurrentHashMap<>();
+    private final Set<Key> dirty = ConcurrentHashMap.newKeySet();
+
+    // Other nodes' persisted rows by row id; replaced whole, never mutated
+    private final Map<String, RemoteSketch> remote = new ConcurrentHashMap<>();
+
+    private volatile LocalDate lastPruned;
+    private volatile LocalDateTime remoteReadAt;
+
+    private record Key(SlaStage stage, String disasterType, LocalDate day) {
+
+        String id(String node) {
+            return stage + "|" + disasterType + "|" + day + "|" + node;
+        }
+    }
+
+    private record RemoteSketch(Key key, QuantileSketch sketch) {
+    }
+
+    public record Percentiles(String disasterType, long count, long p50Seconds, long p90Seconds, long p99Seconds) {
+    }
+
+    public record SlaReport(SlaStage stage, LocalDate from, LocalDate to,
+                            Percentiles overall, List<Percentiles> byDisasterType) {
+    }
+
+    @PostConstruct
+    void load() {
+        LocalDate oldest = LocalDate.now().minusDays(retentionDays);
+        LocalDateTime readAt = LocalDateTime.now();
+        try (ShardRouting.Scope ignored = shardRouter.onShard(ShardRouting.HOME)) {
+            for (SlaSketchRecord record : slaSketchRepository.findByDayGreaterThanEqual(oldest)) {
+                // A node id set in configuration survives restarts: its own rows carry on counting
+                if (leaseManager.getNodeId().equals(record.getNodeId())) {
+                    sketches.put(key(record), QuantileSketch.fromBytes(record.getData()));
+                } else {
+                    remote.put(record.getId(), new RemoteSketch(key(record), QuantileSketch.fromBytes(record.getData())));
+                }
+            }
+        }
+        remoteReadAt = readAt;
+        log.info("Loaded {} SLA sketches of this node and {} of others", sketches.size(), remote.size());
+    }
+
+    /**
+     * Record the time a claim spent between two points
+     */
+    public void record(SlaStage stage, String disasterType, LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null) {
+            return;
+        }
+        long seconds = Math.max(0, Duration.between(from, to).getSeconds());
+        Key key = new Key(stage, normalize(disasterType), to.toLocalDate());
+        sketches.computeIfAbsent(key, k -> new QuantileSketch()).add(seconds);
+        dirty.add(key);
+    }
+
+    /**
+     * Percentiles over the last {@code days} days, overall and per disaster type
+     * @param disasterType restrict to one disaster type, or null for all
+     */
+    public SlaReport report(SlaStage stage, int days, String disasterType) {
+        LocalDate to = LocalDate.now();
+        LocalDate from = to.minusDays(Math.max(1, days) - 1L);
+        String only = disasterType != null ? normalize(disasterType) : null;
+
+        QuantileSketch overall = new QuantileSketch();
+        Map<String, QuantileSketch> byType = new TreeMap<>();
+        BiConsumer<Key, QuantileSketch> add = (key, sketch) -> {
+            if (key.stage() != stage || key.day().isBefore(from) || key.day().isAfter(to)
+                    || (only != null && !only.equalsIgnoreCase(key.disasterType()))) {
+                return;
+            }
+            overall.merge(sketch);
+            byType.computeIfAbsent(key.disasterType(), t -> new QuantileSketch()).merge(sketch);
+        };
+        sketches.forEach(add);
+        remote.values().forEach(other -> add.accept(other.key(), other.sketch()));
+
+        List<Percentiles> perType = new ArrayList<>();
+        byType.forEach((type, sketch) -> perType.add(percentiles(type, sketch)));
+        return new SlaReport(stage, from, to, percentiles(only != null ? only : "ALL", overall), perType);
+    }
+
+    /**
+     * Persist this node's changed sketches, read other nodes' changed rows and drop days past retention
+     */
+    @Scheduled(fixedDelayString = "${safeny.sla.persist-interval-ms:60000}")
+    public void persist() {
+        try (ShardRouting.Scope ignored = shardRouter.onShard(ShardRouting.HOME)) {
+            persistChanged();
+        }
+    }
+
+    private void persistChanged() {
+        List<SlaSketchRecord> records = new ArrayList<>();
+        for (Key key : dirty) {
+            // Remove before encoding: a sample added meanwhile marks the key dirty again
+            dirty.remove(key);
+            QuantileSketch sketch = sketches.get(key);
+            if (sketch == null) {
+                continue;
+            }
+            SlaSketchRecord record = new SlaSketchRecord();
+            record.setId(key.id(leaseManager.getNodeId()));
+            record.setNodeId(leaseManager.getNodeId());
+            record.setStage(key.stage().name());
+            record.setDisasterType(key.disasterType());
+            record.setDay(key.day());
+            record.setData(sketch.toBytes());
+            record.setSampleCount(sketch.count());
+            records.add(record);
+        }
+        if (!records.isEmpty()) {
+            slaSketchRepository.saveAll(records);
+        }
+
+        LocalDateTime readAt = LocalDateTime.now();
+        for (SlaSketchRecord record : slaSketchRepository.findByUpdatedAtGreaterThanEqual(remoteReadAt.minus(READ_OVERLAP))) {
+            if (!leaseManager.getNodeId().equals(record.getNodeId())) {
+                remote.put(record.getId(), new RemoteSketch(key(record), QuantileSketch.fromBytes(record.getData())));
+            }
+        }
+        remoteReadAt = readAt;
+
+        LocalDate today = LocalDate.now();
+        if (!today.equals(lastPruned)) {
+            LocalDate oldest = today.minusDays(retentionDays);
+            sketches.keySet().removeIf(key -> key.day().isBefore(oldest));
+            remote.values().removeIf(other -> other.key().day().isBefore(oldest));
+            slaSketchRepository.deleteOlderThan(oldest);
+            lastPruned = today;
+        }
+    }
+
+    @PreDestroy
+    void flush() {
+        try {
+            persist();
+        } catch (Exception e) {
+            log.warn("Could not persist SLA sketches on shutdown", e);
+        }
+    }
+
+    private static Key key(SlaSketchRecord record) {
+        return new Key(SlaStage.valueOf(record.getStage()), record.getDisasterType(), record.getDay());
+    }
+
+    private static Percentiles percentiles(String disasterType, QuantileSketch sketch) {
+        return new Percentiles(disasterType, sketch.count(),
+                sketch.quantile(0.50), sketch.quantile(0.90), sketch.quantile(0.99));
+    }
+
+    private static String normalize(String disasterType) {
+        return disasterType != null && !disasterType.isBlank() ? disasterType.trim() : UNKNOWN;
+    }
+}
@@ -0,0 +1,39 @@
+package com.ny.safeny.startup;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Times real (non warm-up) requests until one completes fast, then only costs a volatile read
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class FirstFastRequestFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private StartupMetrics startupMetrics;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!startupMetrics.awaitingFirstFastRequest() || request.getHeader(WarmupRunner.HEADER) != null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        long start = System.nanoTime();
+        filterChain.doFilter(request, response);
+        if (response.getStatus() < 400) {
+            startupMetrics.requestCompleted(System.nanoTime() - start);
+        }
+    }
+}
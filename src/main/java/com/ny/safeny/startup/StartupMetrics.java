@@ -0,0 +1,76 @@
+package com.ny.safeny.startup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Startup Metrics
+ * Records how long the instance takes to become useful after a scale-out: context startup,
+ * JVM uptime at ready, warm-up duration, and the JVM uptime at which the first real request
+ * finished under the fast-request threshold.
+ */
+@Component
+@Slf4j
+public class StartupMetrics {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${safeny.warmup.fast-request-ms:50}")
+    private long fastRequestMillis;
+
+    private volatile long startupMillis = -1;
+    private volatile long readyUptimeMillis = -1;
+    private volatile long warmupMillis = -1;
+    private volatile long firstFastRequestUptimeMillis = -1;
+
+    @PostConstruct
+    void init() {
+        register("safeny.startup.context", "Time to start the application context", m -> m.startupMillis);
+        register("safeny.startup.ready.uptime", "JVM uptime when the application was ready", m -> m.readyUptimeMillis);
+        register("safeny.startup.warmup", "Duration of the warm-up before accepting traffic", m -> m.warmupMillis);
+        register("safeny.startup.first.fast.request.uptime",
+                "JVM uptime when the first real request completed under the fast-request threshold",
+                m -> m.firstFastRequestUptimeMillis);
+    }
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        startupMillis = event.getTimeTaken() != null ? event.getTimeTaken().toMillis() : -1;
+        readyUptimeMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        log.info("Startup: context {} ms, ready at JVM uptime {} ms", startupMillis, readyUptimeMillis);
+    }
+
+    void warmupCompleted(long millis) {
+        warmupMillis = millis;
+    }
+
+    boolean awaitingFirstFastRequest() {
+        return firstFastRequestUptimeMillis < 0;
+    }
+
+    void requestCompleted(long nanos) {
+        if (firstFastRequestUptimeMillis < 0 && TimeUnit.NANOSECONDS.toMillis(nanos) <= fastRequestMillis) {
+            firstFastRequestUptimeMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+            log.info("First fast request ({} ms) at JVM uptime {} ms",
+                    TimeUnit.NANOSECONDS.toMillis(nanos), firstFastRequestUptimeMillis);
+        }
+    }
+
+    private void register(String name, String description, ToDoubleFunction<StartupMetrics> value) {
+        TimeGauge.builder(name, this, TimeUnit.MILLISECONDS, value)
+                .description(description)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,155 @@
+package com.ny.safeny.startup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ny.safeny.model.Claim;
+import com.ny.safeny.model.User;
+import com.ny.safeny.security.JwtTokenUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Warm-up Runner
+ * Exercises the JWT, claim read and JSON serialization paths before the instance reports ready.
+ * Runners complete before Spring Boot publishes ReadinessState.ACCEPTING_TRAFFIC, so the readiness
+ * probe keeps traffic away until the hot paths have been through the JIT.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+@Slf4j
+public class WarmupRunner implements ApplicationRunner {
+
+    /** Marks warm-up requests so they are not counted as real traffic */
+    static final String HEADER = "X-Warmup";
+
+    private static final List<String> PATHS = List.of("/claims/my-claims", "/claims/statistics", "/claims/0");
+
+    @Autowired
+    private JwtTokenUtil jwtTokenUtil;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private StartupMetrics startupMetrics;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${safeny.warmup.enabled:false}")
+    private boolean enabled;
+
+    @Value("${safeny.warmup.iterations:200}")
+    private int iterations;
+
+    @Value("${safeny.warmup.max-duration-seconds:30}")
+    private int maxDurationSeconds;
+
+    @Value("${safeny.warmup.username:admin}")
+    private String username;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        long deadline = start + Duration.ofSeconds(maxDurationSeconds).toNanos();
+        int requests = 0;
+        try {
+            // 1. JWT issue and validation
+            UserDetails user = userDetailsService.loadUserByUsername(username);
+            String token = jwtTokenUtil.generateToken(user);
+            for (int i = 0; i < iterations && System.nanoTime() < deadline; i++) {
+                jwtTokenUtil.validateToken(jwtTokenUtil.generateToken(user), user);
+            }
+
+            // 2. Claim serialization
+            List<Claim> claims = sampleClaims();
+            for (int i = 0; i < iterations && System.nanoTime() < deadline; i++) {
+                objectMapper.writeValueAsBytes(claims);
+            }
+
+            // 3. Full request path: filters, security, MVC, repository reads and Jackson
+            requests = warmUpHttp(token, deadline);
+        } catch (Exception e) {
+            // A failed warm-up only costs latency; never block startup on it
+            log.warn("Warm-up stopped early: {}", e.getMessage());
+        }
+
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        startupMetrics.warmupCompleted(millis);
+        log.info("Warm-up finished in {} ms ({} HTTP requests)", millis, requests);
+    }
+
+    private int warmUpHttp(String token, long deadline) throws Exception {
+        Integer port = environment.getProperty("local.server.port", Integer.class);
+        if (port == null) {
+            return 0;
+        }
+        String base = "http://127.0.0.1:" + port + environment.getProperty("server.servlet.context-path", "");
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+
+        int requests = 0;
+        for (int i = 0; i < iterations && System.nanoTime() < deadline; i++) {
+            for (String path : PATHS) {
+                HttpRequest request = HttpRequest.newBuilder(URI.create(base + path))
+                        .header("Authorization", "Bearer " + token)
+                        .header(HEADER, "1")
+                        .timeout(Duration.ofSeconds(5))
+                        .GET()
+                        .build();
+                client.send(request, HttpResponse.BodyHandlers.discarding());
+                requests++;
+            }
+        }
+        return requests;
+    }
+
+    private static List<Claim> sampleClaims() {
+        User owner = new User();
+        owner.setId(1L);
+        owner.setUsername("warmup");
+        owner.setFullName("Warm Up");
+        owner.setEmail("warmup@example.org");
+        owner.setRole(User.Role.ROLE_USER);
+
+        List<Claim> claims = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Claim claim = new Claim();
+            claim.setId((long) i + 1);
+            claim.setUser(owner);
+            claim.setDisasterType("FLOOD");
+            claim.setDescription("Basement flooded after storm surge");
+            claim.setLocation("Queens, NY");
+            claim.setIncidentDate(LocalDateTime.now().minusDays(i));
+            claim.setRequestAmount(BigDecimal.valueOf(1500 + i * 10L, 0));
+            claim.setStatus(Claim.ClaimStatus.values()[i % Claim.ClaimStatus.values().length]);
+            claim.setCreatedAt(LocalDateTime.now());
+            claim.setUpdatedAt(LocalDateTime.now());
+            claims.add(claim);
+        }
+        return claims;
+    }
+}
@@ -0,0 +1,27 @@
+-- Closed-claim history table, range-partitioned by created_at month.
+-- Run once before starting the application on PostgreSQL; ddl-auto: update then leaves it alone.
+-- Monthly partitions are created on demand by ClaimArchiveService.
+
+CREATE TABLE IF NOT EXISTS claim_history (
+    id               BIGINT         NOT NULL,
+    user_id          BIGINT         NOT NULL,
+    disaster_type    VARCHAR(255)   NOT NULL,
+    description      VARCHAR(255)   NOT NULL,
+    incident_date    TIMESTAMP(6),
+    location         VARCHAR(255),
+    request_amount   NUMERIC(38, 2) NOT NULL,
+    status           VARCHAR(255)   NOT NULL,
+    reviewer_id      BIGINT,
+    review_comments  VARCHAR(255),
+    approved_amount  NUMERIC(38, 2),
+    created_at       TIMESTAMP(6)   NOT NULL,
+    updated_at       TIMESTAMP(6),
+    reviewed_at      TIMESTAMP(6),
+    archived_at      TIMESTAMP(6),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE IF NOT EXISTS claim_history_default PARTITION OF claim_history DEFAULT;
+
+CREATE INDEX IF NOT EXISTS idx_claim_history_id ON claim_history (id);
+CREATE INDEX IF NOT EXISTS idx_claim_history_user ON claim_history (user_id, created_at);
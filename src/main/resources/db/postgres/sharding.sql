@@ -0,0 +1,20 @@
+-- Sharded deployments (safeny.sharding.enabled), for use with ddl-auto: none.
+-- Create the application schema on every shard as for a single database, then run this.
+-- Start from empty databases: existing users and claims are not moved between shards.
+
+-- Home shard only: hands out user ids and keeps usernames and emails unique across shards.
+CREATE TABLE IF NOT EXISTS user_directory (
+    user_id     BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username    VARCHAR(255) NOT NULL UNIQUE,
+    email       VARCHAR(255) NOT NULL UNIQUE,
+    role        VARCHAR(255) NOT NULL,
+    shard       INTEGER,
+    created_at  TIMESTAMP(6)
+);
+ALTER TABLE user_directory ADD COLUMN IF NOT EXISTS shard INTEGER;
+
+-- Every shard: claims.id must be an identity column (GENERATED BY DEFAULT AS IDENTITY).
+-- On startup the application sets its increment to safeny.sharding.claim-id-stride and restarts it
+-- so that shard s hands out ids congruent to s, which lets a claim id alone find its shard.
+-- users.id values come from user_directory and are inserted explicitly.
+CREATE INDEX IF NOT EXISTS idx_claims_created ON claims (created_at);
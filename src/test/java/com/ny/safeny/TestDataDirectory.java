@@ -0,0 +1,26 @@
+package com.ny.safeny;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Test Data Directory
+ * Gives each application context one directory under target/test-data, exposed as
+ * safeny.test-data-directory. ${random.uuid} cannot do this: every reference to it resolves to a
+ * new value, so the payment, attachment and audit directories would each get an unrelated root.
+ */
+public class TestDataDirectory implements EnvironmentPostProcessor {
+
+    public static final String PROPERTY = "safeny.test-data-directory";
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        environment.getPropertySources().addLast(new MapPropertySource("testDataDirectory",
+                Map.of(PROPERTY, "target/test-data/" + UUID.randomUUID())));
+    }
+}
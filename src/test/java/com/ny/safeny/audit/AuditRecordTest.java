@@ -0,0 +1,91 @@
+package com.ny.safeny.audit;
+
+import com.ny.safeny.model.Claim.ClaimStatus;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditRecordTest {
+
+    @Test
+    void roundTripsEveryField() {
+        AuditRecord record = new AuditRecord(42L, 1_700_000_000_123L, ClaimStatus.UNDER_REVIEW, ClaimStatus.APPROVED,
+                new BigDecimal("1234.56"), "admin", "Approved after site visit — ✓");
+
+        ByteBuffer buffer = encode(record);
+
+        assertThat(buffer.position()).isEqualTo(record.encodedSize());
+        buffer.flip();
+        assertThat(AuditRecord.decode(buffer)).isEqualTo(record);
+        assertThat(buffer.hasRemaining()).isFalse();
+    }
+
+    @Test
+    void roundTripsAbsentFields() {
+        AuditRecord created = new AuditRecord(7L, 1L, null, ClaimStatus.PENDING, null, null, null);
+
+        ByteBuffer buffer = encode(created);
+        buffer.flip();
+
+        assertThat(AuditRecord.decode(buffer)).isEqualTo(created);
+    }
+
+    @Test
+    void decodesConsecutiveRecords() {
+        AuditRecord first = new AuditRecord(1L, 10L, null, ClaimStatus.PENDING, null, "citizen", null);
+        AuditRecord second = new AuditRecord(1L, 20L, ClaimStatus.PENDING, ClaimStatus.REJECTED, null, "admin", "Not covered");
+        ByteBuffer buffer = ByteBuffer.allocate(first.encodedSize() + second.encodedSize() + 16);
+        first.encode(buffer);
+        second.encode(buffer);
+        buffer.flip();
+
+        assertThat(AuditRecord.decode(buffer)).isEqualTo(first);
+        assertThat(AuditRecord.decode(buffer)).isEqualTo(second);
+        assertThat(AuditRecord.decode(buffer)).isNull();
+    }
+
+    @Test
+    void truncatesLongTextOnACharacterBoundary() {
+        String comment = "é".repeat(AuditRecord.MAX_TEXT_BYTES);
+        AuditRecord record = new AuditRecord(3L, 30L, ClaimStatus.PENDING, ClaimStatus.REJECTED, null, "admin", comment);
+
+        ByteBuffer buffer = encode(record);
+        buffer.flip();
+        AuditRecord decoded = AuditRecord.decode(buffer);
+
+        assertThat(decoded).isNotNull();
+        assertThat(decoded.comment().getBytes(StandardCharsets.UTF_8).length).isLessThanOrEqualTo(AuditRecord.MAX_TEXT_BYTES);
+        assertThat(comment).startsWith(decoded.comment());
+    }
+
+    @Test
+    void rejectsEmptyTruncatedAndCorruptBytes() {
+        AuditRecord record = new AuditRecord(5L, 50L, ClaimStatus.APPROVED, ClaimStatus.PAID,
+                new BigDecimal("10.00"), "system", "Paid");
+        ByteBuffer encoded = encode(record);
+        encoded.flip();
+
+        assertThat(AuditRecord.decode(ByteBuffer.allocate(64))).isNull();
+
+        ByteBuffer truncated = encoded.duplicate();
+        truncated.limit(record.encodedSize() - 1);
+        assertThat(AuditRecord.decode(truncated)).isNull();
+        assertThat(truncated.position()).isZero();
+
+        ByteBuffer corrupt = ByteBuffer.allocate(record.encodedSize());
+        corrupt.put(encoded.duplicate());
+        corrupt.put(12, (byte) (corrupt.get(12) ^ 1));
+        corrupt.flip();
+        assertThat(AuditRecord.decode(corrupt)).isNull();
+    }
+
+    private static ByteBuffer encode(AuditRecord record) {
+        ByteBuffer buffer = ByteBuffer.allocate(record.encodedSize());
+        record.encode(buffer);
+        return buffer;
+    }
+}
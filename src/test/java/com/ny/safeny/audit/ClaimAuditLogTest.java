@@ -0,0 +1,150 @@
+package com.ny.safeny.audit;
+
+import com.ny.safeny.model.Claim.ClaimStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClaimAuditLogTest {
+
+    /** Fills most of a 1 MB segment in about 500 records */
+    private static final String LONG_COMMENT = "x".repeat(AuditRecord.MAX_TEXT_BYTES);
+
+    @TempDir
+    Path directory;
+
+    private ClaimAuditLog auditLog;
+
+    @AfterEach
+    void closeLog() throws IOException {
+        if (auditLog != null) {
+            auditLog.close();
+        }
+    }
+
+    @Test
+    void readsHistoryBackAcrossSegmentsAndRestarts() throws IOException {
+        auditLog = open();
+        List<AuditRecord> claimOne = new ArrayList<>();
+        List<AuditRecord> claimTwo = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            AuditRecord record = record(i % 2 == 0 ? 1L : 2L, i, LONG_COMMENT);
+            (i % 2 == 0 ? claimOne : claimTwo).add(record);
+            auditLog.append(record);
+        }
+
+        assertThat(segmentFiles(".log")).hasSizeGreaterThan(1);
+        assertThat(segmentFiles(".idx")).hasSize(segmentFiles(".log").size() - 1);
+        assertThat(history(1L)).isEqualTo(claimOne);
+        assertThat(history(2L)).isEqualTo(claimTwo);
+        assertThat(auditLog.hasHistory(3L)).isFalse();
+
+        reopen();
+        assertThat(history(1L)).isEqualTo(claimOne);
+        assertThat(history(2L)).isEqualTo(claimTwo);
+
+        AuditRecord later = record(1L, 5000, "after restart");
+        auditLog.append(later);
+        claimOne.add(later);
+        assertThat(history(1L)).isEqualTo(claimOne);
+    }
+
+    @Test
+    void rebuildsMissingAndDamagedIndexes() throws IOException {
+        auditLog = open();
+        List<AuditRecord> expected = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            AuditRecord record = record(i % 3, i, LONG_COMMENT);
+            if (i % 3 == 1) {
+                expected.add(record);
+            }
+            auditLog.append(record);
+        }
+        auditLog.close();
+        auditLog = null;
+
+        List<Path> indexes = segmentFiles(".idx");
+        assertThat(indexes).hasSizeGreaterThan(1);
+        Files.delete(indexes.get(0));
+        Files.write(indexes.get(1), new byte[]{1, 2, 3}, StandardOpenOption.APPEND);
+
+        auditLog = open();
+        assertThat(history(1L)).isEqualTo(expected);
+        assertThat(segmentFiles(".idx")).hasSameSizeAs(indexes);
+    }
+
+    @Test
+    void recoversFromATornTail() throws IOException {
+        auditLog = open();
+        List<AuditRecord> expected = List.of(
+                record(9L, 1, "submitted"),
+                record(9L, 2, "under review"));
+        int end = 0;
+        for (AuditRecord record : expected) {
+            auditLog.append(record);
+            end += record.encodedSize();
+        }
+        auditLog.close();
+        auditLog = null;
+
+        // A crash part-way through the next append: half of its bytes reached the segment
+        AuditRecord torn = record(9L, 3, "approved");
+        ByteBuffer bytes = ByteBuffer.allocate(torn.encodedSize());
+        torn.encode(bytes);
+        bytes.flip().limit(torn.encodedSize() / 2);
+        try (FileChannel channel = FileChannel.open(segmentFiles(".log").get(0), StandardOpenOption.WRITE)) {
+            channel.write(bytes, end);
+        }
+
+        auditLog = open();
+        assertThat(history(9L)).isEqualTo(expected);
+
+        AuditRecord next = record(9L, 4, "approved again");
+        auditLog.append(next);
+        reopen();
+        assertThat(history(9L)).containsExactly(expected.get(0), expected.get(1), next);
+    }
+
+    private ClaimAuditLog open() throws IOException {
+        ClaimAuditLog opened = new ClaimAuditLog();
+        ReflectionTestUtils.setField(opened, "enabled", true);
+        ReflectionTestUtils.setField(opened, "directory", directory.toString());
+        ReflectionTestUtils.setField(opened, "segmentSizeMb", 1);
+        opened.open();
+        return opened;
+    }
+
+    private void reopen() throws IOException {
+        auditLog.close();
+        auditLog = open();
+    }
+
+    private List<AuditRecord> history(long claimId) {
+        List<AuditRecord> records = new ArrayList<>();
+        auditLog.readHistory(claimId, records::add);
+        return records;
+    }
+
+    private List<Path> segmentFiles(String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(suffix)).sorted().toList();
+        }
+    }
+
+    private static AuditRecord record(long claimId, long timestamp, String comment) {
+        return new AuditRecord(claimId, timestamp, ClaimStatus.PENDING, ClaimStatus.UNDER_REVIEW, null, "admin", comment);
+    }
+}
@@ -0,0 +1,128 @@
+package com.ny.safeny.cluster;
+
+import com.ny.safeny.SafeNyApplication;
+import com.ny.safeny.datasource.ShardRouting;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Two application contexts on one H2 database act as two instances of the service. Heartbeats
+ * are slower than the lease TTL, so a lease that is not released expires as if its holder stalled.
+ */
+class LeaseManagerTest {
+
+    private static final long TTL_MILLIS = 1000;
+
+    private static ConfigurableApplicationContext first;
+    private static ConfigurableApplicationContext second;
+    private static LeaseManager firstNode;
+    private static LeaseManager secondNode;
+
+    @BeforeAll
+    static void startTwoInstances() {
+        String url = "jdbc:h2:mem:leases-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL";
+        first = start(url);
+        second = start(url);
+        firstNode = first.getBean(LeaseManager.class);
+        secondNode = second.getBean(LeaseManager.class);
+    }
+
+    @AfterAll
+    static void stopInstances() {
+        if (second != null) {
+            second.close();
+        }
+        if (first != null) {
+            first.close();
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String url) {
+        return new SpringApplicationBuilder(SafeNyApplication.class)
+                .profiles("h2", "test")
+                .run("--spring.datasource.url=" + url,
+                        // The second context must not drop the tables the first one is using
+                        "--spring.jpa.hibernate.ddl-auto=update",
+                        "--server.port=0",
+                        "--safeny.cluster.lease-ttl-ms=" + TTL_MILLIS,
+                        "--safeny.cluster.heartbeat-interval-ms=600000");
+    }
+
+    @Test
+    void onlyOneInstanceHoldsALease() {
+        Optional<Lease> held = firstNode.tryAcquire("test-exclusive");
+
+        assertThat(held).isPresent();
+        assertThat(secondNode.tryAcquire("test-exclusive")).isEmpty();
+        // The holder can take its own lease again
+        assertThat(firstNode.tryAcquire("test-exclusive")).isPresent();
+    }
+
+    @Test
+    void stalledHolderCannotCommitAfterTakeover() throws Exception {
+        Lease stalled = firstNode.tryAcquire("test-fenced").orElseThrow();
+        assertThat(firstNode.commitFenced(stalled, ShardRouting.HOME, () -> true)).isTrue();
+
+        TimeUnit.MILLISECONDS.sleep(TTL_MILLIS + 200);
+        Lease successor = secondNode.tryAcquire("test-fenced").orElseThrow();
+        assertThat(successor.getFencingToken()).isGreaterThan(stalled.getFencingToken());
+
+        AtomicBoolean ran = new AtomicBoolean();
+        assertThatThrownBy(() -> firstNode.commitFenced(stalled, ShardRouting.HOME, () -> ran.getAndSet(true)))
+                .isInstanceOf(LeaseLostException.class);
+        assertThat(ran).isFalse();
+        assertThat(stalled.isHeld()).isFalse();
+        assertThat(secondNode.commitFenced(successor, ShardRouting.HOME, () -> true)).isTrue();
+    }
+
+    @Test
+    void shardsAreSpreadOverBothInstancesAndRunOnce() {
+        int shardCount = 8;
+        String runKey = "run-" + UUID.randomUUID();
+        Map<Integer, String> ranOn = new ConcurrentHashMap<>();
+        Map<Integer, Integer> runs = new ConcurrentHashMap<>();
+
+        LeaseManager.ShardTask task = (shard, count, lease) -> {
+            runs.merge(shard, 1, Integer::sum);
+            try {
+                // Long enough for the other instance to claim shards meanwhile, well inside the TTL
+                TimeUnit.MILLISECONDS.sleep(150);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        CompletableFuture<Integer> onFirst = runSharded(firstNode, shardCount, runKey, ranOn, task);
+        CompletableFuture<Integer> onSecond = runSharded(secondNode, shardCount, runKey, ranOn, task);
+
+        assertThat(onFirst.join() + onSecond.join()).isEqualTo(shardCount);
+        assertThat(runs).hasSize(shardCount).allSatisfy((shard, times) -> assertThat(times).isEqualTo(1));
+        assertThat(ranOn.values()).contains(firstNode.getNodeId(), secondNode.getNodeId());
+
+        // Completed for this run key: neither instance repeats a shard
+        assertThat(firstNode.runSharded("test-spread", shardCount, runKey, task)).isZero();
+        assertThat(secondNode.runSharded("test-spread", shardCount, runKey, task)).isZero();
+    }
+
+    private static CompletableFuture<Integer> runSharded(LeaseManager node, int shardCount, String runKey,
+                                                         Map<Integer, String> ranOn, LeaseManager.ShardTask task) {
+        return CompletableFuture.supplyAsync(() -> node.runSharded("test-spread", shardCount, runKey,
+                (shard, count, lease) -> {
+                    ranOn.put(shard, node.getNodeId());
+                    task.run(shard, count, lease);
+                }));
+    }
+}
@@ -0,0 +1,140 @@
+package com.ny.safeny.datasource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+/**
+ * Runs against two H2 databases, a primary and a replica that only catches up when the test calls
+ * {@link H2ReplicaSync#sync()}, so every read shows which database served it.
+ */
+@SpringBootTest(properties = {
+        // A fixed name: each injection of ${random.uuid} differs, which would give the pool and the sync two databases
+        "safeny.datasource.replica.url=jdbc:h2:mem:replica-routing-test;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "safeny.datasource.replica.h2-sync-interval-ms=3600000"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles({"h2", "h2-replica", "test"})
+class ReplicaRoutingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private H2ReplicaSync replicaSync;
+
+    @Test
+    void ownWritesReadThePrimaryWhileAdminListsLagOnTheReplica() throws Exception {
+        String citizen = register();
+        String admin = login("admin", "Admin@2025");
+        long claimId = createClaim(citizen);
+
+        assertThat(claimIds(perform(get("/claims/my-claims"), citizen, 200))).contains(claimId);
+        assertThat(read(perform(get("/claims/" + claimId), citizen, 200)).get("id").asLong()).isEqualTo(claimId);
+
+        MockHttpServletRequestBuilder allClaims = get("/claims/all").param("page", "0").param("size", "100");
+        assertThat(claimIds(perform(allClaims, admin, 200))).doesNotContain(claimId);
+
+        replicaSync.sync();
+        assertThat(claimIds(perform(allClaims, admin, 200))).contains(claimId);
+    }
+
+    @Test
+    void chunkedUploadChecksOffsetsOnThePrimary() throws Exception {
+        String citizen = register();
+        long claimId = createClaim(citizen);
+        byte[] content = "%PDF-1.4 first chunk, then the second chunk".getBytes(StandardCharsets.US_ASCII);
+        int half = content.length / 2;
+
+        JsonNode upload = read(perform(post("/claims/" + claimId + "/attachments/uploads")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("fileName", "receipt.pdf", "contentType", "application/pdf",
+                        "size", content.length))), citizen, 201));
+        String uploads = "/claims/" + claimId + "/attachments/uploads/" + upload.get("id").asText();
+
+        perform(put(uploads).header("Upload-Offset", 0).contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .content(Arrays.copyOfRange(content, 0, half)), citizen, 200);
+        // The replica has neither the upload nor the first chunk's offset
+        perform(put(uploads).header("Upload-Offset", half).contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .content(Arrays.copyOfRange(content, half, content.length)), citizen, 201);
+    }
+
+    private MvcResult perform(MockHttpServletRequestBuilder request, String token, int expectedStatus) throws Exception {
+        request.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        MvcResult result = mockMvc.perform(request).andReturn();
+        assertThat(result.getResponse().getStatus())
+                .as("status of %s %s", result.getRequest().getMethod(), result.getRequest().getRequestURI())
+                .isEqualTo(expectedStatus);
+        return result;
+    }
+
+    private long createClaim(String token) throws Exception {
+        return read(perform(post("/claims").contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of(
+                        "disasterType", "Flood",
+                        "description", "Basement flooded",
+                        "incidentDate", "2025-01-15T10:00:00",
+                        "location", "Albany",
+                        "requestAmount", 1200))), token, 201)).get("id").asLong();
+    }
+
+    private List<Long> claimIds(MvcResult result) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        read(result).forEach(claim -> ids.add(claim.get("id").asLong()));
+        return ids;
+    }
+
+    private String register() throws Exception {
+        String username = "citizen-" + UUID.randomUUID().toString().substring(0, 8);
+        MvcResult result = mockMvc.perform(post("/auth/register").contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of(
+                                "username", username,
+                                "password", "Password@2025",
+                                "fullName", "Test Citizen",
+                                "email", username + "@example.com",
+                                "phone", "518-555-0100"))))
+                .andReturn();
+        assertThat(result.getResponse().getStatus()).as("registration of %s", username).isEqualTo(201);
+        return read(result).get("token").asText();
+    }
+
+    private String login(String username, String password) throws Exception {
+        MvcResult result = mockMvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("username", username, "password", password))))
+                .andReturn();
+        assertThat(result.getResponse().getStatus()).as("login of %s", username).isEqualTo(200);
+        return read(result).get("token").asText();
+    }
+
+    private String json(Object value) throws Exception {
+        return objectMapper.writeValueAsString(value);
+    }
+
+    private JsonNode read(MvcResult result) throws Exception {
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+}
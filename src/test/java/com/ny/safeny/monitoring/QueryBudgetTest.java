@@ -0,0 +1,241 @@
+package com.ny.safeny.monitoring;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+/**
+ * Calls every endpoint that declares a {@link QueryBudget} and fails when the X-Query-Count it
+ * reports goes over that budget. The last test fails when an endpoint with a budget has no call here.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles({"h2", "test"})
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class QueryBudgetTest {
+
+    private static final Set<Method> COVERED = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("requestMappingHandlerMapping")
+    private RequestMappingHandlerMapping handlerMapping;
+
+    @Test
+    @Order(1)
+    void citizenClaimEndpointsStayWithinBudget() throws Exception {
+        String citizen = register();
+
+        long claimId = createClaim(citizen);
+        withinBudget(get("/claims/my-claims"), citizen, 200);
+        withinBudget(get("/claims/" + claimId), citizen, 200);
+        withinBudget(put("/claims/" + claimId).contentType(MediaType.APPLICATION_JSON)
+                .content(json(claim("Updated description"))), citizen, 200);
+        withinBudget(get("/claims/" + claimId + "/history"), citizen, 200);
+        withinBudget(get("/dashboard/citizen"), citizen, 200);
+
+        long deleted = createClaim(citizen);
+        withinBudget(delete("/claims/" + deleted), citizen, 204);
+    }
+
+    @Test
+    @Order(2)
+    void attachmentEndpointsStayWithinBudget() throws Exception {
+        String citizen = register();
+        long claimId = createClaim(citizen);
+        byte[] content = "%PDF-1.4 test attachment".getBytes(StandardCharsets.US_ASCII);
+
+        JsonNode upload = read(withinBudget(post("/claims/" + claimId + "/attachments/uploads")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("fileName", "receipt.pdf", "contentType", "application/pdf",
+                        "size", content.length))), citizen, 201));
+        String uploadId = upload.get("id").asText();
+        String uploads = "/claims/" + claimId + "/attachments/uploads/" + uploadId;
+
+        withinBudget(get(uploads), citizen, 200);
+        JsonNode attachment = read(withinBudget(put(uploads).header("Upload-Offset", 0)
+                .contentType(MediaType.APPLICATION_OCTET_STREAM).content(content), citizen, 201));
+        withinBudget(get("/claims/" + claimId + "/attachments"), citizen, 200);
+        withinBudget(get("/claims/" + claimId + "/attachments/" + attachment.get("id").asLong()), citizen, 200);
+    }
+
+    @Test
+    @Order(3)
+    void adminReviewEndpointsStayWithinBudget() throws Exception {
+        String admin = login("admin", "Admin@2025");
+        String citizen = register();
+        long approved = createClaim(citizen);
+        long rejected = createClaim(citizen);
+        long reviewed = createClaim(citizen);
+
+        withinBudget(put("/funds/Flood").contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("budget", 1_000_000))), admin, 200);
+        withinBudget(get("/funds"), admin, 200);
+        withinBudget(get("/claims/all").param("page", "0").param("size", "20"), admin, 200);
+        withinBudget(get("/claims/pending"), admin, 200);
+        withinBudget(post("/claims/" + approved + "/approve").contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("reviewComments", "Approved", "approvedAmount", 500))), admin, 200);
+        withinBudget(post("/claims/" + rejected + "/reject").contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("reviewComments", "Not covered"))), admin, 200);
+        withinBudget(put("/claims/" + reviewed + "/status").contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("status", "UNDER_REVIEW"))), admin, 200);
+        withinBudget(get("/claims/statistics"), admin, 200);
+        withinBudget(post("/funds/reconcile"), admin, 200);
+        withinBudget(get("/dashboard/admin"), admin, 200);
+    }
+
+    @Test
+    @Order(4)
+    void adminOperationsStayWithinBudget() throws Exception {
+        String admin = login("admin", "Admin@2025");
+
+        long runId = read(withinBudget(post("/disbursements/runs"), admin, 202)).get("id").asLong();
+        withinBudget(get("/disbursements/runs"), admin, 200);
+        withinBudget(get("/disbursements/runs/" + runId), admin, 200);
+        // The run may still be going or already done; either way the answer stays within budget
+        withinBudget(post("/disbursements/runs/" + runId + "/resume"), admin, null);
+        withinBudget(get("/disbursements/runs/" + runId + "/file"), admin, null);
+
+        withinBudget(get("/analytics/claims").param("groupBy", "STATUS"), admin, 200);
+        withinBudget(post("/analytics/refresh"), admin, 204);
+        withinBudget(get("/sla").param("stage", "DECISION"), admin, 200);
+        withinBudget(get("/sla/escalations"), admin, 200);
+        withinBudget(get("/cluster/leases"), admin, 200);
+    }
+
+    @Test
+    @Order(5)
+    void publicEndpointsStayWithinBudget() throws Exception {
+        withinBudget(get("/auth/availability").param("username", "nobody-" + UUID.randomUUID()), null, 200);
+        for (String path : List.of("", "/forms", "/contrast", "/keyboard-shortcuts", "/font-sizes")) {
+            withinBudget(get("/accessibility" + path), null, 200);
+        }
+    }
+
+    @Test
+    @Order(Integer.MAX_VALUE)
+    void everyBudgetedEndpointIsCalled() {
+        List<String> missing = handlerMapping.getHandlerMethods().values().stream()
+                .filter(handler -> handler.hasMethodAnnotation(QueryBudget.class))
+                .map(HandlerMethod::getMethod)
+                .filter(method -> !COVERED.contains(method))
+                .map(method -> method.getDeclaringClass().getSimpleName() + "." + method.getName())
+                .toList();
+        assertThat(missing).as("Endpoints with a @QueryBudget that no test calls").isEmpty();
+    }
+
+    /**
+     * Perform the request and check its statement count against the handler's budget
+     * @param expectedStatus the status to expect, or null to accept any status below 500
+     */
+    private MvcResult withinBudget(MockHttpServletRequestBuilder request, String token, Integer expectedStatus)
+            throws Exception {
+        if (token != null) {
+            request.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        }
+        MvcResult result = mockMvc.perform(request).andReturn();
+        String call = result.getRequest().getMethod() + " " + result.getRequest().getRequestURI();
+
+        assertThat(result.getHandler()).as("handler of %s", call).isInstanceOf(HandlerMethod.class);
+        HandlerMethod handler = (HandlerMethod) result.getHandler();
+        QueryBudget budget = handler.getMethodAnnotation(QueryBudget.class);
+        assertThat(budget).as("@QueryBudget on the handler of %s", call).isNotNull();
+
+        String count = result.getResponse().getHeader(QueryBudgetFilter.QUERY_COUNT_HEADER);
+        assertThat(count).as("%s header of %s", QueryBudgetFilter.QUERY_COUNT_HEADER, call).isNotNull();
+        assertThat(Integer.parseInt(count)).as("statements issued by %s", call).isLessThanOrEqualTo(budget.value());
+        // Null on success; an error response must not come from the strict budget check
+        assertThat(result.getResolvedException()).as("strict budget check of %s", call)
+                .satisfiesAnyOf(
+                        exception -> assertThat(exception).isNull(),
+                        exception -> assertThat(exception).isNotInstanceOf(QueryBudgetExceededException.class));
+
+        int status = result.getResponse().getStatus();
+        if (expectedStatus != null) {
+            assertThat(status).as("status of %s", call).isEqualTo(expectedStatus);
+        } else {
+            assertThat(status).as("status of %s", call).isLessThan(500);
+        }
+        COVERED.add(handler.getMethod());
+        return result;
+    }
+
+    private long createClaim(String token) throws Exception {
+        MvcResult result = withinBudget(post("/claims").contentType(MediaType.APPLICATION_JSON)
+                .content(json(claim("Basement flooded"))), token, 201);
+        return read(result).get("id").asLong();
+    }
+
+    private static Map<String, Object> claim(String description) {
+        return Map.of(
+                "disasterType", "Flood",
+                "description", description,
+                "incidentDate", "2025-01-15T10:00:00",
+                "location", "Albany",
+                "requestAmount", 1200);
+    }
+
+    private String register() throws Exception {
+        String username = "citizen-" + UUID.randomUUID().toString().substring(0, 8);
+        MvcResult result = mockMvc.perform(post("/auth/register").contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of(
+                                "username", username,
+                                "password", "Password@2025",
+                                "fullName", "Test Citizen",
+                                "email", username + "@example.com",
+                                "phone", "518-555-0100"))))
+                .andReturn();
+        assertThat(result.getResponse().getStatus()).as("registration of %s", username).isEqualTo(201);
+        return read(result).get("token").asText();
+    }
+
+    private String login(String username, String password) throws Exception {
+        MvcResult result = mockMvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("username", username, "password", password))))
+                .andReturn();
+        assertThat(result.getResponse().getStatus()).as("login of %s", username).isEqualTo(200);
+        return read(result).get("token").asText();
+    }
+
+    private String json(Object value) throws Exception {
+        return objectMapper.writeValueAsString(value);
+    }
+
+    private JsonNode read(MvcResult result) throws Exception {
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+}